@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simple_rest.s_rest.restapi.cache.ResponseCache;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.simple_rest.s_rest.restapi.request.RequestHandler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * cost of a fresh {@link ResponseCache} hit of a {@link Catalog} of 2000 items,
+   with cached bytes parsed on every hit & with decoded object kept in cache.
+ * server sends 'Cache-Control: max-age=3600', so only the first request of a
+   trial reaches it.
+ * @see ResponseCache.Builder#cacheObjects(boolean)
+ * @version 1.0.0
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheBenchmark {
+
+    // held, so its level is not lost when logger is collected
+    private static final Logger SERVER_LOGGER = Logger.getLogger(MockWebServer.class.getName());
+
+    @Param({"false", "true"})
+    public boolean cacheObjects;
+
+    private MockWebServer server;
+    private RestClient client;
+    private RequestHandler handler;
+    private String url;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SERVER_LOGGER.setLevel(java.util.logging.Level.OFF);
+        final String body = new ObjectMapper().writeValueAsString(new Catalog(2000));
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setHeader("Cache-Control", "max-age=3600")
+                        .setBody(body);
+            }
+        });
+        server.start();
+        client = new RestClient.Builder()
+                .responseCache(new ResponseCache.Builder().cacheObjects(cacheObjects).build())
+                .build();
+        client.warmUp(Catalog.class);
+        handler = new RequestHandler(client);
+        url = server.url("/catalog").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.shutdown();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public Catalog cachedGet() {
+        return handler.execute(Catalog.class, url).getBody();
+    }
+}
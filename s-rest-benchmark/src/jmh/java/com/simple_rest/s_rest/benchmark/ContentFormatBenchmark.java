@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.benchmark;
+
+import com.simple_rest.s_rest.restapi.client.JsonCodecCache;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.simple_rest.s_rest.restapi.request.ElementCallback;
+import com.simple_rest.s_rest.restapi.request.HeaderTools;
+import com.simple_rest.s_rest.restapi.request.RequestHandler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.io.IOException;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compares Json & Smile bodies for the same POJO classes: full request
+   pipeline against {@link StubServer}, & encoding/decoding alone, which
+   shows the parse cost without network.
+ * client of 'smile' format negotiates Smile, client of 'json' format is a
+   plain client; both read same endpoints.
+ * @see RequestPipelineBenchmark
+ * @version 1.0.0
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentFormatBenchmark {
+
+    @Param({"json", "smile"})
+    public String format;
+
+    private StubServer server;
+    private RestClient client;
+    private JsonCodecCache codecs;
+    private String smallUrl, largeUrl, arrayUrl, echoUrl;
+    private Catalog catalog;
+    private byte[] encodedCatalog;
+    private Item item;
+    private HttpHeaders postHeaders;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.start();
+        boolean smile = "smile".equals(format);
+        RestClient.Builder builder = new RestClient.Builder();
+        if (smile)
+            builder.smileFormat();
+        client = builder.build();
+        client.warmUp(Item.class, Catalog.class, Item[].class);
+        codecs = smile ? client.getSmileCodecs() : client.getJsonCodecs();
+        smallUrl = server.url("/small");
+        largeUrl = server.url("/large");
+        arrayUrl = server.url("/array");
+        echoUrl = server.url("/echo");
+        catalog = new Catalog(2000);
+        encodedCatalog = codecs.writer(Catalog.class).writeValueAsBytes(catalog);
+        item = new Item(7);
+        Entry<String,String> contentType = smile ? HeaderTools.CONTENT_TYPE_SMILE : HeaderTools.CONTENT_TYPE_JSON;
+        postHeaders = new HttpHeaders();
+        postHeaders.add(contentType.getKey(), contentType.getValue());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    public Item smallGet() {
+        return new RequestHandler(client).getResource(Item.class, smallUrl, HttpMethod.GET,
+                new HttpHeaders());
+    }
+
+    @Benchmark
+    public Catalog largeGet() {
+        return new RequestHandler(client).getResource(Catalog.class, largeUrl, HttpMethod.GET,
+                new HttpHeaders());
+    }
+
+    @Benchmark
+    public int arrayStream(final Blackhole blackhole) {
+        return new RequestHandler(client).getResourceStream(Item.class, arrayUrl, HttpMethod.GET,
+                new HttpHeaders(), new ElementCallback<Item>() {
+                    @Override
+                    public boolean onElement(Item element) {
+                        blackhole.consume(element);
+                        return true;
+                    }
+                });
+    }
+
+    @Benchmark
+    public Item post() {
+        return new RequestHandler(client).getResource(Item.class, echoUrl, HttpMethod.POST,
+                item, postHeaders);
+    }
+
+    @Benchmark
+    public Catalog decodeLarge() throws IOException {
+        return codecs.reader(Catalog.class).readValue(encodedCatalog);
+    }
+
+    @Benchmark
+    public byte[] encodeLarge() throws IOException {
+        return codecs.writer(Catalog.class).writeValueAsBytes(catalog);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.benchmark;
+
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.simple_rest.s_rest.restapi.request.RequestHandler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * latency of the first Json request of a new client, with & without
+   {@link RestClient#warmUp(Class[])} of its types.
+ * every fork is a new JVM with a new client & measures one request, so
+   jackson's introspection of {@link Catalog} & {@link Item} is not done yet
+   unless the client was warmed up. connection is opened by a plain text
+   request in setup, so only the Json part of first request differs.
+ * @see RequestPipelineBenchmark
+ * @version 1.0.0
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class FirstRequestBenchmark {
+
+    @Param({"false", "true"})
+    public boolean warmUp;
+
+    private StubServer server;
+    private RestClient client;
+    private String largeUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.start();
+        client = new RestClient.Builder().build();
+        if (warmUp)
+            client.warmUp(Catalog.class, Item.class);
+        new RequestHandler(client).execute(String.class, server.url("/text"));
+        largeUrl = server.url("/large");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    public Catalog firstJsonGet() {
+        return new RequestHandler(client).execute(Catalog.class, largeUrl).getBody();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.benchmark;
+
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.simple_rest.s_rest.restapi.request.ElementCallback;
+import com.simple_rest.s_rest.restapi.request.HeaderTools;
+import com.simple_rest.s_rest.restapi.request.RequestHandler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmarks of the whole request pipeline (request handler, message converters,
+   connection engine) against {@link StubServer}.
+ * every benchmark runs in throughput & sample time mode, the latter reports
+   latency percentiles. run with the gc profiler (configured in build.gradle)
+   to see allocation rate, e.g.
+ * <pre>
+ *     ./gradlew :s-rest-benchmark:jmh
+ * </pre>
+ * @version 1.0.0
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestPipelineBenchmark {
+
+    private StubServer server;
+    private RestClient client;
+    private String smallUrl, largeUrl, arrayUrl, textUrl, echoUrl;
+    private Item item;
+    private HttpHeaders postHeaders;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.start();
+        client = new RestClient.Builder().build();
+        client.warmUp(Item.class, Catalog.class, Item[].class);
+        smallUrl = server.url("/small");
+        largeUrl = server.url("/large");
+        arrayUrl = server.url("/array");
+        textUrl = server.url("/text");
+        echoUrl = server.url("/echo");
+        item = new Item(7);
+        postHeaders = new HttpHeaders();
+        postHeaders.add(HeaderTools.CONTENT_TYPE_JSON.getKey(), HeaderTools.CONTENT_TYPE_JSON.getValue());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    public Item smallJsonGet() {
+        return new RequestHandler(client).getResource(Item.class, smallUrl, HttpMethod.GET,
+                new HttpHeaders());
+    }
+
+    @Benchmark
+    public Catalog largeJsonGet() {
+        return new RequestHandler(client).getResource(Catalog.class, largeUrl, HttpMethod.GET,
+                new HttpHeaders());
+    }
+
+    @Benchmark
+    public Item[] arrayGet() {
+        return new RequestHandler(client).getResource(Item[].class, arrayUrl, HttpMethod.GET,
+                new HttpHeaders());
+    }
+
+    @Benchmark
+    public int arrayStream(final Blackhole blackhole) {
+        return new RequestHandler(client).getResourceStream(Item.class, arrayUrl, HttpMethod.GET,
+                new HttpHeaders(), new ElementCallback<Item>() {
+                    @Override
+                    public boolean onElement(Item element) {
+                        blackhole.consume(element);
+                        return true;
+                    }
+                });
+    }
+
+    @Benchmark
+    public String stringGet() {
+        return new RequestHandler(client).getResource(String.class, textUrl, HttpMethod.GET,
+                new HttpHeaders());
+    }
+
+    /**
+     * POST with Json body, the path taken by 'ExtendedRequest' once it is on
+       its worker thread.
+     */
+    @Benchmark
+    public Item jsonPost() {
+        return new RequestHandler(client).getResource(Item.class, echoUrl, HttpMethod.POST,
+                item, postHeaders);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Item concurrentSmallJsonGet() {
+        return new RequestHandler(client).getResource(Item.class, smallUrl, HttpMethod.GET,
+                new HttpHeaders());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Catalog concurrentLargeJsonGet() {
+        return new RequestHandler(client).getResource(Catalog.class, largeUrl, HttpMethod.GET,
+                new HttpHeaders());
+    }
+}
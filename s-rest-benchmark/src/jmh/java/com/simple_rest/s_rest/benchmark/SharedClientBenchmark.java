@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.benchmark;
+
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.simple_rest.s_rest.restapi.request.RequestHandler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * per request latency & allocation (with gc profiler) of the shared
+   {@link RestClient} against the old path, which made a new 'RestTemplate'
+   (object mapper, converters & connection) for every call.
+ * spring-android's 'RestTemplate' can not be made off Android, so old path is
+   reproduced by a new client per request, which is not warmed up & whose
+   connection is not reused.
+ * @see RequestPipelineBenchmark
+ * @version 1.0.0
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SharedClientBenchmark {
+
+    private StubServer server;
+    private RestClient client;
+    private String smallUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.start();
+        client = new RestClient.Builder().build();
+        client.warmUp(Item.class);
+        smallUrl = server.url("/small");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    public Item sharedClient() {
+        return new RequestHandler(client).execute(Item.class, smallUrl).getBody();
+    }
+
+    @Benchmark
+    public Item clientPerRequest() {
+        RestClient perRequest = new RestClient.Builder().build();
+        try {
+            return new RequestHandler(perRequest).execute(Item.class, smallUrl).getBody();
+        } finally {
+            perRequest.shutdown();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.benchmark;
+
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.simple_rest.s_rest.restapi.request.HeaderTools;
+import com.simple_rest.s_rest.restapi.request.RequestHandler;
+import com.simple_rest.s_rest.restapi.request.RestResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * stress of one {@link RequestHandler} shared by many threads through its
+   'execute' methods.
+ * every call posts a unique item & request id to /echo of {@link StubServer}
+   & fails if response carries item or id of any other call, so a response
+   mixed up between threads stops the run with an exception.
+ * it also compares the shared handler with a new handler per request.
+ * @see RequestPipelineBenchmark
+ * @version 1.0.0
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class SharedHandlerBenchmark {
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private StubServer server;
+    private RestClient client;
+    private RequestHandler sharedHandler;
+    private String echoUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.start();
+        client = new RestClient.Builder().build();
+        client.warmUp(Item.class);
+        sharedHandler = new RequestHandler(client);
+        echoUrl = server.url("/echo");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    public Item sharedHandler() {
+        return echo(sharedHandler);
+    }
+
+    @Benchmark
+    public Item handlerPerRequest() {
+        return echo(new RequestHandler(client));
+    }
+
+    private Item echo(RequestHandler handler) {
+        long id = IDS.incrementAndGet();
+        Item item = new Item(id);
+        String requestId = Long.toString(id);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HeaderTools.CONTENT_TYPE_JSON.getKey(), HeaderTools.CONTENT_TYPE_JSON.getValue());
+        headers.add("X-Request-Id", requestId);
+        RestResponse<Item> response = handler.execute(Item.class, echoUrl, HttpMethod.POST, item, headers);
+        Item echoed = response.getBody();
+        if (echoed == null || echoed.getId() != id
+                || !requestId.equals(response.getHeaders().getFirst("X-Request-Id")))
+            throw new IllegalStateException("response of request " + id + " mixed up: " + echoed
+                    + ", " + response.getHeaders().getFirst("X-Request-Id"));
+        return echoed;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * in-process Http server which serves precomputed payloads, so benchmarks
+   measure the client rather than the server or the network.
+ * endpoints,
+ * <ul>
+ *     <li>GET /small: one {@link Item}.</li>
+ *     <li>GET /large: {@link Catalog} of 2000 items.</li>
+ *     <li>GET /array: Json array of 500 items.</li>
+ *     <li>GET /text: plain text of 16 KB.</li>
+ *     <li>POST /echo: request body is sent back with same content type, &
+           'X-Request-Id' header is sent back too.</li>
+ * </ul>
+ * /small, /large & /array are sent as Smile if 'Accept' header prefers it.
+ * @version 1.0.0
+ */
+
+public class StubServer {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String SMILE = "application/x-jackson-smile";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    static {
+        // without TCP_NODELAY small responses wait for delayed ACK of the client
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public StubServer() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 500; i++)
+            items.add(new Item(i));
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 16 * 1024)
+            text.append("the quick brown fox jumps over the lazy dog. ");
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 128);
+        serve("/small", mapper.writeValueAsBytes(new Item(42)), smileMapper.writeValueAsBytes(new Item(42)));
+        serve("/large", mapper.writeValueAsBytes(new Catalog(2000)),
+                smileMapper.writeValueAsBytes(new Catalog(2000)));
+        serve("/array", mapper.writeValueAsBytes(items), smileMapper.writeValueAsBytes(items));
+        serve("/text", text.toString().getBytes(UTF_8), "text/plain;charset=UTF-8");
+        server.createContext("/echo", new EchoHandler());
+        executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param path path of endpoint, e.g. "/small".
+     * @return absolute url of the endpoint.
+     */
+    public String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private void serve(String path, final byte[] json, final byte[] smile) {
+        server.createContext(path, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                drain(exchange.getRequestBody());
+                String accept = exchange.getRequestHeaders().getFirst("Accept");
+                if (accept != null && accept.startsWith(SMILE))
+                    respond(exchange, smile, SMILE);
+                else
+                    respond(exchange, json, "application/json");
+            }
+        });
+    }
+
+    private void serve(String path, final byte[] body, final String contentType) {
+        server.createContext(path, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                drain(exchange.getRequestBody());
+                respond(exchange, body, contentType);
+            }
+        });
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body, String contentType)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+
+    private static byte[] drain(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1)
+            body.write(buffer, 0, n);
+        in.close();
+        return body.toByteArray();
+    }
+
+    private static class EchoHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            byte[] body = drain(exchange.getRequestBody());
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            String requestId = exchange.getRequestHeaders().getFirst("X-Request-Id");
+            if (requestId != null)
+                exchange.getResponseHeaders().set("X-Request-Id", requestId);
+            respond(exchange, body, contentType != null ? contentType : "application/json");
+        }
+    }
+}
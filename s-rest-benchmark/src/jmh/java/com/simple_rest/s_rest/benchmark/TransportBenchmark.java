@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simple_rest.s_rest.restapi.client.ConnectionEngine;
+import com.simple_rest.s_rest.restapi.client.MultiplexedConnectionEngine;
+import com.simple_rest.s_rest.restapi.client.PooledConnectionEngine;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.simple_rest.s_rest.restapi.request.RequestHandler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.net.ServerSocketFactory;
+
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * compares HTTP/1.1 connection per request ({@link PooledConnectionEngine}
+   without limit per route) with requests multiplexed over cleartext HTTP/2
+   ({@link MultiplexedConnectionEngine}) when many threads call one host.
+ * server ('MockWebServer', which speaks h2c) answers each request with one
+   {@link Item} after 2 ms, so requests overlap like calls to a remote API.
+   accepted sockets have TCP_NODELAY, otherwise every response waits for
+   delayed ACK of the client.
+ * @see RequestPipelineBenchmark
+ * @version 1.0.0
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class TransportBenchmark {
+
+    // held, so its level is not lost when logger is collected
+    private static final Logger SERVER_LOGGER = Logger.getLogger(MockWebServer.class.getName());
+
+    @Param({"http1", "h2c"})
+    public String transport;
+
+    private MockWebServer server;
+    private RestClient client;
+    private RequestHandler handler;
+    private String url;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SERVER_LOGGER.setLevel(java.util.logging.Level.OFF);
+        final String body = new ObjectMapper().writeValueAsString(new Item(7));
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setHeadersDelay(2, TimeUnit.MILLISECONDS)
+                        .setBody(body);
+            }
+        });
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        ConnectionEngine engine;
+        if ("h2c".equals(transport)) {
+            server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+            server.start();
+            engine = new MultiplexedConnectionEngine.Builder()
+                    .cleartextHttp2(server.getHostName())
+                    .build();
+        } else {
+            server.start();
+            engine = new PooledConnectionEngine.Builder()
+                    .maxConnectionsPerRoute(0)
+                    .maxIdleConnections(32)
+                    .build();
+        }
+        client = new RestClient.Builder().connectionEngine(engine).build();
+        client.warmUp(Item.class);
+        handler = new RequestHandler(client);
+        url = server.url("/item").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.shutdown();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public Item concurrentGet() {
+        return handler.execute(Item.class, url).getBody();
+    }
+
+    /**
+     * 'MockWebServer' does not set TCP_NODELAY on sockets it accepts.
+     */
+    private static class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new NoDelayServerSocket();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            return new NoDelayServerSocket(port, 50, null);
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            return new NoDelayServerSocket(port, backlog, null);
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address)
+                throws IOException {
+            return new NoDelayServerSocket(port, backlog, address);
+        }
+    }
+
+    private static class NoDelayServerSocket extends ServerSocket {
+
+        NoDelayServerSocket() throws IOException {
+        }
+
+        NoDelayServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            super(port, backlog, address);
+        }
+
+        @Override
+        public Socket accept() throws IOException {
+            Socket socket = super.accept();
+            socket.setTcpNoDelay(true);
+            return socket;
+        }
+    }
+}
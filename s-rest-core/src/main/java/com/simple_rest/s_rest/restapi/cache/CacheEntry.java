@@ -0,0 +1,264 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * immutable Http response stored in {@link ResponseCache}.
+ * it keeps everything needed to rebuild the response, decide its freshness &
+   revalidate it with the server.
+ * @version 1.0.0
+ */
+
+class CacheEntry {
+
+    /** max freshness given by heuristic when server sends only 'Last-Modified'. */
+    private static final long MAX_HEURISTIC_MILLIS = 24L * 60 * 60 * 1000;
+
+    @NonNull final String key;
+    final int statusCode;
+    @NonNull final String statusText;
+    @NonNull final HttpHeaders headers;
+    @NonNull final Map<String,String> varyHeaders;
+    @NonNull final byte[] body;
+    final long receivedAt;
+    final long freshUntil;
+    /** windows of 'stale-while-revalidate' & 'stale-if-error' in millis, -1 if not sent. */
+    final long staleWhileRevalidateMillis, staleIfErrorMillis;
+    /** true if server forbids serving the response once stale ('must-revalidate'). */
+    final boolean mustRevalidate;
+    @Nullable private volatile DecodedBody decoded;
+
+    CacheEntry(@NonNull String key, int statusCode, @NonNull String statusText,
+               @NonNull HttpHeaders headers, @NonNull Map<String,String> varyHeaders,
+               @NonNull byte[] body, long receivedAt) {
+        this(key, statusCode, statusText, headers, varyHeaders, body, receivedAt,
+                computeFreshUntil(headers, receivedAt));
+    }
+
+    CacheEntry(@NonNull String key, int statusCode, @NonNull String statusText,
+               @NonNull HttpHeaders headers, @NonNull Map<String,String> varyHeaders,
+               @NonNull byte[] body, long receivedAt, long freshUntil) {
+        this.key = key;
+        this.statusCode = statusCode;
+        this.statusText = statusText;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.varyHeaders = Collections.unmodifiableMap(varyHeaders);
+        this.body = body;
+        this.receivedAt = receivedAt;
+        this.freshUntil = freshUntil;
+        String cacheControl = joined(headers, "Cache-Control").toLowerCase(Locale.US);
+        long swr = directive(cacheControl, "stale-while-revalidate");
+        long sie = directive(cacheControl, "stale-if-error");
+        this.staleWhileRevalidateMillis = swr >= 0 ? swr * 1000 : -1;
+        this.staleIfErrorMillis = sie >= 0 ? sie * 1000 : -1;
+        this.mustRevalidate = cacheControl.contains("must-revalidate")
+                || cacheControl.contains("proxy-revalidate");
+    }
+
+    /**
+     * @param now current time in millis.
+     * @return true if entry can be served without asking the server.
+     */
+    boolean isFresh(long now) {
+        return now < freshUntil;
+    }
+
+    /**
+     * @param now current time in millis.
+     * @param windowMillis time after expiry during which entry may still be served.
+     * @return true if entry is stale but still within the window.
+     */
+    boolean isStaleWithin(long now, long windowMillis) {
+        return !mustRevalidate && now >= freshUntil && now - freshUntil < windowMillis;
+    }
+
+    /**
+     * @param type type the body was decoded to.
+     * @return object decoded from body of this entry, null if body was not decoded
+               to the type yet.
+     */
+    @Nullable
+    <T> T getDecoded(@NonNull Class<T> type) {
+        DecodedBody d = decoded;
+        return d != null && d.type == type ? type.cast(d.value) : null;
+    }
+
+    void setDecoded(@NonNull Class<?> type, @NonNull Object value) {
+        decoded = new DecodedBody(type, value);
+    }
+
+    /**
+     * @return true if entry has 'ETag' or 'Last-Modified' to revalidate with.
+     */
+    boolean hasValidator() {
+        return headers.getETag() != null || headers.getFirst("Last-Modified") != null;
+    }
+
+    /**
+     * @param requestHeaders headers of new request.
+     * @return true if the request sends same values for all headers named in 'Vary'.
+     */
+    boolean matchesVary(@NonNull HttpHeaders requestHeaders) {
+        for (Map.Entry<String,String> e : varyHeaders.entrySet()) {
+            String value = joined(requestHeaders, e.getKey());
+            if (!e.getValue().equals(value))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * make entry refreshed by '304 Not Modified' response.
+     * headers of 304 response replace stored headers with same name.
+     * @param notModifiedHeaders headers of 304 response.
+     * @param now current time in millis.
+     * @return refreshed entry.
+     */
+    @NonNull
+    CacheEntry revalidated(@NonNull HttpHeaders notModifiedHeaders, long now) {
+        HttpHeaders merged = new HttpHeaders();
+        merged.putAll(headers);
+        for (Map.Entry<String,List<String>> e : notModifiedHeaders.entrySet()) {
+            if (e.getKey().equalsIgnoreCase("Content-Length"))
+                continue;
+            merged.put(e.getKey(), e.getValue());
+        }
+        CacheEntry refreshed = new CacheEntry(key, statusCode, statusText, merged, varyHeaders, body, now);
+        // body is unchanged, so is the object decoded from it
+        refreshed.decoded = decoded;
+        return refreshed;
+    }
+
+    /**
+     * @return approximate number of bytes held by this entry.
+     */
+    int weight() {
+        return body.length + key.length() * 2 + headers.size() * 64;
+    }
+
+    @NonNull
+    static String joined(@NonNull HttpHeaders headers, @NonNull String name) {
+        List<String> values = headers.get(name);
+        if (values == null || values.isEmpty())
+            return "";
+        if (values.size() == 1)
+            return values.get(0);
+        StringBuilder sb = new StringBuilder();
+        for (String v : values) {
+            if (sb.length() > 0)
+                sb.append(',');
+            sb.append(v);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * compute time until which response is fresh, using 'Cache-Control: max-age',
+       'Expires' or 10% of the age of 'Last-Modified' (capped to 24 hours), in order.
+     */
+    static long computeFreshUntil(@NonNull HttpHeaders headers, long receivedAt) {
+        String cacheControl = joined(headers, "Cache-Control").toLowerCase(Locale.US);
+        if (cacheControl.contains("no-cache"))
+            return receivedAt;
+        long age = parseLong(headers.getFirst("Age")) * 1000;
+        long maxAge = directive(cacheControl, "max-age");
+        if (maxAge >= 0)
+            return receivedAt + maxAge * 1000 - Math.max(age, 0);
+
+        long date = dateHeader(headers, "Date");
+        long serverNow = date > 0 ? date : receivedAt;
+        long expires = dateHeader(headers, "Expires");
+        if (expires > 0)
+            return receivedAt + (expires - serverNow);
+        long lastModified = dateHeader(headers, "Last-Modified");
+        if (lastModified > 0 && lastModified < serverNow)
+            return receivedAt + Math.min((serverNow - lastModified) / 10, MAX_HEURISTIC_MILLIS);
+        return receivedAt;
+    }
+
+    /**
+     * @return value of numeric directive in 'Cache-Control', -1 if absent.
+     */
+    static long directive(@NonNull String cacheControl, @NonNull String name) {
+        int i = cacheControl.indexOf(name + "=");
+        if (i < 0)
+            return -1;
+        int start = i + name.length() + 1, end = start;
+        while (end < cacheControl.length() && Character.isDigit(cacheControl.charAt(end)))
+            end++;
+        return end > start ? parseLong(cacheControl.substring(start, end)) : -1;
+    }
+
+    /**
+     * @return date header in millis, -1 if absent or malformed.
+     */
+    static long dateHeader(@NonNull HttpHeaders headers, @NonNull String name) {
+        if (headers.getFirst(name) == null)
+            return -1;
+        try {
+            if (name.equals("Date"))
+                return headers.getDate();
+            if (name.equals("Expires"))
+                return headers.getExpires();
+            return headers.getLastModified();
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static long parseLong(@Nullable String value) {
+        if (value == null)
+            return -1;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * object decoded from the body, with the type it was decoded to.
+     */
+    private static class DecodedBody {
+
+        @NonNull final Class<?> type;
+        @NonNull final Object value;
+
+        DecodedBody(@NonNull Class<?> type, @NonNull Object value) {
+            this.type = type;
+            this.value = value;
+        }
+    }
+}
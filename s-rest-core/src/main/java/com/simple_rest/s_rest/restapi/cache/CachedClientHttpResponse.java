@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * response served from body & headers held in memory.
+ * @version 1.0.0
+ */
+
+class CachedClientHttpResponse implements ClientHttpResponse, DecodedBodyHolder {
+
+    private final int statusCode;
+    @NonNull private final String statusText;
+    @NonNull private final HttpHeaders headers;
+    @NonNull private final byte[] body;
+    @NonNull private final CacheEntry entry;
+    private final boolean cacheObjects;
+
+    /**
+     * @param cacheObjects true if decoded body is kept with the entry.
+     */
+    CachedClientHttpResponse(@NonNull CacheEntry entry, @NonNull HttpHeaders headers,
+                             boolean cacheObjects) {
+        this.statusCode = entry.statusCode;
+        this.statusText = entry.statusText;
+        this.headers = headers;
+        this.body = entry.body;
+        this.entry = entry;
+        this.cacheObjects = cacheObjects;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() throws IOException {
+        return HttpStatus.valueOf(statusCode);
+    }
+
+    @Override
+    public int getRawStatusCode() throws IOException {
+        return statusCode;
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return statusText;
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Nullable
+    @Override
+    public <T> T getDecodedBody(@NonNull Class<T> type) {
+        return cacheObjects ? entry.getDecoded(type) : null;
+    }
+
+    @Override
+    public void setDecodedBody(@NonNull Class<?> type, @NonNull Object body) {
+        if (cacheObjects)
+            entry.setDecoded(type, body);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.simple_rest.s_rest.restapi.client.RequestContext;
+import com.simple_rest.s_rest.restapi.client.StreamingBodies;
+import com.simple_rest.s_rest.restapi.client.StreamingBody;
+import com.simple_rest.s_rest.restapi.client.StreamingClientHttpRequest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * request which consults {@link ResponseCache} before going to network.
+ * the network request is made by delegate which is never executed on cache hit.
+   when stale response is served while revalidating, delegate makes the
+   revalidation request in background.
+ * @version 1.0.0
+ */
+
+class CachingClientHttpRequest implements StreamingClientHttpRequest {
+
+    @NonNull private final ClientHttpRequest delegate;
+    @NonNull private final ResponseCache cache;
+    @NonNull private final String key;
+    @Nullable private StreamingBody streamingBody;
+
+    CachingClientHttpRequest(@NonNull ClientHttpRequest delegate, @NonNull ResponseCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.key = delegate.getURI().toString();
+    }
+
+    @Override
+    public HttpMethod getMethod() {
+        return delegate.getMethod();
+    }
+
+    @Override
+    public URI getURI() {
+        return delegate.getURI();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return delegate.getHeaders();
+    }
+
+    @Override
+    public OutputStream getBody() throws IOException {
+        return delegate.getBody();
+    }
+
+    @Override
+    public void setStreamingBody(@NonNull StreamingBody body) {
+        this.streamingBody = body;
+    }
+
+    @Override
+    public ClientHttpResponse execute() throws IOException {
+        if (streamingBody != null)
+            StreamingBodies.write(delegate, streamingBody);
+        HttpMethod method = getMethod();
+        if (method != HttpMethod.GET) {
+            if (method != HttpMethod.HEAD && method != HttpMethod.OPTIONS && method != HttpMethod.TRACE)
+                cache.remove(key);
+            return delegate.execute();
+        }
+        HttpHeaders requestHeaders = getHeaders();
+        String cacheControl = CacheEntry.joined(requestHeaders, "Cache-Control").toLowerCase(Locale.US);
+        if (cacheControl.contains("no-store"))
+            return delegate.execute();
+
+        CacheEntry cached = cache.get(key);
+        if (cached != null && !cached.matchesVary(requestHeaders))
+            cached = null;
+        boolean noCache = cacheControl.contains("no-cache");
+        long now = System.currentTimeMillis();
+        if (cached != null && !noCache) {
+            if (cached.isFresh(now))
+                return fromCache(cached, ResponseCache.HIT);
+            if (cache.canServeWhileRevalidating(cached, now)) {
+                revalidateInBackground(cached, requestHeaders);
+                return fromCache(cached, ResponseCache.STALE);
+            }
+        }
+        CacheEntry stale = noCache ? null : cached;
+        if (cached != null && cached.hasValidator())
+            addConditions(requestHeaders, cached);
+        else
+            cached = null;
+
+        ClientHttpResponse response;
+        try {
+            response = delegate.execute();
+        } catch (IOException e) {
+            // cancelled request must fail, not look like a server failure
+            if (stale != null && !RequestContext.isCurrentCancelled()
+                    && cache.canServeOnError(stale, System.currentTimeMillis()))
+                return fromCache(stale, ResponseCache.STALE);
+            throw e;
+        }
+        now = System.currentTimeMillis();
+        if (stale != null && response.getRawStatusCode() >= 500 && cache.canServeOnError(stale, now)) {
+            response.close();
+            return fromCache(stale, ResponseCache.STALE);
+        }
+        if (cached != null && response.getRawStatusCode() == 304) {
+            CacheEntry refreshed = cached.revalidated(response.getHeaders(), now);
+            response.close();
+            cache.put(refreshed);
+            return fromCache(refreshed, ResponseCache.REVALIDATED);
+        }
+
+        CacheEntry entry = toEntry(response, requestHeaders, now);
+        if (entry == null) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(response.getHeaders());
+            cache.recordMiss(headers);
+            return new UncachedClientHttpResponse(response, headers);
+        }
+        cache.put(entry);
+        return fromCache(entry, ResponseCache.MISS);
+    }
+
+    @NonNull
+    private ClientHttpResponse fromCache(@NonNull CacheEntry entry, @NonNull String status) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(entry.headers);
+        if (ResponseCache.HIT.equals(status))
+            cache.recordHit(headers);
+        else if (ResponseCache.REVALIDATED.equals(status))
+            cache.recordRevalidation(headers);
+        else if (ResponseCache.STALE.equals(status))
+            cache.recordStale(headers);
+        else
+            cache.recordMiss(headers);
+        return new CachedClientHttpResponse(entry, headers, cache.isCachingObjects());
+    }
+
+    /**
+     * refresh stale entry by executing delegate on revalidation executor of the cache.
+     * response which can not be cached removes the entry, unless it is a 5xx error.
+     */
+    private void revalidateInBackground(@NonNull final CacheEntry stale,
+                                        @NonNull final HttpHeaders requestHeaders) {
+        if (stale.hasValidator())
+            addConditions(requestHeaders, stale);
+        cache.revalidateInBackground(key, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    ClientHttpResponse response = delegate.execute();
+                    try {
+                        long now = System.currentTimeMillis();
+                        int status = response.getRawStatusCode();
+                        if (status == 304 && stale.hasValidator()) {
+                            cache.put(stale.revalidated(response.getHeaders(), now));
+                            return;
+                        }
+                        CacheEntry entry = toEntry(response, requestHeaders, now);
+                        if (entry != null)
+                            cache.put(entry);
+                        else if (status < 500)
+                            cache.remove(key);
+                    } finally {
+                        response.close();
+                    }
+                } catch (IOException | RuntimeException ignored) {
+                    // stale entry stays until its windows end
+                }
+            }
+        });
+    }
+
+    private static void addConditions(@NonNull HttpHeaders requestHeaders, @NonNull CacheEntry cached) {
+        String etag = cached.headers.getETag();
+        if (etag != null && requestHeaders.getFirst("If-None-Match") == null)
+            requestHeaders.set("If-None-Match", etag);
+        String lastModified = cached.headers.getFirst("Last-Modified");
+        if (lastModified != null && requestHeaders.getFirst("If-Modified-Since") == null)
+            requestHeaders.set("If-Modified-Since", lastModified);
+    }
+
+    /**
+     * read response into cache entry if it can be stored.
+     * @return entry, null if response can not be cached; response is closed otherwise.
+     */
+    @Nullable
+    private CacheEntry toEntry(@NonNull ClientHttpResponse response, @NonNull HttpHeaders requestHeaders,
+                               long now) throws IOException {
+        int status = response.getRawStatusCode();
+        if (status != 200 && status != 203)
+            return null;
+        HttpHeaders headers = response.getHeaders();
+        String cacheControl = CacheEntry.joined(headers, "Cache-Control").toLowerCase(Locale.US);
+        String vary = CacheEntry.joined(headers, "Vary");
+        if (cacheControl.contains("no-store") || vary.contains("*"))
+            return null;
+        boolean fresh = CacheEntry.computeFreshUntil(headers, now) > now;
+        if (!fresh && headers.getETag() == null && headers.getFirst("Last-Modified") == null)
+            return null;
+
+        Map<String,String> varyHeaders = new LinkedHashMap<>();
+        for (String name : vary.split(",")) {
+            name = name.trim();
+            if (name.length() > 0)
+                varyHeaders.put(name, CacheEntry.joined(requestHeaders, name));
+        }
+        String statusText = response.getStatusText();
+        byte[] body;
+        try {
+            body = readFully(response.getBody());
+        } finally {
+            response.close();
+        }
+        return new CacheEntry(key, status, statusText, headers, varyHeaders, body, now);
+    }
+
+    @NonNull
+    private static byte[] readFully(@NonNull InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1)
+            out.write(buffer, 0, n);
+        return out.toByteArray();
+    }
+}
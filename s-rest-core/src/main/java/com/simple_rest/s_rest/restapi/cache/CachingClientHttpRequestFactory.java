@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.cache;
+
+import android.support.annotation.NonNull;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequestFactoryWrapper;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * request factory which serves GET requests from a {@link ResponseCache} &
+   stores their responses in it. requests of other methods except HEAD, OPTIONS
+   & TRACE remove cached response of their url.
+ * @version 1.0.0
+ */
+
+public class CachingClientHttpRequestFactory extends AbstractClientHttpRequestFactoryWrapper {
+
+    @NonNull private final ResponseCache cache;
+
+    /**
+     * @param requestFactory factory which makes network requests.
+     * @param cache response cache.
+     */
+    public CachingClientHttpRequestFactory(@NonNull ClientHttpRequestFactory requestFactory,
+                                           @NonNull ResponseCache cache) {
+        super(requestFactory);
+        this.cache = cache;
+    }
+
+    @Override
+    protected ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod,
+                                              ClientHttpRequestFactory requestFactory) throws IOException {
+        return new CachingClientHttpRequest(requestFactory.createRequest(uri, httpMethod), cache);
+    }
+
+    /**
+     * @return response cache.
+     */
+    @NonNull
+    public ResponseCache getCache() {
+        return cache;
+    }
+}
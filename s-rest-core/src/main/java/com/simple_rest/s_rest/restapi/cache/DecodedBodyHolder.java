@@ -0,0 +1,55 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * response served from {@link ResponseCache} which keeps the object decoded
+   from its body with the cache entry, so later responses of the same entry
+   skip parsing.
+ * it has effect only if objects are cached, see
+   {@link ResponseCache.Builder#cacheObjects(boolean)}.
+ * @version 1.0.0
+ */
+
+public interface DecodedBodyHolder {
+
+    /**
+     * @param type type the body is decoded to.
+     * @param <T> type of body.
+     * @return object decoded earlier from the same cache entry, null if there is none.
+     */
+    @Nullable
+    <T> T getDecodedBody(@NonNull Class<T> type);
+
+    /**
+     * keep object decoded from the body for later responses of the same cache entry.
+     * @param type type the body was decoded to.
+     * @param body decoded body.
+     */
+    void setDecodedBody(@NonNull Class<?> type, @NonNull Object body);
+}
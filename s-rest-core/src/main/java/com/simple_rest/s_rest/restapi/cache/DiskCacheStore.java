@@ -0,0 +1,233 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * disk tier of {@link ResponseCache}.
+ * each entry is stored in its own file named by hash of its key.
+ * least recently used files are deleted when total size exceeds the limit.
+ * @version 1.0.0
+ */
+
+class DiskCacheStore {
+
+    private static final int FORMAT_VERSION = 1;
+
+    @NonNull private final File directory;
+    private final long maxBytes;
+    private long size;
+
+    DiskCacheStore(@NonNull File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IllegalArgumentException("can not create cache directory " + directory);
+        File[] files = directory.listFiles();
+        if (files != null)
+            for (File f : files)
+                size += f.length();
+    }
+
+    @Nullable
+    synchronized CacheEntry get(@NonNull String key) {
+        File file = fileOf(key);
+        if (!file.isFile())
+            return null;
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            CacheEntry entry = read(in);
+            if (!entry.key.equals(key))
+                return null;
+            file.setLastModified(System.currentTimeMillis());
+            return entry;
+        } catch (IOException e) {
+            remove(key);
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    synchronized void put(@NonNull CacheEntry entry) {
+        File file = fileOf(entry.key);
+        File tmp = new File(directory, file.getName() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            write(entry, out);
+            out.close();
+            out = null;
+            size -= file.length();
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+                return;
+            }
+            size += file.length();
+            trim();
+        } catch (IOException e) {
+            tmp.delete();
+        } finally {
+            closeQuietly(out);
+        }
+    }
+
+    synchronized void remove(@NonNull String key) {
+        File file = fileOf(key);
+        long length = file.length();
+        if (file.delete())
+            size -= length;
+    }
+
+    synchronized void clear() {
+        File[] files = directory.listFiles();
+        if (files != null)
+            for (File f : files)
+                f.delete();
+        size = 0;
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    private void trim() {
+        if (size <= maxBytes)
+            return;
+        File[] files = directory.listFiles();
+        if (files == null)
+            return;
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                long x = a.lastModified(), y = b.lastModified();
+                return x < y ? -1 : (x == y ? 0 : 1);
+            }
+        });
+        for (File f : files) {
+            if (size <= maxBytes)
+                break;
+            long length = f.length();
+            if (f.delete())
+                size -= length;
+        }
+    }
+
+    @NonNull
+    private File fileOf(@NonNull String key) {
+        return new File(directory, hash(key));
+    }
+
+    private static void write(@NonNull CacheEntry entry, @NonNull DataOutputStream out)
+            throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(entry.key);
+        out.writeInt(entry.statusCode);
+        out.writeUTF(entry.statusText);
+        out.writeLong(entry.receivedAt);
+        out.writeLong(entry.freshUntil);
+        int values = 0;
+        for (List<String> v : entry.headers.values())
+            values += v.size();
+        out.writeInt(values);
+        for (Map.Entry<String,List<String>> e : entry.headers.entrySet()) {
+            for (String v : e.getValue()) {
+                out.writeUTF(e.getKey());
+                out.writeUTF(v);
+            }
+        }
+        out.writeInt(entry.varyHeaders.size());
+        for (Map.Entry<String,String> e : entry.varyHeaders.entrySet()) {
+            out.writeUTF(e.getKey());
+            out.writeUTF(e.getValue());
+        }
+        out.writeInt(entry.body.length);
+        out.write(entry.body);
+    }
+
+    @NonNull
+    private static CacheEntry read(@NonNull DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT_VERSION)
+            throw new IOException("unknown cache format");
+        String key = in.readUTF();
+        int statusCode = in.readInt();
+        String statusText = in.readUTF();
+        long receivedAt = in.readLong();
+        long freshUntil = in.readLong();
+        HttpHeaders headers = new HttpHeaders();
+        for (int i = in.readInt(); i > 0; i--)
+            headers.add(in.readUTF(), in.readUTF());
+        Map<String,String> vary = new LinkedHashMap<>();
+        for (int i = in.readInt(); i > 0; i--)
+            vary.put(in.readUTF(), in.readUTF());
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return new CacheEntry(key, statusCode, statusText, headers, vary, body, receivedAt, freshUntil);
+    }
+
+    @NonNull
+    private static String hash(@NonNull String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes("UTF-8"));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest)
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+
+    private static void closeQuietly(@Nullable Closeable c) {
+        if (c == null)
+            return;
+        try {
+            c.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
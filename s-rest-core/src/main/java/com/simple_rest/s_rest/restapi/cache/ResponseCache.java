@@ -0,0 +1,414 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Http response cache used by {@link CachingClientHttpRequestFactory}.
+ * it keeps responses of GET requests in a memory LRU bounded by bytes &
+   optionally in a disk tier, and serves them while they are fresh according to
+   'Cache-Control' & 'Expires' headers. stale responses having 'ETag' or
+   'Last-Modified' are revalidated by conditional request & served on
+   '304 Not Modified'.
+ * <br><br>
+ * stale responses may also be served without waiting for the server,
+ * <ul>
+ *     <li>within 'stale-while-revalidate' window, response is served at once &
+           refreshed in background, so next request gets the fresh one.</li>
+ *     <li>within 'stale-if-error' window, response is served when the server
+           can not be reached or answers with 5xx status.</li>
+ * </ul>
+ * windows are taken from 'Cache-Control' of the response, or from {@link Builder}
+   if server does not send them. responses with 'must-revalidate' & requests
+   with 'Cache-Control: no-cache' never get stale responses.
+ * <br><br>
+ * optionally, objects decoded from cached bodies are kept too, so a hit skips
+   parsing, see {@link Builder#cacheObjects(boolean)}.
+ * <br><br>
+ * every response passing through the cache gets header {@link #CACHE_STATUS_HEADER}
+   with value {@link #HIT}, {@link #MISS}, {@link #REVALIDATED} or {@link #STALE} and
+   headers with current hit, miss, revalidation & stale counts of the cache, so they
+   can be read by 'getResponseHeaders' of the request classes.
+ * @see com.simple_rest.s_rest.restapi.client.RestClient.Builder#responseCache(ResponseCache)
+ * @version 1.0.0
+ */
+
+public class ResponseCache {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache-Status",
+            HIT_COUNT_HEADER = "X-Cache-Hit-Count",
+            MISS_COUNT_HEADER = "X-Cache-Miss-Count",
+            REVALIDATION_COUNT_HEADER = "X-Cache-Revalidation-Count",
+            STALE_COUNT_HEADER = "X-Cache-Stale-Count";
+
+    public static final String HIT = "HIT", MISS = "MISS", REVALIDATED = "REVALIDATED",
+            STALE = "STALE";
+
+    private final long maxMemoryBytes;
+    private final LinkedHashMap<String,CacheEntry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memorySize;
+    @Nullable private final DiskCacheStore disk;
+    private final long staleWhileRevalidateMillis;
+    private final long staleIfErrorMillis;
+    private final boolean cacheObjects;
+    @NonNull private final Executor revalidationExecutor;
+    private final Set<String> revalidating =
+            Collections.newSetFromMap(new ConcurrentHashMap<String,Boolean>());
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong backgroundRevalidations = new AtomicLong();
+
+    private ResponseCache(@NonNull Builder builder) {
+        this.maxMemoryBytes = builder.maxMemoryBytes;
+        this.disk = builder.diskDirectory != null
+                ? new DiskCacheStore(builder.diskDirectory, builder.maxDiskBytes) : null;
+        this.staleWhileRevalidateMillis = builder.staleWhileRevalidateMillis;
+        this.staleIfErrorMillis = builder.staleIfErrorMillis;
+        this.cacheObjects = builder.cacheObjects;
+        if (builder.revalidationExecutor != null) {
+            this.revalidationExecutor = builder.revalidationExecutor;
+        } else {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new RevalidationFactory());
+            executor.allowCoreThreadTimeOut(true);
+            this.revalidationExecutor = executor;
+        }
+    }
+
+    @Nullable
+    CacheEntry get(@NonNull String key) {
+        synchronized (this) {
+            CacheEntry entry = memory.get(key);
+            if (entry != null)
+                return entry;
+        }
+        if (disk == null)
+            return null;
+        CacheEntry entry = disk.get(key);
+        if (entry != null)
+            putInMemory(entry);
+        return entry;
+    }
+
+    void put(@NonNull CacheEntry entry) {
+        putInMemory(entry);
+        if (disk != null)
+            disk.put(entry);
+    }
+
+    private synchronized void putInMemory(@NonNull CacheEntry entry) {
+        if (entry.weight() > maxMemoryBytes)
+            return;
+        CacheEntry old = memory.put(entry.key, entry);
+        if (old != null)
+            memorySize -= old.weight();
+        memorySize += entry.weight();
+        Iterator<Map.Entry<String,CacheEntry>> it = memory.entrySet().iterator();
+        while (memorySize > maxMemoryBytes && it.hasNext()) {
+            memorySize -= it.next().getValue().weight();
+            it.remove();
+        }
+    }
+
+    /**
+     * remove response of the url from all tiers.
+     * @param url url of the response.
+     */
+    public void remove(@NonNull String url) {
+        synchronized (this) {
+            CacheEntry old = memory.remove(url);
+            if (old != null)
+                memorySize -= old.weight();
+        }
+        if (disk != null)
+            disk.remove(url);
+    }
+
+    /**
+     * remove all responses from all tiers.
+     */
+    public void clear() {
+        synchronized (this) {
+            memory.clear();
+            memorySize = 0;
+        }
+        if (disk != null)
+            disk.clear();
+    }
+
+    /**
+     * @return true if stale entry may be served while it is refreshed in background.
+     */
+    boolean canServeWhileRevalidating(@NonNull CacheEntry entry, long now) {
+        return entry.isStaleWithin(now, entry.staleWhileRevalidateMillis >= 0
+                ? entry.staleWhileRevalidateMillis : staleWhileRevalidateMillis);
+    }
+
+    /**
+     * @return true if stale entry may be served instead of a failed response.
+     */
+    boolean canServeOnError(@NonNull CacheEntry entry, long now) {
+        return entry.isStaleWithin(now, entry.staleIfErrorMillis >= 0
+                ? entry.staleIfErrorMillis : staleIfErrorMillis);
+    }
+
+    boolean isCachingObjects() {
+        return cacheObjects;
+    }
+
+    /**
+     * run background revalidation of the key, unless one is already running.
+     * @return false if revalidation was not started.
+     */
+    boolean revalidateInBackground(@NonNull final String key, @NonNull final Runnable revalidation) {
+        if (!revalidating.add(key))
+            return false;
+        backgroundRevalidations.incrementAndGet();
+        try {
+            revalidationExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        revalidation.run();
+                    } finally {
+                        revalidating.remove(key);
+                    }
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            revalidating.remove(key);
+            return false;
+        }
+    }
+
+    void recordHit(@NonNull HttpHeaders headers) {
+        hits.incrementAndGet();
+        addStatusHeaders(headers, HIT);
+    }
+
+    void recordMiss(@NonNull HttpHeaders headers) {
+        misses.incrementAndGet();
+        addStatusHeaders(headers, MISS);
+    }
+
+    void recordRevalidation(@NonNull HttpHeaders headers) {
+        revalidations.incrementAndGet();
+        addStatusHeaders(headers, REVALIDATED);
+    }
+
+    void recordStale(@NonNull HttpHeaders headers) {
+        staleHits.incrementAndGet();
+        addStatusHeaders(headers, STALE);
+    }
+
+    private void addStatusHeaders(@NonNull HttpHeaders headers, @NonNull String status) {
+        headers.set(CACHE_STATUS_HEADER, status);
+        headers.set(HIT_COUNT_HEADER, String.valueOf(hits.get()));
+        headers.set(MISS_COUNT_HEADER, String.valueOf(misses.get()));
+        headers.set(REVALIDATION_COUNT_HEADER, String.valueOf(revalidations.get()));
+        headers.set(STALE_COUNT_HEADER, String.valueOf(staleHits.get()));
+    }
+
+    /**
+     * @return number of responses served from cache without network.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of responses downloaded from server.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of cached responses served after '304 Not Modified'.
+     */
+    public long getRevalidationCount() {
+        return revalidations.get();
+    }
+
+    /**
+     * @return number of stale responses served, while revalidating or on error.
+     */
+    public long getStaleCount() {
+        return staleHits.get();
+    }
+
+    /**
+     * @return number of revalidations started in background.
+     */
+    public long getBackgroundRevalidationCount() {
+        return backgroundRevalidations.get();
+    }
+
+    /**
+     * @return bytes held by memory tier.
+     */
+    public synchronized long getMemorySize() {
+        return memorySize;
+    }
+
+    /**
+     * @return bytes held by disk tier, 0 if there is no disk tier.
+     */
+    public long getDiskSize() {
+        return disk != null ? disk.size() : 0;
+    }
+
+    private static class RevalidationFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            Thread thread = new Thread(r, "s-rest-revalidation-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * builder of {@link ResponseCache}.
+     */
+    public static class Builder {
+
+        private long maxMemoryBytes = 4 * 1024 * 1024;
+        private File diskDirectory;
+        private long maxDiskBytes = 32 * 1024 * 1024;
+        private long staleWhileRevalidateMillis = 0;
+        private long staleIfErrorMillis = 0;
+        private boolean cacheObjects;
+        private Executor revalidationExecutor;
+
+        /**
+         * @param maxMemoryBytes max bytes of memory tier, default 4 MB.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder maxMemoryBytes(long maxMemoryBytes) {
+            this.maxMemoryBytes = maxMemoryBytes;
+            return this;
+        }
+
+        /**
+         * enable disk tier.
+         * @param directory directory used only by this cache, e.g. in 'getCacheDir()'.
+         * @param maxBytes max bytes stored in directory.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder disk(@NonNull File directory, long maxBytes) {
+            this.diskDirectory = directory;
+            this.maxDiskBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * @param window time after expiry during which response is served at once &
+                  refreshed in background, used when server does not send
+                  'stale-while-revalidate'. default 0.
+         * @param unit unit of window.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder staleWhileRevalidate(long window, @NonNull TimeUnit unit) {
+            this.staleWhileRevalidateMillis = unit.toMillis(window);
+            return this;
+        }
+
+        /**
+         * @param window time after expiry during which response is served if server
+                  fails, used when server does not send 'stale-if-error'. default 0.
+         * @param unit unit of window.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder staleIfError(long window, @NonNull TimeUnit unit) {
+            this.staleIfErrorMillis = unit.toMillis(window);
+            return this;
+        }
+
+        /**
+         * keep objects decoded from cached bodies in memory tier, so responses
+           served by the same entry skip parsing. default false.
+         * all those responses get the same object, so it must not be modified.
+         * objects are not counted in memory size of the cache.
+         * @param cacheObjects true to keep decoded objects.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder cacheObjects(boolean cacheObjects) {
+            this.cacheObjects = cacheObjects;
+            return this;
+        }
+
+        /**
+         * set executor on which stale responses are refreshed.
+         * by default the cache uses up to two daemon threads of its own.
+         * @param executor executor.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder revalidationExecutor(@NonNull Executor executor) {
+            this.revalidationExecutor = executor;
+            return this;
+        }
+
+        /**
+         * @return new cache.
+         */
+        @NonNull
+        public ResponseCache build() {
+            return new ResponseCache(this);
+        }
+    }
+
+}
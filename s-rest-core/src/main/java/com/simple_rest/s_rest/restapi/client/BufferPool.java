@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * pool of byte buffers used to stream request & response bodies.
+ * streaming a body borrows one buffer & returns it when done, so large
+   transfers do not allocate new buffers again & again.<br>
+ * it is thread-safe. at most 'maxPooled' free buffers are kept, extra buffers
+   are left to garbage collector.
+ * @version 1.0.0
+ */
+
+public final class BufferPool {
+
+    /**
+     * size of buffers of the default pool.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final BufferPool DEFAULT = new BufferPool(DEFAULT_BUFFER_SIZE, 8);
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<byte[]> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+
+    /**
+     * @param bufferSize size of buffers in bytes.
+     * @param maxPooled max free buffers kept in the pool.
+     */
+    public BufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("bufferSize <= 0");
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * @return pool shared by the library.
+     */
+    @NonNull
+    public static BufferPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return free buffer, new one if pool is empty.
+     */
+    @NonNull
+    public byte[] acquire() {
+        byte[] buffer = free.poll();
+        if (buffer == null)
+            return new byte[bufferSize];
+        freeCount.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * return a buffer taken by {@link #acquire()}, it must not be used afterwards.
+     * @param buffer buffer.
+     */
+    public void release(@NonNull byte[] buffer) {
+        if (buffer.length != bufferSize)
+            return;
+        if (freeCount.incrementAndGet() <= maxPooled)
+            free.offer(buffer);
+        else
+            freeCount.decrementAndGet();
+    }
+
+    /**
+     * @return size of buffers in bytes.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.MultiValueMap;
+
+import java.io.IOException;
+
+/**
+ * Json message converter which reads & writes bodies using readers & writers
+   cached per type in {@link JsonCodecCache}, instead of resolving them from the
+   object mapper for every message.
+ * it does not write 'MultiValueMap', which is posted as form like 'RestTemplate' does.
+ * @version 1.0.0
+ */
+
+class CachedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    @NonNull private final JsonCodecCache codecs;
+
+    CachedJacksonHttpMessageConverter(@NonNull JsonCodecCache codecs) {
+        this.codecs = codecs;
+        setObjectMapper(codecs.getObjectMapper());
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return !MultiValueMap.class.isAssignableFrom(clazz) && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        try {
+            return codecs.reader(clazz).readValue(inputMessage.getBody());
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotReadableException("Could not read JSON: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        JsonGenerator generator = codecs.getObjectMapper().getFactory().createGenerator(
+                outputMessage.getBody(), getJsonEncoding(outputMessage.getHeaders().getContentType()));
+        try {
+            codecs.writer(object.getClass()).writeValue(generator, object);
+            generator.flush();
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * per host circuit breaker.
+ * each host has its own circuit with three states,
+ * <ul>
+ *     <li>{@link State#CLOSED}: requests pass, outcome of last 'windowSize' requests
+           is recorded. circuit opens when failure rate or slow call rate reaches
+           its threshold (after at least 'minimumCalls' requests).</li>
+ *     <li>{@link State#OPEN}: requests fail fast with {@link CircuitOpenException}
+           without touching the network, until 'openDuration' elapses.</li>
+ *     <li>{@link State#HALF_OPEN}: only 'halfOpenCalls' trial requests pass. circuit
+           closes if all of them succeed & opens again on first failure.</li>
+ * </ul>
+ * request fails if it can not be made (I/O error) or server returns 5xx status.
+ * request is slow if response does not arrive within 'slowCallDuration'.
+ * @see RestClient.Builder#circuitBreaker(CircuitBreaker)
+ * @version 1.0.0
+ */
+
+public class CircuitBreaker {
+
+    /**
+     * state of circuit of a host.
+     */
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private final ConcurrentMap<String,HostCircuit> circuits = new ConcurrentHashMap<>();
+    private final AtomicLong shortCircuited = new AtomicLong();
+
+    private CircuitBreaker(@NonNull Builder builder) {
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(builder.slowCallMillis);
+        this.windowSize = builder.windowSize;
+        this.minimumCalls = Math.min(builder.minimumCalls, builder.windowSize);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(builder.openMillis);
+        this.halfOpenCalls = builder.halfOpenCalls;
+    }
+
+    /**
+     * @param host host.
+     * @return state of circuit of the host.
+     */
+    @NonNull
+    public State getState(@NonNull String host) {
+        HostCircuit circuit = circuits.get(host);
+        return circuit != null ? circuit.state(System.nanoTime()) : State.CLOSED;
+    }
+
+    /**
+     * @return snapshot of states of all hosts seen by this breaker.
+     */
+    @NonNull
+    public Map<String,State> getStates() {
+        Map<String,State> states = new HashMap<>();
+        long now = System.nanoTime();
+        for (Map.Entry<String,HostCircuit> e : circuits.entrySet())
+            states.put(e.getKey(), e.getValue().state(now));
+        return states;
+    }
+
+    /**
+     * close circuit of the host & forget its recorded outcomes.
+     * @param host host.
+     */
+    public void reset(@NonNull String host) {
+        circuits.remove(host);
+    }
+
+    /**
+     * @return number of requests failed fast because their circuit was open.
+     */
+    public long getShortCircuitedCount() {
+        return shortCircuited.get();
+    }
+
+    @NonNull
+    HostCircuit circuit(@NonNull String host) {
+        HostCircuit circuit = circuits.get(host);
+        if (circuit == null) {
+            HostCircuit created = new HostCircuit();
+            circuit = circuits.putIfAbsent(host, created);
+            if (circuit == null)
+                circuit = created;
+        }
+        return circuit;
+    }
+
+    void recordShortCircuit() {
+        shortCircuited.incrementAndGet();
+    }
+
+    boolean isSlow(long elapsedNanos) {
+        return slowCallNanos > 0 && elapsedNanos >= slowCallNanos;
+    }
+
+    /**
+     * circuit of one host.
+     */
+    class HostCircuit {
+
+        private State state = State.CLOSED;
+        private final byte[] window = new byte[windowSize];
+        private int position, calls, failures, slowCalls;
+        private long openedAt;
+        private int halfOpenStarted, halfOpenSucceeded;
+
+        synchronized State state(long now) {
+            if (state == State.OPEN && now - openedAt >= openNanos)
+                return State.HALF_OPEN;
+            return state;
+        }
+
+        /**
+         * @return true if request may pass.
+         */
+        synchronized boolean tryAcquire(long now) {
+            if (state == State.OPEN) {
+                if (now - openedAt < openNanos)
+                    return false;
+                state = State.HALF_OPEN;
+                halfOpenStarted = halfOpenSucceeded = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenStarted >= halfOpenCalls)
+                    return false;
+                halfOpenStarted++;
+            }
+            return true;
+        }
+
+        /**
+         * @return millis until open circuit lets trial requests pass.
+         */
+        synchronized long retryAfterMillis(long now) {
+            return state == State.OPEN ? TimeUnit.NANOSECONDS.toMillis(Math.max(0, openedAt + openNanos - now)) : 0;
+        }
+
+        synchronized void onResult(boolean failed, boolean slow, long now) {
+            if (state == State.HALF_OPEN) {
+                if (failed || slow)
+                    open(now);
+                else if (++halfOpenSucceeded >= halfOpenCalls)
+                    close();
+                return;
+            }
+            if (state == State.OPEN)
+                return;
+
+            byte outcome = (byte) ((failed ? 1 : 0) | (slow ? 2 : 0));
+            if (calls == windowSize) {
+                byte old = window[position];
+                failures -= old & 1;
+                slowCalls -= (old >> 1) & 1;
+            } else {
+                calls++;
+            }
+            window[position] = outcome;
+            position = (position + 1) % windowSize;
+            failures += outcome & 1;
+            slowCalls += (outcome >> 1) & 1;
+
+            if (calls >= minimumCalls && ((float) failures / calls >= failureRateThreshold
+                    || (float) slowCalls / calls >= slowCallRateThreshold))
+                open(now);
+        }
+
+        /**
+         * release trial permit of a request cancelled by its caller, its outcome
+           says nothing about the host.
+         */
+        synchronized void onCancelled() {
+            if (state == State.HALF_OPEN && halfOpenStarted > 0)
+                halfOpenStarted--;
+        }
+
+        private void open(long now) {
+            state = State.OPEN;
+            openedAt = now;
+        }
+
+        private void close() {
+            state = State.CLOSED;
+            position = calls = failures = slowCalls = 0;
+        }
+    }
+
+    /**
+     * builder of {@link CircuitBreaker}.
+     */
+    public static class Builder {
+
+        private float failureRateThreshold = 0.5f;
+        private float slowCallRateThreshold = 1f;
+        private long slowCallMillis = 0;
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private long openMillis = 30000;
+        private int halfOpenCalls = 3;
+
+        /**
+         * @param threshold failure rate (0 to 1) at which circuit opens, default 0.5.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder failureRateThreshold(float threshold) {
+            this.failureRateThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * @param threshold slow call rate (0 to 1) at which circuit opens, default 1.
+         * @param slowCallDuration duration after which call is slow, 0 to disable (default).
+         * @param unit unit of duration.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder slowCallThreshold(float threshold, long slowCallDuration, @NonNull TimeUnit unit) {
+            this.slowCallRateThreshold = threshold;
+            this.slowCallMillis = unit.toMillis(slowCallDuration);
+            return this;
+        }
+
+        /**
+         * @param windowSize number of recent calls whose outcome is recorded, default 20.
+         * @param minimumCalls calls needed before rates are evaluated, default 10.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder window(int windowSize, int minimumCalls) {
+            if (windowSize < 1)
+                throw new IllegalArgumentException("windowSize must be positive");
+            this.windowSize = windowSize;
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * @param duration time circuit stays open before trial calls, default 30 seconds.
+         * @param unit unit of duration.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder openDuration(long duration, @NonNull TimeUnit unit) {
+            this.openMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * @param halfOpenCalls number of trial calls in half open state, default 3.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder halfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = Math.max(1, halfOpenCalls);
+            return this;
+        }
+
+        /**
+         * @return new circuit breaker.
+         */
+        @NonNull
+        public CircuitBreaker build() {
+            return new CircuitBreaker(this);
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequestFactoryWrapper;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * request factory which passes requests through {@link CircuitBreaker} of their host.
+ * @version 1.0.0
+ */
+
+class CircuitBreakerClientHttpRequestFactory extends AbstractClientHttpRequestFactoryWrapper {
+
+    @NonNull private final CircuitBreaker breaker;
+
+    CircuitBreakerClientHttpRequestFactory(@NonNull ClientHttpRequestFactory requestFactory,
+                                           @NonNull CircuitBreaker breaker) {
+        super(requestFactory);
+        this.breaker = breaker;
+    }
+
+    @Override
+    protected ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod,
+                                              ClientHttpRequestFactory requestFactory) throws IOException {
+        return new GuardedRequest(requestFactory.createRequest(uri, httpMethod));
+    }
+
+    private class GuardedRequest implements StreamingClientHttpRequest {
+
+        @NonNull private final ClientHttpRequest delegate;
+        @Nullable private StreamingBody streamingBody;
+
+        GuardedRequest(@NonNull ClientHttpRequest delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void setStreamingBody(@NonNull StreamingBody body) {
+            this.streamingBody = body;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            if (streamingBody != null)
+                StreamingBodies.write(delegate, streamingBody);
+            String host = getURI().getHost() != null ? getURI().getHost() : "";
+            CircuitBreaker.HostCircuit circuit = breaker.circuit(host);
+            long start = System.nanoTime();
+            if (!circuit.tryAcquire(start)) {
+                breaker.recordShortCircuit();
+                throw new CircuitOpenException(host, circuit.retryAfterMillis(start));
+            }
+            ClientHttpResponse response;
+            try {
+                response = delegate.execute();
+            } catch (IOException | RuntimeException e) {
+                long now = System.nanoTime();
+                if (RequestContext.isCurrentCancelled())
+                    circuit.onCancelled();
+                else
+                    circuit.onResult(true, breaker.isSlow(now - start), now);
+                throw e;
+            }
+            long now = System.nanoTime();
+            circuit.onResult(response.getRawStatusCode() >= 500, breaker.isSlow(now - start), now);
+            return response;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * exception thrown when request is not made because circuit of its host is open.
+ * it tells callers that the request was short-circuited by the client, not
+   rejected by the server.
+ * @see CircuitBreaker
+ * @version 1.0.0
+ */
+
+public class CircuitOpenException extends RestClientException {
+
+    private static final long serialVersionUID = 1L;
+
+    @NonNull private final String host;
+    private final long retryAfterMillis;
+
+    /**
+     * @param host host whose circuit is open.
+     * @param retryAfterMillis time after which circuit lets trial requests pass.
+     */
+    public CircuitOpenException(@NonNull String host, long retryAfterMillis) {
+        super("circuit of host " + host + " is open, retry after " + retryAfterMillis + " ms");
+        this.host = host;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return host whose circuit is open.
+     */
+    @NonNull
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @return time in millis after which circuit lets trial requests pass,
+               0 if trial requests are already running.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * request which buffers its body, compresses it if needed & writes it to delegate.
+ * {@link StreamingBody} is not buffered, it is compressed while it is sent.
+ * delegate's body stream is taken before 'Content-Encoding' is set, so request
+   factories which compress by that header do not compress twice.
+ * @version 1.0.0
+ */
+
+class CompressingClientHttpRequest implements StreamingClientHttpRequest {
+
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+
+    @NonNull private final ClientHttpRequest delegate;
+    private final boolean decompressResponses;
+    private final int requestThreshold;
+    @NonNull private final CompressionStats stats;
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+    @Nullable private StreamingBody streamingBody;
+
+    CompressingClientHttpRequest(@NonNull ClientHttpRequest delegate, boolean decompressResponses,
+                                 int requestThreshold, @NonNull CompressionStats stats) {
+        this.delegate = delegate;
+        this.decompressResponses = decompressResponses;
+        this.requestThreshold = requestThreshold;
+        this.stats = stats;
+    }
+
+    @Override
+    public HttpMethod getMethod() {
+        return delegate.getMethod();
+    }
+
+    @Override
+    public URI getURI() {
+        return delegate.getURI();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return delegate.getHeaders();
+    }
+
+    @Override
+    public OutputStream getBody() throws IOException {
+        return body;
+    }
+
+    @Override
+    public void setStreamingBody(@NonNull StreamingBody body) {
+        this.streamingBody = body;
+    }
+
+    @Override
+    public ClientHttpResponse execute() throws IOException {
+        HttpHeaders headers = delegate.getHeaders();
+        if (decompressResponses && headers.getFirst("Accept-Encoding") == null)
+            headers.set("Accept-Encoding", "gzip, deflate");
+        if (streamingBody != null)
+            writeStreamingBody(headers, streamingBody);
+        else if (body.size() > 0)
+            writeBody(headers);
+
+        ClientHttpResponse response = delegate.execute();
+        return decompressResponses ? new DecompressingClientHttpResponse(response, stats) : response;
+    }
+
+    private void writeBody(@NonNull HttpHeaders headers) throws IOException {
+        byte[] raw = body.toByteArray();
+        String encoding = headers.getFirst(CONTENT_ENCODING);
+        boolean compress = encoding == null ? requestThreshold >= 0 && raw.length >= requestThreshold
+                : encoding.equalsIgnoreCase("gzip");
+        headers.remove(CONTENT_ENCODING);
+        OutputStream out = delegate.getBody();
+        byte[] sent = raw;
+        if (compress) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+            GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+            gzip.write(raw);
+            gzip.close();
+            sent = compressed.toByteArray();
+            headers.set(CONTENT_ENCODING, "gzip");
+            headers.setContentLength(sent.length);
+        } else if (encoding != null && !encoding.equalsIgnoreCase("identity")) {
+            headers.set(CONTENT_ENCODING, encoding);
+        }
+        out.write(sent);
+        stats.requestBytes.addAndGet(raw.length);
+        stats.requestBytesSent.addAndGet(sent.length);
+    }
+
+    /**
+     * streaming body is compressed only if request has 'Content-Encoding: gzip',
+       as its size is not known in advance.
+     */
+    private void writeStreamingBody(@NonNull HttpHeaders headers, @NonNull StreamingBody raw)
+            throws IOException {
+        String encoding = headers.getFirst(CONTENT_ENCODING);
+        boolean compress = encoding != null && encoding.equalsIgnoreCase("gzip");
+        headers.remove(CONTENT_ENCODING);
+        if (compress) {
+            headers.set(CONTENT_ENCODING, "gzip");
+            headers.remove("Content-Length");
+        } else if (encoding != null && !encoding.equalsIgnoreCase("identity")) {
+            headers.set(CONTENT_ENCODING, encoding);
+        }
+        StreamingBodies.write(delegate, new EncodedBody(raw, compress));
+    }
+
+    /**
+     * streaming body which is gzipped on the fly if needed & counted into stats.
+     */
+    private class EncodedBody implements StreamingBody {
+
+        @NonNull private final StreamingBody raw;
+        private final boolean compress;
+
+        EncodedBody(@NonNull StreamingBody raw, boolean compress) {
+            this.raw = raw;
+            this.compress = compress;
+        }
+
+        @Override
+        public MediaType getContentType() {
+            return raw.getContentType();
+        }
+
+        @Override
+        public long getContentLength() {
+            return compress ? -1 : raw.getContentLength();
+        }
+
+        @Override
+        public void writeTo(@NonNull OutputStream out) throws IOException {
+            CountingOutputStream sent = new CountingOutputStream(out);
+            GZIPOutputStream gzip = compress ? new GZIPOutputStream(sent, 8192) : null;
+            CountingOutputStream written = new CountingOutputStream(gzip != null ? gzip : sent);
+            raw.writeTo(written);
+            if (gzip != null)
+                gzip.finish();
+            stats.requestBytes.addAndGet(written.count);
+            stats.requestBytesSent.addAndGet(sent.count);
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        long count;
+
+        CountingOutputStream(@NonNull OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(@NonNull byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
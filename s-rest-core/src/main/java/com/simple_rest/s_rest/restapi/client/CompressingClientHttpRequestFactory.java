@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequestFactoryWrapper;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * request factory which compresses request bodies & decompresses responses.
+ * <ul>
+ *     <li>responses: if enabled, 'Accept-Encoding: gzip, deflate' is sent unless
+           request already has 'Accept-Encoding', and encoded responses are
+           decoded transparently.</li>
+ *     <li>requests: body is gzip compressed when it is at least as big as the
+           threshold. it can be chosen per request using header
+           'Content-Encoding: gzip' (always compress) or
+           'Content-Encoding: identity' (never compress).</li>
+ * </ul>
+ * compressed & uncompressed byte counts are kept in {@link CompressionStats}.
+ * @see RestClient.Builder#compression(boolean, int)
+ * @version 1.0.0
+ */
+
+public class CompressingClientHttpRequestFactory extends AbstractClientHttpRequestFactoryWrapper {
+
+    private final boolean decompressResponses;
+    private final int requestThreshold;
+    @NonNull private final CompressionStats stats = new CompressionStats();
+
+    /**
+     * @param requestFactory factory which makes network requests.
+     * @param decompressResponses true to ask for & decode compressed responses.
+     * @param requestThreshold min body size in bytes to compress request, negative
+              to compress only requests asking for it.
+     */
+    public CompressingClientHttpRequestFactory(@NonNull ClientHttpRequestFactory requestFactory,
+                                               boolean decompressResponses, int requestThreshold) {
+        super(requestFactory);
+        this.decompressResponses = decompressResponses;
+        this.requestThreshold = requestThreshold;
+    }
+
+    @Override
+    protected ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod,
+                                              ClientHttpRequestFactory requestFactory) throws IOException {
+        return new CompressingClientHttpRequest(requestFactory.createRequest(uri, httpMethod),
+                decompressResponses, requestThreshold, stats);
+    }
+
+    /**
+     * @return byte counters.
+     */
+    @NonNull
+    public CompressionStats getStats() {
+        return stats;
+    }
+}
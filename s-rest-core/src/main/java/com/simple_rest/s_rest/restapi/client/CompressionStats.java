@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * byte counters of {@link CompressingClientHttpRequestFactory}.
+ * they show how many bytes were saved by compression on the wire.
+ * response counters are updated while response bodies are read.
+ * @version 1.0.0
+ */
+
+public class CompressionStats {
+
+    final AtomicLong requestBytes = new AtomicLong();
+    final AtomicLong requestBytesSent = new AtomicLong();
+    final AtomicLong responseBytesReceived = new AtomicLong();
+    final AtomicLong responseBytes = new AtomicLong();
+
+    /**
+     * @return bytes of request bodies before compression.
+     */
+    public long getRequestBytes() {
+        return requestBytes.get();
+    }
+
+    /**
+     * @return bytes of request bodies actually sent, after compression.
+     */
+    public long getRequestBytesSent() {
+        return requestBytesSent.get();
+    }
+
+    /**
+     * @return bytes of response bodies actually received, before decompression.
+     */
+    public long getResponseBytesReceived() {
+        return responseBytesReceived.get();
+    }
+
+    /**
+     * @return bytes of response bodies after decompression.
+     */
+    public long getResponseBytes() {
+        return responseBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStats{request " + requestBytes + " -> " + requestBytesSent
+                + ", response " + responseBytesReceived + " -> " + responseBytes + "}";
+    }
+}
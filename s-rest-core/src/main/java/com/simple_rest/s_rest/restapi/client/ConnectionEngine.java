@@ -0,0 +1,59 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+/**
+ * connection engine decides how Http connections are opened, reused & closed.
+ * all requests made through a {@link RestClient} are routed through the request
+   factory of its engine.<br>
+ * implementations must be thread-safe.
+ * @see PooledConnectionEngine
+ * @see MultiplexedConnectionEngine
+ * @version 1.0.0
+ */
+
+public interface ConnectionEngine {
+
+    /**
+     * @return request factory which opens connections of this engine.
+     */
+    @NonNull
+    ClientHttpRequestFactory getRequestFactory();
+
+    /**
+     * close all connections which are idle at the moment.
+     */
+    void evictIdleConnections();
+
+    /**
+     * close all connections & release resources of this engine.
+     * engine must not be used after it is shut down.
+     */
+    void shutdown();
+}
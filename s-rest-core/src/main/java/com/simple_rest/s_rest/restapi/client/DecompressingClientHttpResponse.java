@@ -0,0 +1,134 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * response whose 'gzip' or 'deflate' encoded body is decoded while it is read.
+ * headers of decoded response do not contain 'Content-Encoding' & 'Content-Length'.
+ * @version 1.0.0
+ */
+
+class DecompressingClientHttpResponse implements ClientHttpResponse {
+
+    @NonNull private final ClientHttpResponse response;
+    @NonNull private final CompressionStats stats;
+    private HttpHeaders headers;
+    private InputStream body;
+
+    DecompressingClientHttpResponse(@NonNull ClientHttpResponse response, @NonNull CompressionStats stats) {
+        this.response = response;
+        this.stats = stats;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() throws IOException {
+        return response.getStatusCode();
+    }
+
+    @Override
+    public int getRawStatusCode() throws IOException {
+        return response.getRawStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return response.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        if (headers == null) {
+            HttpHeaders original = response.getHeaders();
+            if (encoding() == null) {
+                headers = original;
+            } else {
+                headers = new HttpHeaders();
+                headers.putAll(original);
+                headers.remove("Content-Encoding");
+                headers.remove("Content-Length");
+            }
+        }
+        return headers;
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        if (body != null)
+            return body;
+        String encoding = encoding();
+        InputStream raw = response.getBody();
+        if (encoding == null) {
+            body = new CountingInputStream(new CountingInputStream(raw, stats.responseBytes),
+                    stats.responseBytesReceived);
+            return body;
+        }
+        BufferedInputStream buffered = new BufferedInputStream(
+                new CountingInputStream(raw, stats.responseBytesReceived));
+        buffered.mark(1);
+        if (buffered.read() == -1) {
+            body = new ByteArrayInputStream(new byte[0]);
+            return body;
+        }
+        buffered.reset();
+        InputStream decoded = encoding.equals("deflate") ? new InflaterInputStream(buffered)
+                : new GZIPInputStream(buffered);
+        body = new CountingInputStream(decoded, stats.responseBytes);
+        return body;
+    }
+
+    /**
+     * @return encoding which must be decoded by this object, null if none.
+     */
+    private String encoding() {
+        String encoding = response.getHeaders().getFirst("Content-Encoding");
+        if (encoding == null)
+            return null;
+        encoding = encoding.trim().toLowerCase(Locale.US);
+        if (encoding.equals("gzip") || encoding.equals("x-gzip"))
+            //spring's own responses already decode gzip
+            return response instanceof AbstractClientHttpResponse ? null : "gzip";
+        return encoding.equals("deflate") ? "deflate" : null;
+    }
+
+    @Override
+    public void close() {
+        response.close();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * request which is sent again if its response does not arrive within hedge delay.
+ * headers & body are buffered, so every attempt sends the same request.
+ * response which arrives first is returned & other attempt is cancelled.
+ * failure of one attempt is ignored while other attempt is running.
+ * request with {@link StreamingBody} is never hedged, as its body may not be
+   readable twice.
+ * @version 1.0.0
+ */
+
+class HedgingClientHttpRequest implements StreamingClientHttpRequest {
+
+    @NonNull private final URI uri;
+    @NonNull private final HttpMethod method;
+    @NonNull private final ClientHttpRequestFactory requestFactory;
+    @NonNull private final HedgingPolicy policy;
+    @NonNull private final ExecutorService executor;
+    private final HttpHeaders headers = new HttpHeaders();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+    @Nullable private StreamingBody streamingBody;
+
+    HedgingClientHttpRequest(@NonNull URI uri, @NonNull HttpMethod method,
+                             @NonNull ClientHttpRequestFactory requestFactory,
+                             @NonNull HedgingPolicy policy, @NonNull ExecutorService executor) {
+        this.uri = uri;
+        this.method = method;
+        this.requestFactory = requestFactory;
+        this.policy = policy;
+        this.executor = executor;
+    }
+
+    @Override
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    @Override
+    public URI getURI() {
+        return uri;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public OutputStream getBody() throws IOException {
+        return body;
+    }
+
+    @Override
+    public void setStreamingBody(@NonNull StreamingBody body) {
+        this.streamingBody = body;
+    }
+
+    @Override
+    public ClientHttpResponse execute() throws IOException {
+        boolean hedgeable = streamingBody == null && policy.isHedgeable(method, headers);
+        if (!hedgeable)
+            return newRequest().execute();
+
+        String host = uri.getHost() != null ? uri.getHost() : "";
+        policy.earnToken();
+        BlockingQueue<Attempt> done = new LinkedBlockingQueue<>();
+        List<Attempt> attempts = new ArrayList<>(2);
+        try {
+            attempts.add(start(done));
+            Attempt winner = done.poll(policy.getDelayMillis(host), TimeUnit.MILLISECONDS);
+            if (winner == null) {
+                if (policy.tryHedge())
+                    attempts.add(start(done));
+                winner = done.take();
+            }
+            if (winner.response == null && attempts.size() > 1)
+                winner = done.take();
+
+            for (Attempt attempt : attempts)
+                if (attempt != winner)
+                    attempt.cancel();
+            if (winner.response == null)
+                throw winner.error;
+            if (winner != attempts.get(0))
+                policy.recordHedgeWin();
+            policy.recordLatency(host, TimeUnit.NANOSECONDS.toMillis(winner.elapsedNanos));
+            return winner.response;
+        } catch (InterruptedException e) {
+            for (Attempt attempt : attempts)
+                attempt.cancel();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for response");
+        } catch (IOException | RuntimeException e) {
+            for (Attempt attempt : attempts)
+                attempt.cancel();
+            throw e;
+        }
+    }
+
+    @NonNull
+    private Attempt start(@NonNull BlockingQueue<Attempt> done) throws IOException {
+        Attempt attempt = new Attempt(newRequest(), done);
+        executor.execute(attempt);
+        return attempt;
+    }
+
+    @NonNull
+    private ClientHttpRequest newRequest() throws IOException {
+        ClientHttpRequest request = requestFactory.createRequest(uri, method);
+        request.getHeaders().putAll(headers);
+        if (streamingBody != null)
+            StreamingBodies.write(request, streamingBody);
+        else if (body.size() > 0)
+            body.writeTo(request.getBody());
+        return request;
+    }
+
+    /**
+     * one attempt of the request, it reports its outcome to the queue.
+     */
+    private static class Attempt implements Runnable {
+
+        @NonNull private final ClientHttpRequest request;
+        @NonNull private final BlockingQueue<Attempt> done;
+        @Nullable private ClientHttpResponse response;
+        private IOException error;
+        private long elapsedNanos;
+        private boolean cancelled;
+
+        Attempt(@NonNull ClientHttpRequest request, @NonNull BlockingQueue<Attempt> done) {
+            this.request = request;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            ClientHttpResponse result = null;
+            IOException failure = null;
+            try {
+                result = request.execute();
+            } catch (IOException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = new IOException(e.getMessage(), e);
+            }
+            synchronized (this) {
+                if (cancelled) {
+                    if (result != null)
+                        result.close();
+                    return;
+                }
+                response = result;
+                error = failure;
+                elapsedNanos = System.nanoTime() - start;
+            }
+            done.add(this);
+        }
+
+        void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                if (response != null) {
+                    response.close();
+                    response = null;
+                }
+            }
+            if (request instanceof Cancellable)
+                ((Cancellable) request).cancel();
+        }
+    }
+}
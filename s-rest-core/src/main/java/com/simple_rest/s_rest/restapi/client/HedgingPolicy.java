@@ -0,0 +1,271 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * configuration & state of hedged requests.
+ * when response of an idempotent request does not arrive within hedge delay,
+   a duplicate request is sent; first response wins & the other request is
+   cancelled.<br>
+ * GET & HEAD requests are always hedged, PUT requests only if they have
+   {@link #IDEMPOTENT_HEADER} header (which is not sent to the server) &
+   {@link Builder#hedgePut(boolean)} is enabled.<br>
+ * hedge delay is either fixed, or learned from recent latencies of the host
+   (e.g. its 95th percentile).<br>
+ * hedges are limited by a budget: each hedgeable request earns 'budgetRatio'
+   token & each hedge spends one token, so during outage hedges add at most
+   'budgetRatio' extra load.
+ * @see RestClient.Builder#hedging(HedgingPolicy)
+ * @version 1.0.0
+ */
+
+public class HedgingPolicy {
+
+    /**
+     * request header which marks PUT request as idempotent.
+     */
+    public static final String IDEMPOTENT_HEADER = "X-Idempotent";
+
+    private static final int LATENCY_WINDOW = 64;
+
+    private final long delayMillis;
+    private final long minDelayMillis;
+    private final double percentile;
+    private final int minSamples;
+    private final boolean hedgePut;
+    private final double budgetRatio;
+    private final double maxTokens;
+
+    private final ConcurrentMap<String,LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private double tokens;
+    private final AtomicLong hedgedCount = new AtomicLong();
+    private final AtomicLong hedgeWinCount = new AtomicLong();
+    private final AtomicLong budgetExhaustedCount = new AtomicLong();
+
+    private HedgingPolicy(@NonNull Builder builder) {
+        this.delayMillis = builder.delayMillis;
+        this.minDelayMillis = builder.minDelayMillis;
+        this.percentile = builder.percentile;
+        this.minSamples = builder.minSamples;
+        this.hedgePut = builder.hedgePut;
+        this.budgetRatio = builder.budgetRatio;
+        this.maxTokens = builder.maxTokens;
+        this.tokens = builder.maxTokens;
+    }
+
+    /**
+     * @param method Http method.
+     * @param headers request headers.
+     * @return true if request may be sent more than once.
+     */
+    public boolean isHedgeable(@NonNull HttpMethod method, @NonNull HttpHeaders headers) {
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD)
+            return true;
+        return hedgePut && method == HttpMethod.PUT
+                && "true".equalsIgnoreCase(headers.getFirst(IDEMPOTENT_HEADER));
+    }
+
+    /**
+     * @param host host.
+     * @return time in millis after which request to the host is hedged.
+     */
+    public long getDelayMillis(@NonNull String host) {
+        if (percentile > 0) {
+            LatencyWindow window = latencies.get(host);
+            if (window != null) {
+                long learned = window.percentile(percentile, minSamples);
+                if (learned >= 0)
+                    return Math.max(minDelayMillis, learned);
+            }
+        }
+        return delayMillis;
+    }
+
+    /**
+     * @return number of hedges sent.
+     */
+    public long getHedgedCount() {
+        return hedgedCount.get();
+    }
+
+    /**
+     * @return number of hedges whose response arrived first.
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+
+    /**
+     * @return number of hedges not sent because budget was exhausted.
+     */
+    public long getBudgetExhaustedCount() {
+        return budgetExhaustedCount.get();
+    }
+
+    void recordLatency(@NonNull String host, long millis) {
+        if (percentile <= 0)
+            return;
+        LatencyWindow window = latencies.get(host);
+        if (window == null) {
+            LatencyWindow created = new LatencyWindow();
+            window = latencies.putIfAbsent(host, created);
+            if (window == null)
+                window = created;
+        }
+        window.add(millis);
+    }
+
+    synchronized void earnToken() {
+        tokens = Math.min(maxTokens, tokens + budgetRatio);
+    }
+
+    boolean tryHedge() {
+        synchronized (this) {
+            if (tokens >= 1) {
+                tokens -= 1;
+                hedgedCount.incrementAndGet();
+                return true;
+            }
+        }
+        budgetExhaustedCount.incrementAndGet();
+        return false;
+    }
+
+    void recordHedgeWin() {
+        hedgeWinCount.incrementAndGet();
+    }
+
+    /**
+     * latencies of recent requests to one host.
+     */
+    private static class LatencyWindow {
+
+        private final long[] samples = new long[LATENCY_WINDOW];
+        private int position, count;
+
+        synchronized void add(long millis) {
+            samples[position] = millis;
+            position = (position + 1) % samples.length;
+            if (count < samples.length)
+                count++;
+        }
+
+        synchronized long percentile(double percentile, int minSamples) {
+            if (count < minSamples || count == 0)
+                return -1;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+
+    /**
+     * builder of {@link HedgingPolicy}.
+     */
+    public static class Builder {
+
+        private long delayMillis = 500;
+        private long minDelayMillis = 10;
+        private double percentile;
+        private int minSamples = 20;
+        private boolean hedgePut;
+        private double budgetRatio = 0.1;
+        private double maxTokens = 10;
+
+        /**
+         * @param delay fixed hedge delay, also used until enough latencies are
+                  learned, default 500 millis.
+         * @param unit unit of delay.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder delay(long delay, @NonNull TimeUnit unit) {
+            this.delayMillis = unit.toMillis(delay);
+            return this;
+        }
+
+        /**
+         * learn hedge delay from recent latencies of each host.
+         * @param percentile percentile (e.g. 95) of latencies used as delay.
+         * @param minSamples latencies needed before learned delay is used, default 20.
+         * @param minDelay lower bound of learned delay, default 10 millis.
+         * @param unit unit of min delay.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder percentileDelay(double percentile, int minSamples,
+                                       long minDelay, @NonNull TimeUnit unit) {
+            if (percentile <= 0 || percentile > 100)
+                throw new IllegalArgumentException("percentile must be in (0, 100]");
+            this.percentile = percentile;
+            this.minSamples = minSamples;
+            this.minDelayMillis = unit.toMillis(minDelay);
+            return this;
+        }
+
+        /**
+         * @param hedgePut true to hedge PUT requests marked with {@link #IDEMPOTENT_HEADER}.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder hedgePut(boolean hedgePut) {
+            this.hedgePut = hedgePut;
+            return this;
+        }
+
+        /**
+         * @param ratio max hedges per hedgeable request, default 0.1.
+         * @param burst max hedges which can be sent in a row, default 10.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder budget(double ratio, int burst) {
+            this.budgetRatio = ratio;
+            this.maxTokens = Math.max(1, burst);
+            return this;
+        }
+
+        /**
+         * @return new policy.
+         */
+        @NonNull
+        public HedgingPolicy build() {
+            return new HedgingPolicy(this);
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * request which records its timings & body size into {@link RequestMetrics}.
+ * metrics are reported when response is closed, or when request fails.
+ * @version 1.0.0
+ */
+
+class InstrumentedClientHttpRequest implements StreamingClientHttpRequest {
+
+    @NonNull private final ClientHttpRequest delegate;
+    @NonNull private final RequestMetrics metrics;
+    @NonNull private final RequestListener listener;
+    private OutputStream body;
+    @Nullable private StreamingBody streamingBody;
+
+    InstrumentedClientHttpRequest(@NonNull ClientHttpRequest delegate, @NonNull RequestMetrics metrics,
+                                  @NonNull RequestListener listener) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.listener = listener;
+    }
+
+    @Override
+    public HttpMethod getMethod() {
+        return delegate.getMethod();
+    }
+
+    @Override
+    public URI getURI() {
+        return delegate.getURI();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return delegate.getHeaders();
+    }
+
+    @Override
+    public OutputStream getBody() throws IOException {
+        if (body == null)
+            body = new CountingOutputStream(delegate.getBody());
+        return body;
+    }
+
+    @Override
+    public void setStreamingBody(@NonNull StreamingBody body) {
+        this.streamingBody = body;
+    }
+
+    @Override
+    public ClientHttpResponse execute() throws IOException {
+        RequestMetrics.setCurrent(metrics);
+        ClientHttpResponse response;
+        try {
+            if (streamingBody != null)
+                StreamingBodies.write(delegate, new CountedBody(streamingBody));
+            response = delegate.execute();
+        } catch (IOException | RuntimeException e) {
+            metrics.error = e;
+            metrics.totalNanos = System.nanoTime() - metrics.startNanos;
+            listener.onRequestEnd(metrics);
+            throw e;
+        } finally {
+            RequestMetrics.setCurrent(null);
+        }
+        long now = System.nanoTime();
+        metrics.timeToFirstByteNanos = now - metrics.startNanos;
+        metrics.status = response.getRawStatusCode();
+        return new InstrumentedClientHttpResponse(response, metrics, listener, now);
+    }
+
+    private class CountedBody implements StreamingBody {
+
+        @NonNull private final StreamingBody body;
+
+        CountedBody(@NonNull StreamingBody body) {
+            this.body = body;
+        }
+
+        @Override
+        public MediaType getContentType() {
+            return body.getContentType();
+        }
+
+        @Override
+        public long getContentLength() {
+            return body.getContentLength();
+        }
+
+        @Override
+        public void writeTo(@NonNull OutputStream out) throws IOException {
+            body.writeTo(new CountingOutputStream(out));
+        }
+    }
+
+    private class CountingOutputStream extends FilterOutputStream {
+
+        CountingOutputStream(@NonNull OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            metrics.bytesOut++;
+        }
+
+        @Override
+        public void write(@NonNull byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            metrics.bytesOut += len;
+        }
+    }
+}
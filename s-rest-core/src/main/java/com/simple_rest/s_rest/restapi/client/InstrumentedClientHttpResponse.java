@@ -0,0 +1,155 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.simple_rest.s_rest.restapi.cache.DecodedBodyHolder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * response which measures reading of its body & reports request metrics on close.
+ * @version 1.0.0
+ */
+
+class InstrumentedClientHttpResponse implements ClientHttpResponse, DecodedBodyHolder {
+
+    @NonNull private final ClientHttpResponse delegate;
+    @NonNull private final RequestMetrics metrics;
+    @NonNull private final RequestListener listener;
+    private final long headersNanos;
+    private InputStream body;
+    private boolean closed;
+
+    InstrumentedClientHttpResponse(@NonNull ClientHttpResponse delegate, @NonNull RequestMetrics metrics,
+                                   @NonNull RequestListener listener, long headersNanos) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.listener = listener;
+        this.headersNanos = headersNanos;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() throws IOException {
+        return delegate.getStatusCode();
+    }
+
+    @Override
+    public int getRawStatusCode() throws IOException {
+        return delegate.getRawStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return delegate.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return delegate.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        if (body == null)
+            body = new TimedInputStream(delegate.getBody());
+        return body;
+    }
+
+    @Nullable
+    @Override
+    public <T> T getDecodedBody(@NonNull Class<T> type) {
+        return delegate instanceof DecodedBodyHolder ? ((DecodedBodyHolder) delegate).getDecodedBody(type) : null;
+    }
+
+    @Override
+    public void setDecodedBody(@NonNull Class<?> type, @NonNull Object body) {
+        if (delegate instanceof DecodedBodyHolder)
+            ((DecodedBodyHolder) delegate).setDecodedBody(type, body);
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        delegate.close();
+        long now = System.nanoTime();
+        metrics.deserializationNanos = Math.max(0, now - headersNanos - metrics.bodyReadNanos);
+        metrics.totalNanos = now - metrics.startNanos;
+        listener.onRequestEnd(metrics);
+    }
+
+    /**
+     * input stream which adds time spent in reads & bytes read to the metrics.
+     */
+    private class TimedInputStream extends FilterInputStream {
+
+        TimedInputStream(@NonNull InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int b = in.read();
+            metrics.bodyReadNanos += System.nanoTime() - start;
+            if (b != -1)
+                metrics.bytesIn++;
+            return b;
+        }
+
+        @Override
+        public int read(@NonNull byte[] buffer, int offset, int count) throws IOException {
+            long start = System.nanoTime();
+            int n = in.read(buffer, offset, count);
+            metrics.bodyReadNanos += System.nanoTime() - start;
+            if (n > 0)
+                metrics.bytesIn += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            if (skipped > 0)
+                metrics.bytesIn += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
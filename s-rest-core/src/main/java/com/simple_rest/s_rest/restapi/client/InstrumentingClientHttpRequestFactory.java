@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequestFactoryWrapper;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * request factory which measures requests & reports them to {@link RequestListener}.
+ * it is the outermost factory of a client, so it is only installed when client
+   has a listener.
+ * @version 1.0.0
+ */
+
+class InstrumentingClientHttpRequestFactory extends AbstractClientHttpRequestFactoryWrapper {
+
+    @NonNull private final RequestListener listener;
+
+    InstrumentingClientHttpRequestFactory(@NonNull ClientHttpRequestFactory requestFactory,
+                                          @NonNull RequestListener listener) {
+        super(requestFactory);
+        this.listener = listener;
+    }
+
+    @Override
+    protected ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod,
+                                              ClientHttpRequestFactory requestFactory) throws IOException {
+        RequestMetrics metrics = new RequestMetrics(httpMethod, uri);
+        metrics.queueWaitNanos = RequestDispatcher.takeQueueWait();
+        RequestMetrics.setCurrent(metrics);
+        try {
+            return new InstrumentedClientHttpRequest(requestFactory.createRequest(uri, httpMethod),
+                    metrics, listener);
+        } finally {
+            RequestMetrics.setCurrent(null);
+        }
+    }
+}
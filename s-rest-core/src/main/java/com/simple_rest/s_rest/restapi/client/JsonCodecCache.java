@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * cache of jackson readers & writers prebuilt for each type.
+ * reader & writer resolve their root deserializer & serializer once when they
+   are created, so later requests of the same type skip type introspection &
+   serializer lookup.<br>
+ * {@link #warmUp(Collection)} builds them ahead of time, e.g. at application start,
+   so first request of a type does not pay introspection cost.
+ * @see RestClient#getJsonCodecs()
+ * @version 1.0.0
+ */
+
+public class JsonCodecCache {
+
+    @NonNull private final ObjectMapper mapper;
+    private final ConcurrentMap<Class<?>,ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>,ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * @param mapper configured object mapper, it must not be modified later.
+     */
+    public JsonCodecCache(@NonNull ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * @param type type to read.
+     * @return reader of the type.
+     */
+    @NonNull
+    public ObjectReader reader(@NonNull Class<?> type) {
+        ObjectReader reader = readers.get(type);
+        if (reader == null) {
+            reader = mapper.reader(type);
+            ObjectReader existing = readers.putIfAbsent(type, reader);
+            if (existing != null)
+                reader = existing;
+        }
+        return reader;
+    }
+
+    /**
+     * @param type type to write.
+     * @return writer of the type.
+     */
+    @NonNull
+    public ObjectWriter writer(@NonNull Class<?> type) {
+        ObjectWriter writer = writers.get(type);
+        if (writer == null) {
+            writer = mapper.writerWithType(type);
+            ObjectWriter existing = writers.putIfAbsent(type, writer);
+            if (existing != null)
+                writer = existing;
+        }
+        return writer;
+    }
+
+    /**
+     * build readers & writers of the types ahead of first use.
+     * it may take time for many types, so it should be called from a background thread.
+     * @param types request & response types (DTO classes, array classes for Json arrays).
+     */
+    public void warmUp(@NonNull Collection<Class<?>> types) {
+        for (Class<?> type : types) {
+            mapper.canDeserialize(mapper.constructType(type));
+            mapper.canSerialize(type);
+            reader(type);
+            writer(type);
+        }
+    }
+
+    /**
+     * @return object mapper of this cache.
+     */
+    @NonNull
+    public ObjectMapper getObjectMapper() {
+        return mapper;
+    }
+}
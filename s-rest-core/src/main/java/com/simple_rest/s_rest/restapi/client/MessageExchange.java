@@ -0,0 +1,211 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.simple_rest.s_rest.restapi.cache.DecodedBodyHolder;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * request/response exchange of {@link RestClient}.
+ * it does what 'RestTemplate.exchange' does (accept header from converters,
+   body written by first capable converter or streamed if it is a
+   {@link StreamingBody}, error handler, body read by first
+   capable converter), but without spring-android's rest template, which
+   depends on Android classes.
+ * body of response served from cache is decoded once per cache entry if the
+   response is a {@link DecodedBodyHolder}.
+ * @version 1.0.0
+ */
+
+class MessageExchange {
+
+    @NonNull private final ClientHttpRequestFactory requestFactory;
+    @NonNull private final List<HttpMessageConverter<?>> converters;
+    @NonNull private final ResponseErrorHandler errorHandler;
+    private final ConcurrentMap<Class<?>,TypeConverters> byType = new ConcurrentHashMap<>();
+
+    MessageExchange(@NonNull ClientHttpRequestFactory requestFactory,
+                    @NonNull List<HttpMessageConverter<?>> converters,
+                    @NonNull ResponseErrorHandler errorHandler) {
+        this.requestFactory = requestFactory;
+        this.converters = converters;
+        this.errorHandler = errorHandler;
+    }
+
+    @NonNull
+    <T> ResponseEntity<T> exchange(@NonNull URI uri, @NonNull HttpMethod method,
+                                   @Nullable HttpEntity<?> entity, @NonNull Class<T> type)
+            throws RestClientException {
+        String url = uri.toString();
+        ClientHttpResponse response = null;
+        try {
+            ClientHttpRequest request = requestFactory.createRequest(uri, method);
+            writeRequest(request, entity, type);
+            response = request.execute();
+            if (errorHandler.hasError(response))
+                errorHandler.handleError(response);
+            T body = type != Void.class ? readBody(response, type) : null;
+            return new ResponseEntity<>(body, response.getHeaders(), response.getStatusCode());
+        } catch (IOException e) {
+            ResourceAccessException aborted = RequestContext.currentAbortError(e, method + " request for \""
+                    + url + "\"");
+            if (aborted != null)
+                throw aborted;
+            throw new ResourceAccessException("I/O error on " + method + " request for \"" + url
+                    + "\": " + e.getMessage(), e);
+        } finally {
+            if (response != null)
+                response.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeRequest(@NonNull ClientHttpRequest request, @Nullable HttpEntity<?> entity,
+                              @NonNull Class<?> type) throws IOException {
+        HttpHeaders headers = entity != null ? entity.getHeaders() : null;
+        if (type != Void.class && (headers == null || headers.getFirst("Accept") == null)) {
+            List<MediaType> accept = convertersOf(type).accept;
+            if (!accept.isEmpty())
+                request.getHeaders().setAccept(accept);
+        }
+        if (entity == null)
+            return;
+        if (!headers.isEmpty())
+            request.getHeaders().putAll(headers);
+        Object body = entity.getBody();
+        if (body == null)
+            return;
+        if (body instanceof StreamingBody) {
+            StreamingBodies.write(request, (StreamingBody) body);
+            return;
+        }
+        MediaType contentType = headers.getContentType();
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter.canWrite(body.getClass(), contentType)) {
+                ((HttpMessageConverter<Object>) converter).write(body, contentType, request);
+                return;
+            }
+        }
+        throw new RestClientException("Could not write request: no suitable HttpMessageConverter "
+                + "found for request type [" + body.getClass().getName() + "]"
+                + (contentType != null ? " and content type [" + contentType + "]" : ""));
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private <T> T readBody(@NonNull ClientHttpResponse response, @NonNull Class<T> type)
+            throws IOException {
+        HttpStatus status = response.getStatusCode();
+        HttpHeaders headers = response.getHeaders();
+        if (status == HttpStatus.NO_CONTENT || status == HttpStatus.NOT_MODIFIED
+                || headers.getContentLength() == 0)
+            return null;
+        DecodedBodyHolder holder = response instanceof DecodedBodyHolder ? (DecodedBodyHolder) response : null;
+        if (holder != null) {
+            T decoded = holder.getDecodedBody(type);
+            if (decoded != null)
+                return decoded;
+        }
+        MediaType contentType = headers.getContentType();
+        if (contentType == null)
+            contentType = MediaType.APPLICATION_OCTET_STREAM;
+        for (HttpMessageConverter<?> converter : convertersOf(type).readers) {
+            if (converter.canRead(type, contentType)) {
+                T body = ((HttpMessageConverter<T>) converter).read(type, response);
+                if (holder != null && body != null)
+                    holder.setDecodedBody(type, body);
+                return body;
+            }
+        }
+        throw new RestClientException("Could not extract response: no suitable HttpMessageConverter "
+                + "found for response type [" + type.getName() + "] and content type ["
+                + contentType + "]");
+    }
+
+    /**
+     * @return converters which can read the type & Accept header made from
+               them, computed on first use of the type.
+     */
+    @NonNull
+    private TypeConverters convertersOf(@NonNull Class<?> type) {
+        TypeConverters typeConverters = byType.get(type);
+        if (typeConverters == null) {
+            typeConverters = new TypeConverters(type, converters);
+            TypeConverters raced = byType.putIfAbsent(type, typeConverters);
+            if (raced != null)
+                typeConverters = raced;
+        }
+        return typeConverters;
+    }
+
+    /**
+     * converters selected for one response type.
+     */
+    private static class TypeConverters {
+
+        @NonNull final List<HttpMessageConverter<?>> readers;
+        @NonNull final List<MediaType> accept;
+
+        TypeConverters(@NonNull Class<?> type, @NonNull List<HttpMessageConverter<?>> converters) {
+            List<HttpMessageConverter<?>> readers = new ArrayList<>(2);
+            List<MediaType> accept = new ArrayList<>();
+            for (HttpMessageConverter<?> converter : converters) {
+                if (!converter.canRead(type, null))
+                    continue;
+                readers.add(converter);
+                for (MediaType mediaType : converter.getSupportedMediaTypes())
+                    accept.add(mediaType.getCharSet() != null
+                            ? new MediaType(mediaType.getType(), mediaType.getSubtype()) : mediaType);
+            }
+            MediaType.sortBySpecificity(accept);
+            this.readers = Collections.unmodifiableList(readers);
+            this.accept = Collections.unmodifiableList(accept);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * connection engine which multiplexes concurrent requests to a host over one
+   HTTP/2 connection, instead of opening a connection per request.
+ * it is based on 'OkHttp' client, which also compresses headers (HPACK).<br>
+ * protocol is chosen per request,
+ * <ul>
+ *     <li>https: HTTP/2 is negotiated during TLS handshake (ALPN), it falls
+           back to HTTP/1.1 if server does not agree to HTTP/2.</li>
+ *     <li>http to hosts set by {@link Builder#cleartextHttp2(String...)}: HTTP/2
+           without TLS (h2c) is spoken from the first byte, so those hosts must
+           support it. there is no fallback.</li>
+ *     <li>http to other hosts: HTTP/1.1.</li>
+ * </ul>
+ * requests are not limited per host, HTTP/1.1 requests open as many connections
+   as they need, like {@link PooledConnectionEngine} with unlimited connections.
+ * it supports timeouts & cancellation of {@link RequestContext} the same way as
+   {@link PooledConnectionEngine}.
+ * @see RestClient.Builder#connectionEngine(ConnectionEngine)
+ * @version 1.0.0
+ */
+
+public class MultiplexedConnectionEngine implements ConnectionEngine {
+
+    @NonNull private final ConnectionPool connectionPool;
+    @NonNull private final OkHttpClient okHttpClient;
+    @Nullable private final OkHttpClient cleartextClient;
+    @NonNull private final ConcurrentMap<String,Protocol> protocols = new ConcurrentHashMap<>();
+    @NonNull private final ClientHttpRequestFactory requestFactory;
+
+    private MultiplexedConnectionEngine(@NonNull Builder builder) {
+        this.connectionPool = new ConnectionPool(builder.maxIdleConnections,
+                builder.idleTimeoutMillis, TimeUnit.MILLISECONDS);
+        OkHttpClient.Builder clientBuilder = PooledConnectionEngine.newClientBuilder(connectionPool)
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .pingInterval(builder.pingIntervalMillis, TimeUnit.MILLISECONDS)
+                .addNetworkInterceptor(new ProtocolRecorder(protocols));
+        this.okHttpClient = clientBuilder.build();
+        // shares pool & dispatcher of the main client
+        this.cleartextClient = builder.cleartextHosts.isEmpty() ? null : okHttpClient.newBuilder()
+                .protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE))
+                .build();
+        this.requestFactory = new ProtocolSelectingRequestFactory(
+                new OkHttpClientHttpRequestFactory(okHttpClient, 0),
+                cleartextClient != null ? new OkHttpClientHttpRequestFactory(cleartextClient, 0) : null,
+                new HashSet<>(builder.cleartextHosts));
+    }
+
+    @NonNull
+    @Override
+    public ClientHttpRequestFactory getRequestFactory() {
+        return requestFactory;
+    }
+
+    @Override
+    public void evictIdleConnections() {
+        connectionPool.evictAll();
+    }
+
+    @Override
+    public void shutdown() {
+        okHttpClient.dispatcher().executorService().shutdown();
+        connectionPool.evictAll();
+    }
+
+    /**
+     * @return number of connections (idle & in use) in the pool.
+     */
+    public int getConnectionCount() {
+        return connectionPool.connectionCount();
+    }
+
+    /**
+     * @return number of idle connections in the pool.
+     */
+    public int getIdleConnectionCount() {
+        return connectionPool.idleConnectionCount();
+    }
+
+    /**
+     * @param host host.
+     * @return protocol of the last connection used for the host, null if no request
+               reached the host yet.
+     */
+    @Nullable
+    public Protocol getProtocol(@NonNull String host) {
+        return protocols.get(host.toLowerCase(Locale.US));
+    }
+
+    /**
+     * @return snapshot of protocols of all hosts reached through this engine.
+     */
+    @NonNull
+    public Map<String,Protocol> getProtocols() {
+        return new HashMap<>(protocols);
+    }
+
+    /**
+     * @return underlying OkHttp client.
+     */
+    @NonNull
+    public OkHttpClient getOkHttpClient() {
+        return okHttpClient;
+    }
+
+    /**
+     * routes http requests to cleartext HTTP/2 hosts to the prior knowledge client,
+       everything else to the negotiating client.
+     */
+    private static class ProtocolSelectingRequestFactory implements ClientHttpRequestFactory {
+
+        @NonNull private final ClientHttpRequestFactory negotiating;
+        @Nullable private final ClientHttpRequestFactory cleartext;
+        @NonNull private final Set<String> cleartextHosts;
+
+        ProtocolSelectingRequestFactory(@NonNull ClientHttpRequestFactory negotiating,
+                                        @Nullable ClientHttpRequestFactory cleartext,
+                                        @NonNull Set<String> cleartextHosts) {
+            this.negotiating = negotiating;
+            this.cleartext = cleartext;
+            this.cleartextHosts = cleartextHosts;
+        }
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+            if (cleartext != null && "http".equalsIgnoreCase(uri.getScheme()) && uri.getHost() != null
+                    && cleartextHosts.contains(uri.getHost().toLowerCase(Locale.US)))
+                return cleartext.createRequest(uri, httpMethod);
+            return negotiating.createRequest(uri, httpMethod);
+        }
+    }
+
+    /**
+     * records protocol of the connection each request goes through.
+     */
+    private static class ProtocolRecorder implements Interceptor {
+
+        @NonNull private final ConcurrentMap<String,Protocol> protocols;
+
+        ProtocolRecorder(@NonNull ConcurrentMap<String,Protocol> protocols) {
+            this.protocols = protocols;
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Connection connection = chain.connection();
+            if (connection != null)
+                protocols.put(chain.request().url().host(), connection.protocol());
+            return chain.proceed(chain.request());
+        }
+    }
+
+    /**
+     * builder of {@link MultiplexedConnectionEngine}.
+     */
+    public static class Builder {
+
+        private int maxIdleConnections = 5;
+        private long idleTimeoutMillis = TimeUnit.MINUTES.toMillis(5);
+        private long pingIntervalMillis = 0;
+        private final Set<String> cleartextHosts = new HashSet<>();
+
+        /**
+         * @param maxIdleConnections max idle connections kept in the pool, default 5.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * @param timeout time after which idle connection is evicted, default 5 minutes.
+         * @param unit unit of timeout.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder idleTimeout(long timeout, @NonNull TimeUnit unit) {
+            this.idleTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * HTTP/2 connection is pinged at this interval & closed if pong does not
+           arrive in time, so a dead connection does not stall all requests
+           multiplexed over it.
+         * @param interval ping interval, 0 to disable (default).
+         * @param unit unit of interval.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder pingInterval(long interval, @NonNull TimeUnit unit) {
+            this.pingIntervalMillis = unit.toMillis(interval);
+            return this;
+        }
+
+        /**
+         * speak HTTP/2 without TLS (h2c, prior knowledge) to these hosts over http.
+         * @param hosts hosts known to support cleartext HTTP/2.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder cleartextHttp2(@NonNull String... hosts) {
+            for (String host : hosts)
+                cleartextHosts.add(host.toLowerCase(Locale.US));
+            return this;
+        }
+
+        /**
+         * @return new engine.
+         */
+        @NonNull
+        public MultiplexedConnectionEngine build() {
+            return new MultiplexedConnectionEngine(this);
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequestFactoryWrapper;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * innermost request factory of the client, right above its {@link ConnectionEngine}.
+ * it removes headers which are only read by the client, e.g.
+   {@link HedgingPolicy#IDEMPOTENT_HEADER}, so they are never sent to the server
+   whichever way the request was made.
+ * @version 1.0.0
+ */
+
+class NetworkClientHttpRequestFactory extends AbstractClientHttpRequestFactoryWrapper {
+
+    NetworkClientHttpRequestFactory(@NonNull ClientHttpRequestFactory requestFactory) {
+        super(requestFactory);
+    }
+
+    @Override
+    protected ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod,
+                                              ClientHttpRequestFactory requestFactory) throws IOException {
+        return new NetworkRequest(requestFactory.createRequest(uri, httpMethod));
+    }
+
+    private static class NetworkRequest implements StreamingClientHttpRequest, Cancellable {
+
+        @NonNull private final ClientHttpRequest delegate;
+        @Nullable private StreamingBody streamingBody;
+
+        NetworkRequest(@NonNull ClientHttpRequest delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void setStreamingBody(@NonNull StreamingBody body) {
+            this.streamingBody = body;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            delegate.getHeaders().remove(HedgingPolicy.IDEMPOTENT_HEADER);
+            if (streamingBody != null)
+                StreamingBodies.write(delegate, streamingBody);
+            return delegate.execute();
+        }
+
+        @Override
+        public void cancel() {
+            if (delegate instanceof Cancellable)
+                ((Cancellable) delegate).cancel();
+        }
+    }
+}
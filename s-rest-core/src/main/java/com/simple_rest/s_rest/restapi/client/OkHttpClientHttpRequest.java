@@ -0,0 +1,230 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+
+/**
+ * Http request executed by 'OkHttp' client.
+ * request body is buffered in memory & sent with known content length, unless
+   it is a {@link StreamingBody}, which is written straight to the connection.
+ * like the default request factory, body is only sent for POST & PUT requests.
+ * running request can be aborted using {@link #cancel()}.
+ * request joins {@link RequestContext} bound to the thread which creates it, so
+   it is cancelled with the context & its timeouts are applied.
+ * @version 1.0.0
+ */
+
+class OkHttpClientHttpRequest extends AbstractClientHttpRequest
+        implements StreamingClientHttpRequest, Cancellable {
+
+    private static final long PERMIT_POLL_MILLIS = 50;
+
+    @NonNull private final OkHttpClient client;
+    @NonNull private final URI uri;
+    @NonNull private final HttpMethod method;
+    @Nullable private final Semaphore routePermits;
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+    @Nullable private StreamingBody streamingBody;
+    private volatile Call call;
+    private volatile boolean cancelled;
+    @Nullable private final RequestMetrics metrics = RequestMetrics.current();
+    @Nullable private final RequestContext.Binding binding = RequestContext.current();
+
+    OkHttpClientHttpRequest(@NonNull OkHttpClient client, @NonNull URI uri,
+                            @NonNull HttpMethod method, @Nullable Semaphore routePermits) {
+        this.client = client;
+        this.uri = uri;
+        this.method = method;
+        this.routePermits = routePermits;
+    }
+
+    @Override
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    @Override
+    public URI getURI() {
+        return uri;
+    }
+
+    @Override
+    protected OutputStream getBodyInternal(HttpHeaders headers) throws IOException {
+        return body;
+    }
+
+    @Override
+    public void setStreamingBody(@NonNull StreamingBody body) {
+        this.streamingBody = body;
+    }
+
+    @Override
+    protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+        Request.Builder builder = new Request.Builder().url(uri.toURL());
+        for (Entry<String,List<String>> e : headers.entrySet())
+            for (String value : e.getValue())
+                builder.addHeader(e.getKey(), value);
+        builder.method(method.name(), makeBody(headers));
+        if (metrics != null)
+            builder.tag(RequestMetrics.class, metrics);
+        if (binding != null) {
+            builder.tag(Timeouts.class, binding.timeouts);
+            binding.context.attach(this);
+        }
+
+        try {
+            acquire();
+        } catch (IOException | RuntimeException e) {
+            detach();
+            throw e;
+        }
+        try {
+            call = client.newCall(builder.build());
+            long remaining = binding != null ? binding.remainingNanos() : Long.MAX_VALUE;
+            if (remaining <= 0)
+                throw new InterruptedIOException("timeout");
+            if (remaining != Long.MAX_VALUE)
+                call.timeout().timeout(remaining, TimeUnit.NANOSECONDS);
+            if (cancelled)
+                call.cancel();
+            Response response = call.execute();
+            return new OkHttpClientHttpResponse(response, this);
+        } catch (IOException | RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        Call running = call;
+        if (running != null)
+            running.cancel();
+    }
+
+    /**
+     * free connection slot of the route & leave the context, called once
+       response is closed or request fails.
+     */
+    void release() {
+        if (routePermits != null)
+            routePermits.release();
+        detach();
+    }
+
+    private void detach() {
+        if (binding != null)
+            binding.context.detach(this);
+    }
+
+    @Nullable
+    private RequestBody makeBody(@NonNull HttpHeaders headers) {
+        if (method != HttpMethod.POST && method != HttpMethod.PUT)
+            return null;
+        String contentType = headers.getFirst("Content-Type");
+        MediaType mediaType = contentType != null ? MediaType.parse(contentType) : null;
+        if (streamingBody != null)
+            return new StreamingRequestBody(mediaType, streamingBody);
+        return RequestBody.create(mediaType, body.toByteArray());
+    }
+
+    /**
+     * wait for free connection slot of the route. waiting is given up when
+       request is cancelled or its deadline passes.
+     */
+    private void acquire() throws IOException {
+        if (cancelled)
+            throw new IOException("Canceled");
+        if (routePermits == null)
+            return;
+        try {
+            while (!routePermits.tryAcquire(PERMIT_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (cancelled)
+                    throw new IOException("Canceled");
+                if (binding != null && binding.remainingNanos() <= 0)
+                    throw new InterruptedIOException("timeout");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for connection");
+        }
+    }
+
+    /**
+     * body written from {@link StreamingBody} while request is sent, chunked if
+       its length is unknown.
+     */
+    private static class StreamingRequestBody extends RequestBody {
+
+        @Nullable private final MediaType contentType;
+        @NonNull private final StreamingBody body;
+
+        StreamingRequestBody(@Nullable MediaType contentType, @NonNull StreamingBody body) {
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return contentType;
+        }
+
+        @Override
+        public long contentLength() {
+            return body.getContentLength();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            body.writeTo(sink.outputStream());
+        }
+    }
+}
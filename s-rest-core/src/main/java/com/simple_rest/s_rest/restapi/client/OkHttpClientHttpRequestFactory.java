@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * request factory which executes requests using 'OkHttp' client.
+ * it optionally limits the number of requests running at the same time on
+   one route (scheme, host & port); extra requests wait for a free connection.
+ * @see PooledConnectionEngine
+ * @version 1.0.0
+ */
+
+class OkHttpClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    @NonNull private final OkHttpClient client;
+    private final int maxPerRoute;
+    private final ConcurrentMap<String,Semaphore> routePermits = new ConcurrentHashMap<>();
+
+    /**
+     * @param client configured OkHttp client.
+     * @param maxPerRoute max requests per route, 0 or less for unlimited.
+     */
+    OkHttpClientHttpRequestFactory(@NonNull OkHttpClient client, int maxPerRoute) {
+        this.client = client;
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return new OkHttpClientHttpRequest(client, uri, httpMethod, getPermits(uri));
+    }
+
+    @Nullable
+    private Semaphore getPermits(@NonNull URI uri) {
+        if (maxPerRoute <= 0)
+            return null;
+        String route = uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+        Semaphore permits = routePermits.get(route);
+        if (permits == null) {
+            Semaphore created = new Semaphore(maxPerRoute, true);
+            permits = routePermits.putIfAbsent(route, created);
+            if (permits == null)
+                permits = created;
+        }
+        return permits;
+    }
+
+    @NonNull
+    OkHttpClient getClient() {
+        return client;
+    }
+}
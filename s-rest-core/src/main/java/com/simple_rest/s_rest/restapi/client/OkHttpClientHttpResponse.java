@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Headers;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Http response received by 'OkHttp' client.
+ * closing the response returns its connection to the pool.
+ * @version 1.0.0
+ */
+
+class OkHttpClientHttpResponse implements ClientHttpResponse {
+
+    @NonNull private final Response response;
+    @NonNull private final OkHttpClientHttpRequest request;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private HttpHeaders headers;
+
+    OkHttpClientHttpResponse(@NonNull Response response, @NonNull OkHttpClientHttpRequest request) {
+        this.response = response;
+        this.request = request;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() throws IOException {
+        return HttpStatus.valueOf(response.code());
+    }
+
+    @Override
+    public int getRawStatusCode() throws IOException {
+        return response.code();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return response.message();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        ResponseBody body = response.body();
+        return body != null ? body.byteStream() : new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        if (headers == null) {
+            HttpHeaders httpHeaders = new HttpHeaders();
+            Headers okHeaders = response.headers();
+            for (int i = 0, size = okHeaders.size(); i < size; i++)
+                httpHeaders.add(okHeaders.name(i), okHeaders.value(i));
+            headers = httpHeaders;
+        }
+        return headers;
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true))
+            return;
+        ResponseBody body = response.body();
+        if (body != null)
+            body.close();
+        request.release();
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * connection engine which keeps a pool of keep-alive connections per host.
+ * it is based on 'OkHttp' client.<br>
+ * following properties of the pool can be configured using {@link Builder},
+ * <ul>
+ *     <li>max idle connections kept in the pool.</li>
+ *     <li>max connections used at the same time per route (scheme, host & port).</li>
+ *     <li>idle timeout, after which idle connection is evicted from the pool.</li>
+ *     <li>connection TTL, after which connection is closed once its current
+           exchange completes, no matter how busy it is.</li>
+ * </ul>
+ * it supports timeouts & cancellation of {@link RequestContext}; without
+   timeouts, connect & read time out after 10 seconds ('OkHttp' defaults).
+ * @see RestClient.Builder#connectionEngine(ConnectionEngine)
+ * @version 1.0.0
+ */
+
+public class PooledConnectionEngine implements ConnectionEngine {
+
+    @NonNull private final ConnectionPool connectionPool;
+    @NonNull private final OkHttpClient okHttpClient;
+    @NonNull private final OkHttpClientHttpRequestFactory requestFactory;
+
+    private PooledConnectionEngine(@NonNull Builder builder) {
+        this.connectionPool = new ConnectionPool(builder.maxIdleConnections,
+                builder.idleTimeoutMillis, TimeUnit.MILLISECONDS);
+        OkHttpClient.Builder clientBuilder = newClientBuilder(connectionPool);
+        if (builder.connectionTtlMillis > 0)
+            clientBuilder.addNetworkInterceptor(new ConnectionTtlInterceptor(builder.connectionTtlMillis));
+        this.okHttpClient = clientBuilder.build();
+        this.requestFactory = new OkHttpClientHttpRequestFactory(okHttpClient,
+                builder.maxConnectionsPerRoute);
+    }
+
+    @NonNull
+    @Override
+    public ClientHttpRequestFactory getRequestFactory() {
+        return requestFactory;
+    }
+
+    @Override
+    public void evictIdleConnections() {
+        connectionPool.evictAll();
+    }
+
+    @Override
+    public void shutdown() {
+        okHttpClient.dispatcher().executorService().shutdown();
+        connectionPool.evictAll();
+    }
+
+    /**
+     * @return number of connections (idle & in use) in the pool.
+     */
+    public int getConnectionCount() {
+        return connectionPool.connectionCount();
+    }
+
+    /**
+     * @return number of idle connections in the pool.
+     */
+    public int getIdleConnectionCount() {
+        return connectionPool.idleConnectionCount();
+    }
+
+    /**
+     * @return underlying OkHttp client.
+     */
+    @NonNull
+    public OkHttpClient getOkHttpClient() {
+        return okHttpClient;
+    }
+
+    /**
+     * @param connectionPool pool of connections of the client.
+     * @return OkHttp client builder which applies {@link RequestContext} timeouts &
+               reports connect time to {@link RequestMetrics}.
+     */
+    @NonNull
+    static OkHttpClient.Builder newClientBuilder(@NonNull ConnectionPool connectionPool) {
+        return new OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .addInterceptor(new TimeoutInterceptor())
+                .eventListenerFactory(new ConnectTimingFactory());
+    }
+
+    /**
+     * reports connect time of requests which have {@link RequestMetrics},
+       i.e. requests made by a client with {@link RequestListener}.
+     */
+    private static class ConnectTimingFactory implements EventListener.Factory {
+
+        @Override
+        public EventListener create(Call call) {
+            RequestMetrics metrics = call.request().tag(RequestMetrics.class);
+            return metrics != null ? new ConnectTiming(metrics) : EventListener.NONE;
+        }
+    }
+
+    private static class ConnectTiming extends EventListener {
+
+        @NonNull private final RequestMetrics metrics;
+        private long dnsStart = -1, connectStart = -1;
+
+        ConnectTiming(@NonNull RequestMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            metrics.addConnect(System.nanoTime() - dnsStart);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                               Protocol protocol) {
+            metrics.addConnect(System.nanoTime() - connectStart);
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                                  Protocol protocol, IOException ioe) {
+            metrics.addConnect(System.nanoTime() - connectStart);
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            metrics.connectionReused();
+        }
+    }
+
+    /**
+     * applies connect & read timeouts of {@link RequestContext} of the request.
+     * total deadline is applied to the call itself by the request.
+     */
+    private static class TimeoutInterceptor implements Interceptor {
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Timeouts timeouts = chain.request().tag(Timeouts.class);
+            if (timeouts != null) {
+                if (timeouts.getConnectMillis() >= 0)
+                    chain = chain.withConnectTimeout(toInt(timeouts.getConnectMillis()), TimeUnit.MILLISECONDS);
+                if (timeouts.getReadMillis() >= 0)
+                    chain = chain.withReadTimeout(toInt(timeouts.getReadMillis()), TimeUnit.MILLISECONDS)
+                            .withWriteTimeout(toInt(timeouts.getReadMillis()), TimeUnit.MILLISECONDS);
+            }
+            return chain.proceed(chain.request());
+        }
+
+        private static int toInt(long millis) {
+            return (int) Math.min(millis, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * asks server to close the connection once it has been open longer than TTL,
+       so it is not reused for further requests.
+     */
+    private static class ConnectionTtlInterceptor implements Interceptor {
+
+        private final long ttlMillis;
+        private final Map<Connection,Long> openedAt =
+                Collections.synchronizedMap(new WeakHashMap<Connection,Long>());
+
+        ConnectionTtlInterceptor(long ttlMillis) {
+            this.ttlMillis = ttlMillis;
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            Connection connection = chain.connection();
+            if (connection != null) {
+                long now = System.currentTimeMillis();
+                Long opened = openedAt.get(connection);
+                if (opened == null)
+                    openedAt.put(connection, opened = now);
+                if (now - opened >= ttlMillis)
+                    request = request.newBuilder().header("Connection", "close").build();
+            }
+            return chain.proceed(request);
+        }
+    }
+
+    /**
+     * builder of {@link PooledConnectionEngine}.
+     */
+    public static class Builder {
+
+        private int maxIdleConnections = 5;
+        private int maxConnectionsPerRoute = 5;
+        private long idleTimeoutMillis = TimeUnit.MINUTES.toMillis(5);
+        private long connectionTtlMillis = 0;
+
+        /**
+         * @param maxIdleConnections max idle connections kept in the pool, default 5.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * @param maxConnectionsPerRoute max connections used at the same time for
+                  one route, 0 or less for unlimited, default 5.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * @param timeout time after which idle connection is evicted, default 5 minutes.
+         * @param unit unit of timeout.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder idleTimeout(long timeout, @NonNull TimeUnit unit) {
+            this.idleTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * @param ttl max lifetime of a connection, 0 or less for unlimited (default).
+         * @param unit unit of ttl.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder connectionTtl(long ttl, @NonNull TimeUnit unit) {
+            this.connectionTtlMillis = unit.toMillis(ttl);
+            return this;
+        }
+
+        /**
+         * @return new engine.
+         */
+        @NonNull
+        public PooledConnectionEngine build() {
+            return new PooledConnectionEngine(this);
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * exception thrown when request is not made because {@link RateLimiter} of its
+   host did not let it pass within max wait time, e.g. while host asked to
+   wait by 'Retry-After'.
+ * it tells callers that the request was held back by the client, not
+   rejected by the server.
+ * @see RateLimiter
+ * @version 1.0.0
+ */
+
+public class RateLimitedException extends RestClientException {
+
+    private static final long serialVersionUID = 1L;
+
+    @NonNull private final String host;
+    private final long retryAfterMillis;
+
+    /**
+     * @param host host whose limit was reached.
+     * @param retryAfterMillis time after which request may pass, 0 if unknown.
+     * @param reason limit which held the request back.
+     */
+    public RateLimitedException(@NonNull String host, long retryAfterMillis, @NonNull String reason) {
+        super("request to host " + host + " is rate limited (" + reason + ")"
+                + (retryAfterMillis > 0 ? ", retry after " + retryAfterMillis + " ms" : ""));
+        this.host = host;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return host whose limit was reached.
+     */
+    @NonNull
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @return time in millis after which request may pass, 0 if unknown.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * per host client side rate limiter, so a burst of requests does not tip
+   the host over.
+ * each host has two limits, request waits until both let it pass,
+ * <ul>
+ *     <li>rate: token bucket of 'permitsPerSecond' with capacity of 'burst',
+           disabled by default.</li>
+ *     <li>concurrency: max requests in flight, adapted by AIMD (additive
+           increase, multiplicative decrease). limit grows by 1 per round of
+           successful requests which used it, & is multiplied by 'backoffRatio'
+           when host is overloaded: 429 or 503 status, timeout, or latency
+           inflation (short term average latency above 'latencyTolerance' times
+           long term average).</li>
+ * </ul>
+ * 'Retry-After' of 429 & 503 responses pauses the host till the given time.<br>
+ * request which can not pass within 'maxWait' fails with {@link RateLimitedException},
+   request waiting for a permit still observes cancellation & deadline of its
+   {@link RequestContext}.<br>
+ * request is in flight until its response is closed, i.e. its body is read.
+ * @see RestClient.Builder#rateLimiter(RateLimiter)
+ * @version 1.0.0
+ */
+
+public class RateLimiter {
+
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    /** samples needed before latency inflation is judged. */
+    private static final int LATENCY_WARM_UP = 20;
+
+    static final int SUCCESS = 0, OVERLOAD = 1, IGNORED = 2;
+
+    private final double permitsPerSecond;
+    private final double burst;
+    private final int initialLimit, minLimit, maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final long maxWaitNanos;
+
+    private final ConcurrentMap<String,HostLimit> limits = new ConcurrentHashMap<>();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private RateLimiter(@NonNull Builder builder) {
+        this.permitsPerSecond = builder.permitsPerSecond;
+        this.burst = Math.max(1, builder.burst);
+        this.minLimit = Math.max(1, builder.minLimit);
+        this.maxLimit = Math.max(minLimit, builder.maxLimit);
+        this.initialLimit = Math.min(maxLimit, Math.max(minLimit, builder.initialLimit));
+        this.backoffRatio = builder.backoffRatio;
+        this.latencyTolerance = builder.latencyTolerance;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(builder.maxWaitMillis);
+    }
+
+    /**
+     * @param host host.
+     * @return current concurrency limit of the host.
+     */
+    public int getLimit(@NonNull String host) {
+        HostLimit limit = limits.get(host);
+        return limit != null ? limit.limit() : initialLimit;
+    }
+
+    /**
+     * @param host host.
+     * @return number of requests of the host in flight.
+     */
+    public int getInFlight(@NonNull String host) {
+        HostLimit limit = limits.get(host);
+        return limit != null ? limit.inFlight() : 0;
+    }
+
+    /**
+     * @param host host.
+     * @return millis for which host is paused by 'Retry-After', 0 if it is not paused.
+     */
+    public long getPausedMillis(@NonNull String host) {
+        HostLimit limit = limits.get(host);
+        return limit != null ? TimeUnit.NANOSECONDS.toMillis(limit.pausedNanos(System.nanoTime())) : 0;
+    }
+
+    /**
+     * @return snapshot of concurrency limits of all hosts seen by this limiter.
+     */
+    @NonNull
+    public Map<String,Integer> getLimits() {
+        Map<String,Integer> snapshot = new HashMap<>();
+        for (Map.Entry<String,HostLimit> e : limits.entrySet())
+            snapshot.put(e.getKey(), e.getValue().limit());
+        return snapshot;
+    }
+
+    /**
+     * @return number of responses which told that host is overloaded (429, 503
+               or timeout), each of them may have reduced limit of its host.
+     */
+    public long getThrottledCount() {
+        return throttled.get();
+    }
+
+    /**
+     * @return number of requests failed with {@link RateLimitedException}.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * forget limits of the host, it starts again from initial limit.
+     * @param host host.
+     */
+    public void reset(@NonNull String host) {
+        limits.remove(host);
+    }
+
+    @NonNull
+    HostLimit limit(@NonNull String host) {
+        HostLimit limit = limits.get(host);
+        if (limit == null) {
+            HostLimit created = new HostLimit(host);
+            limit = limits.putIfAbsent(host, created);
+            if (limit == null)
+                limit = created;
+        }
+        return limit;
+    }
+
+    /**
+     * @param retryAfter value of 'Retry-After' header, seconds or Http date.
+     * @param now current time in millis.
+     * @return delay in millis, 0 if header is missing or invalid.
+     */
+    static long parseRetryAfter(@Nullable String retryAfter, long now) {
+        if (retryAfter == null || retryAfter.isEmpty())
+            return 0;
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            try {
+                return Math.max(0, format.parse(retryAfter.trim()).getTime() - now);
+            } catch (ParseException ignored) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * limits of one host.
+     */
+    class HostLimit {
+
+        @NonNull private final String host;
+        private double limit = initialLimit;
+        private int inFlight;
+        private double tokens = burst;
+        private long refilledAt = System.nanoTime();
+        private long pausedUntil = refilledAt;
+        private long decreasedAt = refilledAt;
+        private double shortLatency, longLatency;
+        private int samples;
+
+        HostLimit(@NonNull String host) {
+            this.host = host;
+        }
+
+        synchronized int limit() {
+            return (int) limit;
+        }
+
+        synchronized int inFlight() {
+            return inFlight;
+        }
+
+        synchronized long pausedNanos(long now) {
+            return Math.max(0, pausedUntil - now);
+        }
+
+        /**
+         * wait till request may pass & count it in flight.
+         * @return true if request uses at least half of concurrency limit, so
+                   its success may raise the limit.
+         * @throws RateLimitedException if request can not pass within max wait.
+         * @throws IOException if request is cancelled or its deadline passes while waiting.
+         */
+        synchronized boolean acquire(@Nullable RequestContext.Binding binding) throws IOException {
+            long start = System.nanoTime();
+            while (true) {
+                long now = System.nanoTime();
+                long waitNanos;
+                String reason;
+                if (pausedUntil - now > 0) {
+                    waitNanos = pausedUntil - now;
+                    reason = "paused by Retry-After";
+                } else if (inFlight >= (int) limit) {
+                    waitNanos = -1;
+                    reason = "concurrency limit " + (int) limit;
+                } else if (permitsPerSecond > 0 && (waitNanos = takeToken(now)) > 0) {
+                    reason = "rate " + permitsPerSecond + "/s";
+                } else {
+                    inFlight++;
+                    return inFlight * 2 >= (int) limit;
+                }
+                long waited = now - start;
+                if (waited >= maxWaitNanos || (waitNanos > 0 && waited + waitNanos > maxWaitNanos)) {
+                    rejected.incrementAndGet();
+                    throw new RateLimitedException(host, TimeUnit.NANOSECONDS.toMillis(Math.max(0, waitNanos)),
+                            reason);
+                }
+                if (binding != null) {
+                    if (binding.context.isCancelled())
+                        throw new IOException("Canceled");
+                    if (binding.remainingNanos() <= 0)
+                        throw new InterruptedIOException("timeout");
+                }
+                long sleep = Math.min(POLL_NANOS, maxWaitNanos - waited);
+                if (waitNanos > 0)
+                    sleep = Math.min(sleep, waitNanos);
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, Math.max(1, sleep));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while waiting for rate limiter");
+                }
+            }
+        }
+
+        /**
+         * @return 0 if token is taken, otherwise nanos till next token.
+         */
+        private long takeToken(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerSecond / 1e9);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) ((1 - tokens) / permitsPerSecond * 1e9) + 1;
+        }
+
+        /**
+         * record outcome of request & take it out of flight.
+         * @param outcome SUCCESS, OVERLOAD or IGNORED.
+         * @param startNanos time when request passed the limiter.
+         * @param latencyNanos time till response headers.
+         * @param saturated value returned by acquire.
+         * @param retryAfterMillis pause asked by host, 0 for none.
+         */
+        synchronized void release(int outcome, long startNanos, long latencyNanos, boolean saturated,
+                                  long retryAfterMillis) {
+            inFlight--;
+            long now = System.nanoTime();
+            if (outcome == OVERLOAD) {
+                throttled.incrementAndGet();
+                decrease(startNanos, now);
+                if (retryAfterMillis > 0)
+                    pausedUntil = Math.max(pausedUntil - now > 0 ? pausedUntil : now,
+                            now + TimeUnit.MILLISECONDS.toNanos(retryAfterMillis));
+            } else if (outcome == SUCCESS) {
+                samples++;
+                if (samples == 1) {
+                    shortLatency = longLatency = latencyNanos;
+                } else {
+                    shortLatency += (latencyNanos - shortLatency) / 8;
+                    longLatency += (latencyNanos - longLatency) / 128;
+                }
+                if (latencyTolerance > 0 && samples >= LATENCY_WARM_UP
+                        && shortLatency > longLatency * latencyTolerance)
+                    decrease(startNanos, now);
+                else if (saturated)
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            notifyAll();
+        }
+
+        /**
+         * reduce the limit, once for requests which were in flight together.
+         */
+        private void decrease(long startNanos, long now) {
+            if (startNanos - decreasedAt < 0)
+                return;
+            limit = Math.max(minLimit, limit * backoffRatio);
+            decreasedAt = now;
+        }
+    }
+
+    /**
+     * builder of {@link RateLimiter}.
+     */
+    public static class Builder {
+
+        private double permitsPerSecond;
+        private int burst = 1;
+        private int initialLimit = 10;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private double backoffRatio = 0.5;
+        private double latencyTolerance = 2;
+        private long maxWaitMillis = TimeUnit.SECONDS.toMillis(30);
+
+        /**
+         * @param permitsPerSecond max requests per second per host, 0 or less for
+                  unlimited (default).
+         * @param burst requests which may start at once after idle time, default 1.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder rate(double permitsPerSecond, int burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * @param initialLimit concurrency limit of a new host, default 10.
+         * @param minLimit min concurrency limit, default 1.
+         * @param maxLimit max concurrency limit, default 200.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder concurrency(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * @param backoffRatio factor by which concurrency limit is multiplied when
+                  host is overloaded, between 0 & 1, default 0.5.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder backoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * @param latencyTolerance ratio of short term to long term average latency
+                  above which host is considered overloaded, default 2, 0 or less
+                  to ignore latency.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder latencyTolerance(double latencyTolerance) {
+            this.latencyTolerance = latencyTolerance;
+            return this;
+        }
+
+        /**
+         * @param maxWait max time a request waits for the limiter, default 30 seconds.
+         * @param unit unit of maxWait.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder maxWait(long maxWait, @NonNull TimeUnit unit) {
+            this.maxWaitMillis = unit.toMillis(maxWait);
+            return this;
+        }
+
+        /**
+         * @return new rate limiter.
+         */
+        @NonNull
+        public RateLimiter build() {
+            return new RateLimiter(this);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AbstractClientHttpRequestFactoryWrapper;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * request factory which passes requests through {@link RateLimiter} of their host.
+ * @version 1.0.0
+ */
+
+class RateLimitingClientHttpRequestFactory extends AbstractClientHttpRequestFactoryWrapper {
+
+    @NonNull private final RateLimiter limiter;
+
+    RateLimitingClientHttpRequestFactory(@NonNull ClientHttpRequestFactory requestFactory,
+                                         @NonNull RateLimiter limiter) {
+        super(requestFactory);
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod,
+                                              ClientHttpRequestFactory requestFactory) throws IOException {
+        return new LimitedRequest(requestFactory.createRequest(uri, httpMethod));
+    }
+
+    private class LimitedRequest implements StreamingClientHttpRequest {
+
+        @NonNull private final ClientHttpRequest delegate;
+        @Nullable private StreamingBody streamingBody;
+
+        LimitedRequest(@NonNull ClientHttpRequest delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void setStreamingBody(@NonNull StreamingBody body) {
+            this.streamingBody = body;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            if (streamingBody != null)
+                StreamingBodies.write(delegate, streamingBody);
+            String host = getURI().getHost() != null ? getURI().getHost() : "";
+            RateLimiter.HostLimit limit = limiter.limit(host);
+            boolean saturated = limit.acquire(RequestContext.current());
+            long start = System.nanoTime();
+            ClientHttpResponse response;
+            try {
+                response = delegate.execute();
+            } catch (InterruptedIOException e) {
+                RequestContext.Binding binding = RequestContext.current();
+                boolean cancelled = binding != null && binding.context.isCancelled();
+                limit.release(cancelled ? RateLimiter.IGNORED : RateLimiter.OVERLOAD, start,
+                        System.nanoTime() - start, saturated, 0);
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                limit.release(RateLimiter.IGNORED, start, System.nanoTime() - start, saturated, 0);
+                throw e;
+            }
+            long latency = System.nanoTime() - start;
+            int status;
+            try {
+                status = response.getRawStatusCode();
+            } catch (IOException | RuntimeException e) {
+                limit.release(RateLimiter.IGNORED, start, latency, saturated, 0);
+                response.close();
+                throw e;
+            }
+            if (status == 429 || status == 503)
+                return new LimitedResponse(response, limit, RateLimiter.OVERLOAD, start, latency, saturated,
+                        RateLimiter.parseRetryAfter(response.getHeaders().getFirst("Retry-After"),
+                                System.currentTimeMillis()));
+            return new LimitedResponse(response, limit, RateLimiter.SUCCESS, start, latency, saturated, 0);
+        }
+    }
+
+    /**
+     * response which keeps its request in flight till it is closed.
+     */
+    private static class LimitedResponse implements ClientHttpResponse {
+
+        @NonNull private final ClientHttpResponse delegate;
+        @NonNull private final RateLimiter.HostLimit limit;
+        private final int outcome;
+        private final long start, latency, retryAfterMillis;
+        private final boolean saturated;
+        private boolean closed;
+
+        LimitedResponse(@NonNull ClientHttpResponse delegate, @NonNull RateLimiter.HostLimit limit,
+                        int outcome, long start, long latency, boolean saturated, long retryAfterMillis) {
+            this.delegate = delegate;
+            this.limit = limit;
+            this.outcome = outcome;
+            this.start = start;
+            this.latency = latency;
+            this.saturated = saturated;
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return delegate.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed)
+                    return;
+                closed = true;
+            }
+            try {
+                delegate.close();
+            } finally {
+                limit.release(outcome, start, latency, saturated, retryAfterMillis);
+            }
+        }
+    }
+}
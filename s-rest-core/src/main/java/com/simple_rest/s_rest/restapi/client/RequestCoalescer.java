@@ -0,0 +1,262 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.io.InterruptedIOException;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * this class coalesces identical idempotent requests which are in flight at the
+   same time into a single network call (single-flight).
+ * first caller makes the call, callers arriving while it runs wait for it &
+   receive the same result, or the same exception.<br>
+ * each waiter waits within its own {@link RequestContext}, so its cancel &
+   deadline end its wait. if the first call is cancelled or times out, waiters
+   which still have time make the call again.<br>
+ * requests are identical when method, url, all request headers (which covers
+   the headers named in any 'Vary' response) & expected response type are equal.
+ * <br><br>
+ * Note:- waiters share the same response object, so it must be treated as read only.
+ * @see RestClient.Builder#coalesceRequests(boolean)
+ * @version 1.0.0
+ */
+
+public class RequestCoalescer {
+
+    private final ConcurrentMap<String,Flight<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    @Nullable private final Timeouts defaults;
+
+    /**
+     * make a coalescer whose waiters have no deadline unless their context has one.
+     */
+    public RequestCoalescer() {
+        this(null);
+    }
+
+    /**
+     * @param defaults timeouts of the client, they complete timeouts of contexts of waiters.
+     */
+    RequestCoalescer(@Nullable Timeouts defaults) {
+        this.defaults = defaults;
+    }
+
+    /**
+     * @param meth http method.
+     * @return true if requests of the method can be coalesced.
+     */
+    public static boolean canCoalesce(@NonNull HttpMethod meth) {
+        return meth == HttpMethod.GET || meth == HttpMethod.HEAD;
+    }
+
+    /**
+     * run the call, or wait for identical call already in flight.
+     * @param meth http method.
+     * @param url url.
+     * @param headers request headers.
+     * @param type expected response type.
+     * @param call call making the request.
+     * @param <V> result type.
+     * @return result of the call.
+     * @throws Exception exception thrown by the call.
+     */
+    public <V> V execute(@NonNull HttpMethod meth, @NonNull String url, @NonNull HttpHeaders headers,
+                         @NonNull Class<?> type, @NonNull Callable<V> call) throws Exception {
+        return execute(meth, url, headers, type, null, call);
+    }
+
+    /**
+     * run the call, or wait for identical call already in flight as long as
+       the context allows.
+     * @param meth http method.
+     * @param url url.
+     * @param headers request headers.
+     * @param type expected response type.
+     * @param context context of the caller, null for none.
+     * @param call call making the request.
+     * @param <V> result type.
+     * @return result of the call.
+     * @throws RequestCancelledException if context is cancelled while waiting.
+     * @throws RequestTimeoutException if deadline of the context passes while waiting.
+     * @throws Exception exception thrown by the call.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(@NonNull HttpMethod meth, @NonNull String url, @NonNull HttpHeaders headers,
+                         @NonNull Class<?> type, @Nullable RequestContext context,
+                         @NonNull Callable<V> call) throws Exception {
+        String key = keyOf(meth, url, headers, type);
+        while (true) {
+            Flight<V> flight = new Flight<>(call);
+            Flight<?> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                executed.incrementAndGet();
+                try {
+                    flight.run();
+                } finally {
+                    inFlight.remove(key, flight);
+                }
+                return unwrap(flight);
+            }
+            coalesced.incrementAndGet();
+            if (context == null)
+                return (V) unwrap(existing);
+            String request = meth + " request for \"" + url + "\"";
+            await(existing, context, request);
+            try {
+                return (V) unwrap(existing);
+            } catch (RequestCancelledException | RequestTimeoutException e) {
+                // first call was aborted by its own caller, this caller still has time
+                inFlight.remove(key, existing);
+            }
+        }
+    }
+
+    /**
+     * wait till the flight is done, or the context is cancelled or its deadline passes.
+     */
+    private void await(@NonNull Flight<?> flight, @NonNull RequestContext context,
+                       @NonNull String request) throws InterruptedException {
+        RequestContext.Binding previous = RequestContext.bind(context, defaults);
+        Cancellable wakeUp = flight.wakeUp();
+        try {
+            RequestContext.Binding binding = RequestContext.current();
+            context.attach(wakeUp);
+            synchronized (flight) {
+                while (!flight.isDone()) {
+                    if (context.isCancelled())
+                        throw new RequestCancelledException(request + " cancelled",
+                                new InterruptedIOException("Canceled"));
+                    long remaining = binding.remainingNanos();
+                    if (remaining <= 0)
+                        throw new RequestTimeoutException(request + " timed out",
+                                new InterruptedIOException("timeout"));
+                    TimeUnit.NANOSECONDS.timedWait(flight, remaining);
+                }
+            }
+        } finally {
+            context.detach(wakeUp);
+            RequestContext.restore(previous);
+        }
+    }
+
+    private static <V> V unwrap(@NonNull Flight<V> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception)
+                throw (Exception) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw e;
+        }
+    }
+
+    @NonNull
+    private static String keyOf(@NonNull HttpMethod meth, @NonNull String url,
+                                @NonNull HttpHeaders headers, @NonNull Class<?> type) {
+        StringBuilder key = new StringBuilder(url.length() + 64);
+        key.append(meth.name()).append(' ').append(url).append('\n').append(type.getName());
+        if (!headers.isEmpty()) {
+            Map<String,List<String>> sorted = new TreeMap<>();
+            for (Map.Entry<String,List<String>> e : headers.entrySet())
+                sorted.put(e.getKey().toLowerCase(Locale.US), e.getValue());
+            for (Map.Entry<String,List<String>> e : sorted.entrySet())
+                key.append('\n').append(e.getKey()).append(':').append(e.getValue());
+        }
+        return key.toString();
+    }
+
+    /**
+     * call in flight, it wakes its waiters when it is done.
+     */
+    private static class Flight<V> extends FutureTask<V> {
+
+        Flight(@NonNull Callable<V> call) {
+            super(call);
+        }
+
+        @Override
+        protected void done() {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+
+        /**
+         * @return handle which wakes waiters, so they see cancel of their context.
+         */
+        @NonNull
+        Cancellable wakeUp() {
+            return new Cancellable() {
+                @Override
+                public void cancel() {
+                    synchronized (Flight.this) {
+                        Flight.this.notifyAll();
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * @return number of calls which went to network.
+     */
+    public long getExecutedCount() {
+        return executed.get();
+    }
+
+    /**
+     * @return number of calls which were served by identical call in flight.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return number of distinct calls in flight at the moment.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
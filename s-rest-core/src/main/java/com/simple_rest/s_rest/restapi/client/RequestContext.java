@@ -0,0 +1,220 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * handle of requests made in it, through which they get their timeouts & are cancelled.
+ * {@link #cancel()} aborts every request of the context which is in flight,
+   closing its connection, & fails requests started in it afterwards. aborted
+   request fails with {@link RequestCancelledException}.<br>
+ * total deadline of the timeouts counts from the moment context is made, so
+   all requests of one context share it.<br>
+ * requests are made in a context using
+   {@link RestClient#exchange(String, org.springframework.http.HttpMethod,
+   org.springframework.http.HttpEntity, Class, RequestContext)}; 'RequestHandler'
+   & 'AsyncRequestHandler' make a context for every request.<br>
+ * connection engine must support cancellation & timeouts, {@link PooledConnectionEngine} does.
+ * @see Timeouts
+ * @version 1.0.0
+ */
+
+public class RequestContext {
+
+    private static final ThreadLocal<Binding> CURRENT = new ThreadLocal<>();
+
+    @Nullable private final Timeouts timeouts;
+    private final long startNanos = System.nanoTime();
+    private final List<Cancellable> calls = new ArrayList<>(2);
+    private boolean cancelled;
+
+    /**
+     * make a context which uses timeouts of the client.
+     */
+    public RequestContext() {
+        this(null);
+    }
+
+    /**
+     * @param timeouts timeouts of requests made in this context, timeouts not
+              set here fall back to timeouts of the client. null for none.
+     */
+    public RequestContext(@Nullable Timeouts timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * abort all requests of this context & fail requests started in it later.
+     * it can be called from any thread.
+     */
+    public void cancel() {
+        List<Cancellable> running;
+        synchronized (this) {
+            if (cancelled)
+                return;
+            cancelled = true;
+            running = new ArrayList<>(calls);
+            calls.clear();
+        }
+        for (Cancellable call : running)
+            call.cancel();
+    }
+
+    /**
+     * @return true if context is cancelled.
+     */
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return timeouts of this context, null if it uses timeouts of the client.
+     */
+    @Nullable
+    public Timeouts getTimeouts() {
+        return timeouts;
+    }
+
+    void attach(@NonNull Cancellable call) {
+        synchronized (this) {
+            if (!cancelled) {
+                calls.add(call);
+                return;
+            }
+        }
+        call.cancel();
+    }
+
+    synchronized void detach(@NonNull Cancellable call) {
+        calls.remove(call);
+    }
+
+    /**
+     * @return context bound to this thread with its effective timeouts, null if none.
+     */
+    @Nullable
+    static Binding current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return true if context bound to this thread is cancelled, e.g. so a
+               failed request is not answered by a fallback.
+     */
+    public static boolean isCurrentCancelled() {
+        Binding binding = CURRENT.get();
+        return binding != null && binding.context.isCancelled();
+    }
+
+    /**
+     * bind a context to this thread, so requests created on it join the context.
+     * @param context context.
+     * @param defaults timeouts of the client, null for none.
+     * @return previous binding, which must be restored.
+     */
+    @Nullable
+    static Binding bind(@NonNull RequestContext context, @Nullable Timeouts defaults) {
+        Binding previous = CURRENT.get();
+        Timeouts effective = context.timeouts != null ? context.timeouts.withDefaults(defaults) : defaults;
+        CURRENT.set(new Binding(context, effective != null ? effective : Timeouts.DEFAULT));
+        return previous;
+    }
+
+    static void restore(@Nullable Binding previous) {
+        if (previous != null)
+            CURRENT.set(previous);
+        else
+            CURRENT.remove();
+    }
+
+    /**
+     * turn I/O error of a request made in this context into
+       {@link RequestCancelledException} or {@link RequestTimeoutException} if
+       request was cancelled or timed out.
+     * it is useful for errors raised while response body is read, after
+       request has returned.
+     * @param e I/O error.
+     * @param request description of the request, e.g. method & url.
+     * @return exception to throw instead, null if request failed for other reason.
+     */
+    @Nullable
+    public ResourceAccessException abortError(@NonNull IOException e, @NonNull String request) {
+        if (isCancelled())
+            return new RequestCancelledException(request + " cancelled", e);
+        return timeoutError(e, request);
+    }
+
+    /**
+     * {@link #abortError(IOException, String)} of context bound to this thread.
+     */
+    @Nullable
+    static ResourceAccessException currentAbortError(@NonNull IOException e, @NonNull String request) {
+        Binding binding = CURRENT.get();
+        return binding != null ? binding.context.abortError(e, request) : timeoutError(e, request);
+    }
+
+    @Nullable
+    private static ResourceAccessException timeoutError(@NonNull IOException e, @NonNull String request) {
+        if (e instanceof SocketTimeoutException
+                || (e instanceof InterruptedIOException && "timeout".equals(e.getMessage())))
+            return new RequestTimeoutException(request + " timed out: " + e.getMessage(), e);
+        return null;
+    }
+
+    /**
+     * context bound to a thread, with timeouts completed from the client.
+     */
+    static final class Binding {
+
+        @NonNull final RequestContext context;
+        @NonNull final Timeouts timeouts;
+
+        Binding(@NonNull RequestContext context, @NonNull Timeouts timeouts) {
+            this.context = context;
+            this.timeouts = timeouts;
+        }
+
+        /**
+         * @return nanos left till total deadline, Long.MAX_VALUE if there is no deadline.
+         */
+        long remainingNanos() {
+            long total = timeouts.getTotalMillis();
+            if (total <= 0)
+                return Long.MAX_VALUE;
+            return context.startNanos + TimeUnit.MILLISECONDS.toNanos(total) - System.nanoTime();
+        }
+    }
+}
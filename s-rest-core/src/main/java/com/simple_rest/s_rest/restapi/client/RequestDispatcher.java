@@ -0,0 +1,318 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * this class runs requests on a bounded pool of worker threads owned by the library.
+ * it limits number of requests running at the same time globally & per host.
+ * requests which can not run yet wait in queue ordered by {@link Priority},
+   requests of same priority run in submission order.<br>
+ * queue depth & other counters can be read at any time to monitor the dispatcher.
+ * <br><br>
+ * 'SimpleRequest' & 'ExtendedRequest' submit to dispatcher of their client by
+   their 'submit' method, {@link #executor(String, Priority)} can be used with
+   'executeOnExecutor' of any AsyncTask.
+ * @see RestClient#getDispatcher()
+ * @version 1.0.0
+ */
+
+public class RequestDispatcher {
+
+    /**
+     * priority of a request waiting in queue.
+     */
+    public enum Priority {
+        /** request whose result is waited by user. */
+        USER_VISIBLE,
+        /** default priority. */
+        NORMAL,
+        /** background work like sync & prefetch. */
+        BACKGROUND
+    }
+
+    private static final ThreadLocal<long[]> QUEUE_WAIT = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[] { -1 };
+        }
+    };
+
+    private final int maxRequests;
+    private final int maxRequestsPerHost;
+    @NonNull private final ThreadPoolExecutor executor;
+
+    private final Map<Priority,ArrayDeque<Call>> queues = new EnumMap<>(Priority.class);
+    private final Map<String,Integer> runningPerHost = new HashMap<>();
+    private int queued;
+    private int running;
+    private int maxQueueDepth;
+    private long submitted;
+    private long completed;
+
+    /**
+     * make a dispatcher with 64 requests at a time & 5 per host.
+     */
+    public RequestDispatcher() {
+        this(64, 5);
+    }
+
+    /**
+     * @param maxRequests max requests running at the same time, also the number
+              of worker threads.
+     * @param maxRequestsPerHost max requests running at the same time for one host.
+     */
+    public RequestDispatcher(int maxRequests, int maxRequestsPerHost) {
+        if (maxRequests < 1 || maxRequestsPerHost < 1)
+            throw new IllegalArgumentException("limits must be positive");
+        this.maxRequests = maxRequests;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        for (Priority p : Priority.values())
+            queues.put(p, new ArrayDeque<Call>());
+        executor = new ThreadPoolExecutor(maxRequests, maxRequests, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new WorkerFactory());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * submit a task to be run when global & host limits allow.
+     * @param host host the task connects to, see {@link #hostOf(String)}.
+     * @param priority priority in queue.
+     * @param task task to run.
+     * @param <V> result type.
+     * @return future of the result.
+     */
+    @NonNull
+    public <V> Future<V> submit(@NonNull String host, @NonNull Priority priority,
+                                @NonNull Callable<V> task) {
+        FutureTask<V> future = new FutureTask<>(task);
+        enqueue(new Call(host, future), priority);
+        return future;
+    }
+
+    /**
+     * return executor which submits runnable to this dispatcher with given host &
+       priority. it can be passed to 'AsyncTask.executeOnExecutor'.
+     * @param host host the task connects to.
+     * @param priority priority in queue.
+     * @return executor.
+     */
+    @NonNull
+    public Executor executor(@NonNull final String host, @NonNull final Priority priority) {
+        return new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                enqueue(new Call(host, command), priority);
+            }
+        };
+    }
+
+    /**
+     * return host part of the url, it is used as key of per host limit.
+     * @param url url.
+     * @return host or empty string if url is malformed.
+     */
+    @NonNull
+    public static String hostOf(@NonNull String url) {
+        try {
+            String host = new URL(url).getHost();
+            return host != null ? host : "";
+        } catch (MalformedURLException e) {
+            return "";
+        }
+    }
+
+    private synchronized void enqueue(@NonNull Call call, @NonNull Priority priority) {
+        queues.get(priority).addLast(call);
+        queued++;
+        submitted++;
+        promote();
+        if (queued > maxQueueDepth)
+            maxQueueDepth = queued;
+    }
+
+    private synchronized void finished(@NonNull Call call) {
+        running--;
+        Integer hostRunning = runningPerHost.get(call.host);
+        if (hostRunning == null || hostRunning <= 1)
+            runningPerHost.remove(call.host);
+        else
+            runningPerHost.put(call.host, hostRunning - 1);
+        completed++;
+        promote();
+    }
+
+    /**
+     * move calls from queue to worker pool while limits allow, highest priority first.
+     */
+    private void promote() {
+        for (Priority p : Priority.values()) {
+            Iterator<Call> it = queues.get(p).iterator();
+            while (it.hasNext() && running < maxRequests) {
+                Call call = it.next();
+                Integer hostRunning = runningPerHost.get(call.host);
+                int count = hostRunning != null ? hostRunning : 0;
+                if (count >= maxRequestsPerHost)
+                    continue;
+                it.remove();
+                queued--;
+                running++;
+                runningPerHost.put(call.host, count + 1);
+                executor.execute(call);
+            }
+        }
+    }
+
+    /**
+     * @return number of requests waiting in queue.
+     */
+    public synchronized int getQueuedCount() {
+        return queued;
+    }
+
+    /**
+     * @param priority priority.
+     * @return number of requests of given priority waiting in queue.
+     */
+    public synchronized int getQueuedCount(@NonNull Priority priority) {
+        return queues.get(priority).size();
+    }
+
+    /**
+     * @return number of requests running at the moment.
+     */
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    /**
+     * @return largest queue depth seen since this dispatcher was created.
+     */
+    public synchronized int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * @return number of requests submitted since this dispatcher was created.
+     */
+    public synchronized long getSubmittedCount() {
+        return submitted;
+    }
+
+    /**
+     * @return number of requests completed since this dispatcher was created.
+     */
+    public synchronized long getCompletedCount() {
+        return completed;
+    }
+
+    /**
+     * @return max requests running at the same time.
+     */
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    /**
+     * @return max requests running at the same time for one host.
+     */
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    /**
+     * stop worker threads once queued & running requests complete.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * return time the task running on this thread waited in queue, only first
+       request made by the task gets it.
+     * @return queue wait in nanos, -1 if unknown or already taken.
+     */
+    static long takeQueueWait() {
+        long[] slot = QUEUE_WAIT.get();
+        long wait = slot[0];
+        slot[0] = -1;
+        return wait;
+    }
+
+    private class Call implements Runnable {
+
+        @NonNull final String host;
+        @NonNull final Runnable task;
+        final long enqueuedAt = System.nanoTime();
+
+        Call(@NonNull String host, @NonNull Runnable task) {
+            this.host = host;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            long[] queueWait = QUEUE_WAIT.get();
+            queueWait[0] = System.nanoTime() - enqueuedAt;
+            try {
+                task.run();
+            } finally {
+                queueWait[0] = -1;
+                finished(this);
+            }
+        }
+    }
+
+    private static class WorkerFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            Thread thread = new Thread(r, "s-rest-dispatcher-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
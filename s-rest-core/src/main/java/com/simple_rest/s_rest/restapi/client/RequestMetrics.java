@@ -0,0 +1,194 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpMethod;
+
+import java.net.URI;
+
+/**
+ * timings & sizes of one request, filled in by the client as request progresses.
+ * all durations are in nanos,
+ * <ul>
+ *     <li>queue wait: time spent in {@link RequestDispatcher} queue, -1 if request
+           was not made from dispatcher.</li>
+ *     <li>connect: time spent resolving host & opening connection, 0 if pooled
+           connection was reused, -1 if engine does not report it.</li>
+ *     <li>time to first byte: from start of the request till response headers.</li>
+ *     <li>body read: time spent waiting for response body bytes.</li>
+ *     <li>deserialization: time spent parsing body, i.e. time from response
+           headers till response is closed, minus body read.</li>
+ *     <li>total: from start of the request till response is closed.</li>
+ * </ul>
+ * bytes are counted before compression of request & after decompression of response.
+ * @see RequestListener
+ * @version 1.0.0
+ */
+
+public class RequestMetrics {
+
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    @NonNull private final HttpMethod method;
+    @NonNull private final URI uri;
+    final long startNanos = System.nanoTime();
+    long queueWaitNanos = -1;
+    private long connectNanos = -1;
+    long timeToFirstByteNanos = -1;
+    long bodyReadNanos;
+    long deserializationNanos;
+    long totalNanos;
+    long bytesOut;
+    long bytesIn;
+    int status = -1;
+    @Nullable Exception error;
+
+    RequestMetrics(@NonNull HttpMethod method, @NonNull URI uri) {
+        this.method = method;
+        this.uri = uri;
+    }
+
+    /**
+     * @return metrics of request being started or executed on this thread.
+     */
+    @Nullable
+    static RequestMetrics current() {
+        return CURRENT.get();
+    }
+
+    static void setCurrent(@Nullable RequestMetrics metrics) {
+        if (metrics != null)
+            CURRENT.set(metrics);
+        else
+            CURRENT.remove();
+    }
+
+    synchronized void addConnect(long nanos) {
+        connectNanos = Math.max(connectNanos, 0) + nanos;
+    }
+
+    synchronized void connectionReused() {
+        if (connectNanos < 0)
+            connectNanos = 0;
+    }
+
+    /**
+     * @return Http method.
+     */
+    @NonNull
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * @return request uri.
+     */
+    @NonNull
+    public URI getUri() {
+        return uri;
+    }
+
+    /**
+     * @return host of request, empty string if uri has no host.
+     */
+    @NonNull
+    public String getHost() {
+        return uri.getHost() != null ? uri.getHost() : "";
+    }
+
+    /**
+     * @return time spent in dispatcher queue, -1 if unknown.
+     */
+    public long getQueueWaitNanos() {
+        return queueWaitNanos;
+    }
+
+    /**
+     * @return time spent opening connection, -1 if unknown.
+     */
+    public synchronized long getConnectNanos() {
+        return connectNanos;
+    }
+
+    /**
+     * @return time till response headers, -1 if request failed.
+     */
+    public long getTimeToFirstByteNanos() {
+        return timeToFirstByteNanos;
+    }
+
+    /**
+     * @return time spent waiting for response body.
+     */
+    public long getBodyReadNanos() {
+        return bodyReadNanos;
+    }
+
+    /**
+     * @return time spent parsing response body.
+     */
+    public long getDeserializationNanos() {
+        return deserializationNanos;
+    }
+
+    /**
+     * @return total time of request.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return request body bytes.
+     */
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    /**
+     * @return response body bytes read.
+     */
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * @return Http status code, -1 if request failed.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return exception which failed the request, null if response was received.
+     */
+    @Nullable
+    public Exception getError() {
+        return error;
+    }
+}
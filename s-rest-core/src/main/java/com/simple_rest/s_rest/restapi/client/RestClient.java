@@ -0,0 +1,777 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simple_rest.s_rest.restapi.cache.CachingClientHttpRequestFactory;
+import com.simple_rest.s_rest.restapi.cache.ResponseCache;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.xml.SourceHttpMessageConverter;
+import org.springframework.http.converter.xml.XmlAwareFormHttpMessageConverter;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * this class holds the long lived, thread-safe objects used to make Http requests.
+ * it is configured once (using {@link Builder}) & then shared by 'RequestHandler',
+   'SimpleRequest' & 'ExtendedRequest', so message converters, object mapper &
+   jackson's serializer/deserializer caches stay warm across requests.<br>
+ * object of this class must not be modified after it is built.<br>
+ * {@link #getDefault()} returns the client used when no client is specified.<br>
+ * connections are opened & reused by its {@link ConnectionEngine}.<br>
+ * it has no Android dependency, so same client can be used on any JVM.
+ * @see com.simple_rest.s_rest.restapi.request.RequestHandler
+ * @version 1.0.0
+ */
+
+public class RestClient {
+
+    private static volatile RestClient defaultClient;
+
+    @NonNull private final ObjectMapper objectMapper;
+    @NonNull private final JsonCodecCache jsonCodecs;
+    @Nullable private final JsonCodecCache smileCodecs;
+    @NonNull private final List<HttpMessageConverter<?>> messageConverters;
+    @NonNull private final ConnectionEngine connectionEngine;
+    @NonNull private final RequestDispatcher dispatcher;
+    @Nullable private final ResponseCache responseCache;
+    @Nullable private final RequestCoalescer coalescer;
+    @NonNull private final CompressionStats compressionStats;
+    @Nullable private final CircuitBreaker circuitBreaker;
+    @Nullable private final RateLimiter rateLimiter;
+    @Nullable private final HedgingPolicy hedgingPolicy;
+    @Nullable private final HedgingClientHttpRequestFactory hedgingFactory;
+    @Nullable private final RequestListener requestListener;
+    @Nullable private final Timeouts timeouts;
+    private final boolean logRequests;
+    @NonNull private final ClientHttpRequestFactory requestFactory;
+    @NonNull private final ResponseErrorHandler errorHandler = new DefaultResponseErrorHandler();
+    @NonNull private final MessageExchange messageExchange;
+    @NonNull private final RestLogger logger;
+    @NonNull private final Executor callbackExecutor;
+    private volatile RestTemplate restTemplate;
+
+    private RestClient(@NonNull Builder builder) {
+        this.objectMapper = builder.objectMapper != null ? builder.objectMapper : new ObjectMapper();
+
+        List<HttpMessageConverter<?>> converters = new ArrayList<>(builder.messageConverters);
+        // defaults of 'new RestTemplate()' come first, so String & byte[] bodies
+        // are passed as they are & never read or written as Json
+        converters.add(new ByteArrayHttpMessageConverter());
+        converters.add(new StringHttpMessageConverter());
+        converters.add(new ResourceHttpMessageConverter());
+        converters.add(new SourceHttpMessageConverter<>());
+        converters.add(new XmlAwareFormHttpMessageConverter());
+        this.jsonCodecs = new JsonCodecCache(objectMapper);
+        if (builder.smileFormat) {
+            this.smileCodecs = new JsonCodecCache(builder.smileMapper != null ? builder.smileMapper
+                    : SmileHttpMessageConverter.newObjectMapper(objectMapper));
+            converters.add(new SmileHttpMessageConverter(smileCodecs));
+        } else {
+            this.smileCodecs = null;
+        }
+        converters.add(new CachedJacksonHttpMessageConverter(jsonCodecs));
+        this.messageConverters = Collections.unmodifiableList(converters);
+
+        this.connectionEngine = builder.connectionEngine != null ? builder.connectionEngine
+                : new PooledConnectionEngine.Builder().build();
+        this.dispatcher = builder.dispatcher != null ? builder.dispatcher : new RequestDispatcher();
+        this.responseCache = builder.responseCache;
+        this.coalescer = builder.coalesceRequests ? new RequestCoalescer(builder.timeouts) : null;
+        this.circuitBreaker = builder.circuitBreaker;
+        this.hedgingPolicy = builder.hedgingPolicy;
+        ClientHttpRequestFactory networkFactory = new NetworkClientHttpRequestFactory(
+                connectionEngine.getRequestFactory());
+        if (hedgingPolicy != null)
+            networkFactory = hedgingFactory = new HedgingClientHttpRequestFactory(networkFactory, hedgingPolicy);
+        else
+            hedgingFactory = null;
+        if (circuitBreaker != null)
+            networkFactory = new CircuitBreakerClientHttpRequestFactory(networkFactory, circuitBreaker);
+        this.rateLimiter = builder.rateLimiter;
+        if (rateLimiter != null)
+            networkFactory = new RateLimitingClientHttpRequestFactory(networkFactory, rateLimiter);
+        CompressingClientHttpRequestFactory compressing = new CompressingClientHttpRequestFactory(
+                networkFactory, builder.decompressResponses,
+                builder.requestCompressionThreshold);
+        this.compressionStats = compressing.getStats();
+        ClientHttpRequestFactory requestFactory = compressing;
+        if (responseCache != null)
+            requestFactory = new CachingClientHttpRequestFactory(requestFactory, responseCache);
+        this.requestListener = builder.requestListener;
+        if (requestListener != null)
+            requestFactory = new InstrumentingClientHttpRequestFactory(requestFactory, requestListener);
+        this.timeouts = builder.timeouts;
+        this.logRequests = builder.logRequests;
+        this.logger = builder.logger != null ? builder.logger : new JavaUtilLogger();
+        this.callbackExecutor = builder.callbackExecutor != null ? builder.callbackExecutor
+                : new Executor() {
+                    @Override
+                    public void execute(@NonNull Runnable command) {
+                        command.run();
+                    }
+                };
+        this.requestFactory = requestFactory;
+        this.messageExchange = new MessageExchange(requestFactory, messageConverters, errorHandler);
+    }
+
+    /**
+     * return the client shared by all requests which are not given a client explicitly.
+     * it is created with default configuration on first use.
+     * @return default client.
+     */
+    @NonNull
+    public static RestClient getDefault() {
+        RestClient client = defaultClient;
+        if (client == null) {
+            synchronized (RestClient.class) {
+                client = defaultClient;
+                if (client == null)
+                    defaultClient = client = new Builder().build();
+            }
+        }
+        return client;
+    }
+
+    /**
+     * replace the default client.
+     * requests which are already running keep using the old client.
+     * @param client new default client.
+     */
+    public static void setDefault(@NonNull RestClient client) {
+        defaultClient = client;
+    }
+
+    /**
+     * @return object mapper used to parse Json request & response bodies.
+     */
+    @NonNull
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * @return readers & writers of Json bodies cached per type.
+     */
+    @NonNull
+    public JsonCodecCache getJsonCodecs() {
+        return jsonCodecs;
+    }
+
+    /**
+     * @return readers & writers of Smile bodies, null if Smile is not enabled.
+     * @see Builder#smileFormat()
+     */
+    @Nullable
+    public JsonCodecCache getSmileCodecs() {
+        return smileCodecs;
+    }
+
+    /**
+     * @param contentType content type of a response.
+     * @return Smile codecs if response is Smile & Smile is enabled, Json codecs otherwise.
+     */
+    @NonNull
+    public JsonCodecCache codecsFor(@Nullable MediaType contentType) {
+        return smileCodecs != null && contentType != null
+                && SmileHttpMessageConverter.APPLICATION_SMILE.includes(contentType) ? smileCodecs : jsonCodecs;
+    }
+
+    /**
+     * prepare Json (& Smile, if enabled) readers & writers of the types, so
+       first request using them does not pay introspection cost.
+     * it should be called from a background thread, e.g. at application start.
+     * @param types request & response types.
+     */
+    public void warmUp(@NonNull Collection<Class<?>> types) {
+        jsonCodecs.warmUp(types);
+        if (smileCodecs != null)
+            smileCodecs.warmUp(types);
+    }
+
+    /**
+     * prepare Json readers & writers of the types.
+     * @param types request & response types.
+     * @see #warmUp(Collection)
+     */
+    public void warmUp(@NonNull Class<?>... types) {
+        warmUp(Arrays.asList(types));
+    }
+
+    /**
+     * @return unmodifiable list of message converters in the order they are tried.
+     */
+    @NonNull
+    public List<HttpMessageConverter<?>> getMessageConverters() {
+        return messageConverters;
+    }
+
+    /**
+     * @return connection engine through which all requests of this client are made.
+     */
+    @NonNull
+    public ConnectionEngine getConnectionEngine() {
+        return connectionEngine;
+    }
+
+    /**
+     * @return dispatcher on which asynchronous requests of this client run.
+     */
+    @NonNull
+    public RequestDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * @return response cache of this client, null if responses are not cached.
+     */
+    @Nullable
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * @return coalescer of identical in flight requests, null if coalescing is disabled.
+     */
+    @Nullable
+    public RequestCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    /**
+     * @return compressed & uncompressed byte counts of requests made by this client.
+     */
+    @NonNull
+    public CompressionStats getCompressionStats() {
+        return compressionStats;
+    }
+
+    /**
+     * @return circuit breaker of this client, null if it has no circuit breaker.
+     */
+    @Nullable
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return rate limiter of this client, it exposes current limits of hosts.
+               null if it has no rate limiter.
+     */
+    @Nullable
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * @return hedging policy of this client, null if requests are not hedged.
+     */
+    @Nullable
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    /**
+     * @return listener which receives metrics of every request, null if none.
+     */
+    @Nullable
+    public RequestListener getRequestListener() {
+        return requestListener;
+    }
+
+    /**
+     * @return default timeouts of requests of this client, null if engine defaults are used.
+     */
+    @Nullable
+    public Timeouts getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @return true if every request is logged.
+     */
+    public boolean isLoggingRequests() {
+        return logRequests;
+    }
+
+    /**
+     * stop worker threads & close all connections of this client.
+     * client must not be used after it is shut down.
+     */
+    public void shutdown() {
+        dispatcher.shutdown();
+        if (hedgingFactory != null)
+            hedgingFactory.shutdown();
+        connectionEngine.shutdown();
+    }
+
+    /**
+     * make a request & parse its response, like 'RestTemplate.exchange'.
+     * Accept header is set from converters which can read the response type,
+       request body is written by first converter which can write it, or
+       streamed if it is a {@link StreamingBody}.
+     * @param url url, it must not contain uri template variables.
+     * @param meth Http method.
+     * @param request headers & body of request, null for none.
+     * @param type class object of response body, Void.class to ignore body.
+     * @param <T> class type of response body.
+     * @return response entity.
+     * @throws RestClientException if request fails or server returns error status.
+     */
+    @NonNull
+    public <T> ResponseEntity<T> exchange(@NonNull String url, @NonNull HttpMethod meth,
+                                          @Nullable HttpEntity<?> request, @NonNull Class<T> type)
+            throws RestClientException {
+        return exchange(url, meth, request, type, null);
+    }
+
+    /**
+     * make a request in a context & parse its response.
+     * request is aborted when context is cancelled & gets timeouts of the context.
+     * @param url url, it must not contain uri template variables.
+     * @param meth Http method.
+     * @param request headers & body of request, null for none.
+     * @param type class object of response body, Void.class to ignore body.
+     * @param context context of the request, null to use timeouts of this client only.
+     * @param <T> class type of response body.
+     * @return response entity.
+     * @throws RequestCancelledException if context is cancelled.
+     * @throws RequestTimeoutException if request does not complete within its timeouts.
+     * @throws RestClientException if request fails or server returns error status.
+     * @see #exchange(String, HttpMethod, HttpEntity, Class)
+     */
+    @NonNull
+    public <T> ResponseEntity<T> exchange(@NonNull String url, @NonNull HttpMethod meth,
+                                          @Nullable HttpEntity<?> request, @NonNull Class<T> type,
+                                          @Nullable RequestContext context)
+            throws RestClientException {
+        return exchange(new UriTemplate(url).expand(), meth, request, type, context);
+    }
+
+    /**
+     * make a request to an already expanded uri in a context & parse its response.
+     * it skips parsing of the url, e.g. for uri of a {@link
+       com.simple_rest.s_rest.restapi.request.RequestTemplate}.
+     * @param uri uri.
+     * @param meth Http method.
+     * @param request headers & body of request, null for none.
+     * @param type class object of response body, Void.class to ignore body.
+     * @param context context of the request, null to use timeouts of this client only.
+     * @param <T> class type of response body.
+     * @return response entity.
+     * @throws RestClientException if request fails or server returns error status.
+     * @see #exchange(String, HttpMethod, HttpEntity, Class, RequestContext)
+     */
+    @NonNull
+    public <T> ResponseEntity<T> exchange(@NonNull URI uri, @NonNull HttpMethod meth,
+                                          @Nullable HttpEntity<?> request, @NonNull Class<T> type,
+                                          @Nullable RequestContext context)
+            throws RestClientException {
+        if (context == null && timeouts == null)
+            return messageExchange.exchange(uri, meth, request, type);
+        RequestContext.Binding previous = RequestContext.bind(
+                context != null ? context : new RequestContext(), timeouts);
+        try {
+            return messageExchange.exchange(uri, meth, request, type);
+        } finally {
+            RequestContext.restore(previous);
+        }
+    }
+
+    /**
+     * make a request in a context & return its response without reading it.
+     * it is used for responses which are read incrementally; response must be closed.
+     * error status is not handled, see {@link #getErrorHandler()}.
+     * @param uri uri.
+     * @param meth Http method.
+     * @param requestCallback writer of request headers & body, null for none.
+     * @param context context of the request, null to use timeouts of this client only.
+     * @return open response.
+     * @throws IOException if request fails.
+     * @throws RequestCancelledException if context is cancelled.
+     * @throws RequestTimeoutException if response does not arrive within timeouts.
+     */
+    @NonNull
+    public ClientHttpResponse execute(@NonNull URI uri, @NonNull HttpMethod meth,
+                                      @Nullable RequestCallback requestCallback,
+                                      @Nullable RequestContext context) throws IOException {
+        RequestContext.Binding previous = RequestContext.bind(
+                context != null ? context : new RequestContext(), timeouts);
+        try {
+            ClientHttpRequest request = requestFactory.createRequest(uri, meth);
+            if (requestCallback != null)
+                requestCallback.doWithRequest(request);
+            return request.execute();
+        } catch (IOException e) {
+            ResourceAccessException aborted = RequestContext.currentAbortError(e, meth + " request for \""
+                    + uri + "\"");
+            if (aborted != null)
+                throw aborted;
+            throw e;
+        } finally {
+            RequestContext.restore(previous);
+        }
+    }
+
+    /**
+     * @return outermost request factory of this client, requests created by it
+               go through cache, compression & connection engine of the client.
+     */
+    @NonNull
+    public ClientHttpRequestFactory getRequestFactory() {
+        return requestFactory;
+    }
+
+    /**
+     * @return handler which turns error status codes into exceptions.
+     */
+    @NonNull
+    public ResponseErrorHandler getErrorHandler() {
+        return errorHandler;
+    }
+
+    /**
+     * @return logger of this client.
+     */
+    @NonNull
+    public RestLogger getLogger() {
+        return logger;
+    }
+
+    /**
+     * @return executor on which asynchronous callbacks of this client run.
+     */
+    @NonNull
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    /**
+     * return rest template which uses request factory & converters of this client.
+     * it is created on first use & only works on Android, as spring-android's
+       rest template depends on Android classes. the library itself uses
+       {@link #exchange(String, HttpMethod, HttpEntity, Class)}.
+     * @return shared rest template, it must not be reconfigured.
+     */
+    @NonNull
+    public RestTemplate getRestTemplate() {
+        RestTemplate template = restTemplate;
+        if (template == null) {
+            synchronized (this) {
+                template = restTemplate;
+                if (template == null) {
+                    template = new RestTemplate(requestFactory);
+                    template.setMessageConverters(new ArrayList<>(messageConverters));
+                    template.setErrorHandler(errorHandler);
+                    restTemplate = template;
+                }
+            }
+        }
+        return template;
+    }
+
+    /**
+     * builder of {@link RestClient}.
+     * Json & plain text converters are always registered after the converters
+       added here, & Smile converter right before Json converter if enabled.
+     */
+    public static class Builder {
+
+        private ObjectMapper objectMapper;
+        private ConnectionEngine connectionEngine;
+        private RequestDispatcher dispatcher;
+        private ResponseCache responseCache;
+        private boolean coalesceRequests;
+        private boolean decompressResponses = true;
+        private int requestCompressionThreshold = -1;
+        private CircuitBreaker circuitBreaker;
+        private RateLimiter rateLimiter;
+        private HedgingPolicy hedgingPolicy;
+        private RequestListener requestListener;
+        private Timeouts timeouts;
+        private boolean logRequests;
+        private RestLogger logger;
+        private Executor callbackExecutor;
+        private boolean smileFormat;
+        private ObjectMapper smileMapper;
+        private final List<HttpMessageConverter<?>> messageConverters = new ArrayList<>();
+
+        /**
+         * set object mapper used by Json converter.
+         * @param objectMapper configured object mapper.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder objectMapper(@NonNull ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        /**
+         * negotiate Smile, binary form of Json, with the server: Smile is
+           preferred in 'Accept' header & Json response is read if server does
+           not support it. request bodies are sent as Smile only if their
+           'Content-Type' is Smile, e.g. 'HeaderTools.CONTENT_TYPE_SMILE'.
+         * Smile object mapper gets features of the Json object mapper, see
+           {@link SmileHttpMessageConverter#newObjectMapper(ObjectMapper)}.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder smileFormat() {
+            this.smileFormat = true;
+            return this;
+        }
+
+        /**
+         * negotiate Smile using the object mapper, e.g. one with modules.
+         * @param smileMapper object mapper made with 'SmileFactory'.
+         * @return this builder.
+         * @see #smileFormat()
+         */
+        @NonNull
+        public Builder smileFormat(@NonNull ObjectMapper smileMapper) {
+            this.smileFormat = true;
+            this.smileMapper = smileMapper;
+            return this;
+        }
+
+        /**
+         * set connection engine used to open & reuse connections.
+         * by default {@link PooledConnectionEngine} with default configuration is used,
+           {@link MultiplexedConnectionEngine} multiplexes requests over HTTP/2.
+         * @param connectionEngine connection engine.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder connectionEngine(@NonNull ConnectionEngine connectionEngine) {
+            this.connectionEngine = connectionEngine;
+            return this;
+        }
+
+        /**
+         * set dispatcher on which asynchronous requests run.
+         * by default {@link RequestDispatcher} with default limits is used.
+         * @param dispatcher request dispatcher.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder dispatcher(@NonNull RequestDispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+            return this;
+        }
+
+        /**
+         * set cache in which responses of GET requests are stored & revalidated.
+         * by default responses are not cached.
+         * @param responseCache response cache.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder responseCache(@NonNull ResponseCache responseCache) {
+            this.responseCache = responseCache;
+            return this;
+        }
+
+        /**
+         * enable coalescing of identical GET & HEAD requests in flight at the same time.
+         * it is disabled by default, as coalesced callers share the response object.
+         * @param coalesceRequests true to enable.
+         * @return this builder.
+         * @see RequestCoalescer
+         */
+        @NonNull
+        public Builder coalesceRequests(boolean coalesceRequests) {
+            this.coalesceRequests = coalesceRequests;
+            return this;
+        }
+
+        /**
+         * configure compression of requests & responses.
+         * by default compressed responses are accepted & request bodies are
+           compressed only if request has 'Content-Encoding: gzip' header.
+         * @param decompressResponses true to ask for & decode gzip/deflate responses.
+         * @param requestCompressionThreshold min body size in bytes to gzip request
+                  body, negative to disable.
+         * @return this builder.
+         * @see CompressingClientHttpRequestFactory
+         */
+        @NonNull
+        public Builder compression(boolean decompressResponses, int requestCompressionThreshold) {
+            this.decompressResponses = decompressResponses;
+            this.requestCompressionThreshold = requestCompressionThreshold;
+            return this;
+        }
+
+        /**
+         * set circuit breaker which fails requests fast while their host is known bad.
+         * by default there is no circuit breaker.
+         * @param circuitBreaker circuit breaker.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder circuitBreaker(@NonNull CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * set rate limiter which adapts rate & concurrency of requests to what
+           each host can sustain. requests short-circuited by circuit breaker do
+           not change its limits.
+         * by default there is no rate limiter.
+         * @param rateLimiter rate limiter.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder rateLimiter(@NonNull RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * enable hedging of idempotent requests, slow attempt is raced by a duplicate.
+         * by default requests are not hedged.
+         * @param hedgingPolicy hedging policy.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder hedging(@NonNull HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * set listener which receives timings & sizes of every request.
+         * requests are not measured if there is no listener (default).
+         * @param requestListener request listener.
+         * @return this builder.
+         * @see com.simple_rest.s_rest.restapi.metrics.MetricsRecorder
+         */
+        @NonNull
+        public Builder requestListener(@NonNull RequestListener requestListener) {
+            this.requestListener = requestListener;
+            return this;
+        }
+
+        /**
+         * set default timeouts of requests, which requests can override.
+         * by default timeouts of the connection engine are used.
+         * @param timeouts timeouts.
+         * @return this builder.
+         * @see RequestContext
+         */
+        @NonNull
+        public Builder timeouts(@NonNull Timeouts timeouts) {
+            this.timeouts = timeouts;
+            return this;
+        }
+
+        /**
+         * enable info log line of every request. it is disabled by default, so
+           log messages are not built on hot path.
+         * failures are always logged.
+         * @param logRequests true to log every request.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder logRequests(boolean logRequests) {
+            this.logRequests = logRequests;
+            return this;
+        }
+
+        /**
+         * set logger of the client, by default {@link JavaUtilLogger} is used.
+         * @param logger logger.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder logger(@NonNull RestLogger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        /**
+         * set executor on which callbacks of asynchronous requests run, e.g. one
+           posting to main thread of Android application.
+         * by default callbacks run on the thread which completed the request.
+         * @param callbackExecutor executor.
+         * @return this builder.
+         * @see com.simple_rest.s_rest.restapi.request.AsyncRequestHandler
+         */
+        @NonNull
+        public Builder callbackExecutor(@NonNull Executor callbackExecutor) {
+            this.callbackExecutor = callbackExecutor;
+            return this;
+        }
+
+        /**
+         * add a message converter which is tried before default converters.
+         * @param converter message converter.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder messageConverter(@NonNull HttpMessageConverter<?> converter) {
+            messageConverters.add(converter);
+            return this;
+        }
+
+        /**
+         * @return new client.
+         */
+        @NonNull
+        public RestClient build() {
+            return new RestClient(this);
+        }
+    }
+
+}
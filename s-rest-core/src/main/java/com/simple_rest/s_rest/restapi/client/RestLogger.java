@@ -0,0 +1,54 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * logging interface of the library, so it does not depend on a platform logger.
+ * on Android 'AndroidLogger' writes to logcat, elsewhere {@link JavaUtilLogger}
+   (the default) writes to 'java.util.logging'.
+ * @see RestClient.Builder#logger(RestLogger)
+ * @version 1.0.0
+ */
+
+public interface RestLogger {
+
+    /**
+     * log informational message, e.g. a request being made.
+     * @param tag source of the message, usually simple class name.
+     * @param message message.
+     */
+    void info(@NonNull String tag, @NonNull String message);
+
+    /**
+     * log failure.
+     * @param tag source of the message, usually simple class name.
+     * @param message message.
+     * @param error cause of the failure, if any.
+     */
+    void error(@NonNull String tag, @NonNull String message, @Nullable Throwable error);
+}
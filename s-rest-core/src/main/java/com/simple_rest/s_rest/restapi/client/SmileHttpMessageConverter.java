@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+
+/**
+ * message converter of Smile, binary form of Json, for the same POJO classes
+   as Json. Smile bodies are smaller & faster to parse than Json text.
+ * it reads any Smile response, but writes a request body only if its
+   'Content-Type' is Smile (see 'HeaderTools.CONTENT_TYPE_SMILE'), so bodies
+   are still sent as Json to servers which may not understand Smile.
+ * Smile is preferred in 'Accept' header when this converter comes before the
+   Json converter, & Json is read if server does not support Smile.
+ * @see RestClient.Builder#smileFormat()
+ * @version 1.0.0
+ */
+
+public class SmileHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    /**
+     * media type of Smile.
+     */
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    @NonNull private final JsonCodecCache codecs;
+
+    /**
+     * @param codecs codecs of an object mapper made with 'SmileFactory', see
+              {@link #newObjectMapper(ObjectMapper)}.
+     */
+    public SmileHttpMessageConverter(@NonNull JsonCodecCache codecs) {
+        super(APPLICATION_SMILE);
+        this.codecs = codecs;
+    }
+
+    /**
+     * make a Smile object mapper with same features as the Json object mapper.
+     * modules & custom serializers are not copied, a mapper with them must be
+       made by the application.
+     * @param jsonMapper Json object mapper, null for default features.
+     * @return Smile object mapper.
+     */
+    @NonNull
+    public static ObjectMapper newObjectMapper(@Nullable ObjectMapper jsonMapper) {
+        ObjectMapper mapper = new ObjectMapper(new SmileFactory());
+        if (jsonMapper == null)
+            return mapper;
+        for (DeserializationFeature feature : DeserializationFeature.values())
+            mapper.configure(feature, jsonMapper.isEnabled(feature));
+        for (SerializationFeature feature : SerializationFeature.values())
+            mapper.configure(feature, jsonMapper.isEnabled(feature));
+        for (MapperFeature feature : MapperFeature.values())
+            mapper.configure(feature, jsonMapper.isEnabled(feature));
+        mapper.setSerializationInclusion(jsonMapper.getSerializationConfig().getSerializationInclusion());
+        return mapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz != String.class && clazz != byte[].class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return supports(clazz) && (mediaType == null || APPLICATION_SMILE.includes(mediaType));
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return supports(clazz) && mediaType != null && APPLICATION_SMILE.includes(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        try {
+            return codecs.reader(clazz).readValue(inputMessage.getBody());
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotReadableException("Could not read Smile: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        JsonGenerator generator = codecs.getObjectMapper().getFactory().createGenerator(
+                outputMessage.getBody());
+        try {
+            codecs.writer(object.getClass()).writeValue(generator, object);
+            generator.flush();
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotWritableException("Could not write Smile: " + ex.getMessage(), ex);
+        }
+    }
+}
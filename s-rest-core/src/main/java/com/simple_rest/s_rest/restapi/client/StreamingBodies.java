@@ -0,0 +1,204 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * factory of common {@link StreamingBody} implementations.
+ * @version 1.0.0
+ */
+
+public final class StreamingBodies {
+
+    /**
+     * writes Json body incrementally, e.g. one array element at a time.
+     */
+    public interface JsonWriter {
+
+        /**
+         * @param generator generator writing into the connection, it is flushed
+                  & closed after this method returns.
+         * @throws IOException if body can not be written.
+         */
+        void write(@NonNull JsonGenerator generator) throws IOException;
+    }
+
+    private StreamingBodies() {
+    }
+
+    /**
+     * @param file file, it is read when request is sent.
+     * @return body with content of the file, sent with its length.
+     */
+    @NonNull
+    public static StreamingBody fromFile(@NonNull final File file) {
+        return new StreamingBody() {
+            @Override
+            public MediaType getContentType() {
+                return MediaType.APPLICATION_OCTET_STREAM;
+            }
+
+            @Override
+            public long getContentLength() {
+                return file.length();
+            }
+
+            @Override
+            public void writeTo(@NonNull OutputStream out) throws IOException {
+                InputStream in = new FileInputStream(file);
+                try {
+                    copy(in, out);
+                } finally {
+                    in.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * @param in stream, it is read & closed when request is sent.
+     * @param contentLength number of bytes in the stream, -1 if unknown.
+     * @return body with content of the stream, it can only be written once.
+     */
+    @NonNull
+    public static StreamingBody fromStream(@NonNull final InputStream in, final long contentLength) {
+        final AtomicBoolean written = new AtomicBoolean();
+        return new StreamingBody() {
+            @Override
+            public MediaType getContentType() {
+                return MediaType.APPLICATION_OCTET_STREAM;
+            }
+
+            @Override
+            public long getContentLength() {
+                return contentLength;
+            }
+
+            @Override
+            public void writeTo(@NonNull OutputStream out) throws IOException {
+                if (!written.compareAndSet(false, true))
+                    throw new IOException("stream body can not be written twice");
+                try {
+                    copy(in, out);
+                } finally {
+                    in.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * @param objectMapper object mapper whose settings are used, e.g.
+              {@link RestClient#getObjectMapper()}.
+     * @param writer writer of the Json body.
+     * @return Json body of unknown length, it is generated while it is sent.
+     */
+    @NonNull
+    public static StreamingBody json(@NonNull final ObjectMapper objectMapper, @NonNull final JsonWriter writer) {
+        return new StreamingBody() {
+            @Override
+            public MediaType getContentType() {
+                return MediaType.APPLICATION_JSON;
+            }
+
+            @Override
+            public long getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public void writeTo(@NonNull OutputStream out) throws IOException {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setCodec(objectMapper);
+                try {
+                    writer.write(generator);
+                } finally {
+                    generator.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * send the body through the request, streaming it if request supports it &
+       buffering it in request otherwise.
+     * 'Content-Type' & 'Content-Length' headers are set from the body if missing.
+     * @param request request which is not executed yet.
+     * @param body body.
+     * @throws IOException if body has to be buffered & can not be written.
+     */
+    public static void write(@NonNull ClientHttpRequest request, @NonNull StreamingBody body)
+            throws IOException {
+        if (request.getHeaders().getContentType() == null) {
+            MediaType contentType = body.getContentType();
+            if (contentType != null)
+                request.getHeaders().setContentType(contentType);
+        }
+        long length = body.getContentLength();
+        if (length >= 0 && request.getHeaders().getContentLength() < 0)
+            request.getHeaders().setContentLength(length);
+        if (request instanceof StreamingClientHttpRequest)
+            ((StreamingClientHttpRequest) request).setStreamingBody(body);
+        else
+            body.writeTo(request.getBody());
+    }
+
+    /**
+     * copy stream through a pooled buffer.
+     * @return number of bytes copied.
+     */
+    static long copy(@NonNull InputStream in, @NonNull OutputStream out) throws IOException {
+        BufferPool pool = BufferPool.getDefault();
+        byte[] buffer = pool.acquire();
+        try {
+            long count = 0;
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+                count += n;
+            }
+            return count;
+        } finally {
+            pool.release(buffer);
+        }
+    }
+}
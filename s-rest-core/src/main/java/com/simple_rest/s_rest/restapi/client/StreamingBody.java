@@ -0,0 +1,65 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * request body which is written straight to the connection while request is
+   sent, instead of being serialized into memory first.
+ * it is sent with 'Content-Length' if its length is known, chunked otherwise.<br>
+ * it can be used as body of any request, e.g.
+   {@code handler.getResource(Foo.class, url, HttpMethod.PUT, StreamingBodies.fromFile(file), headers)}.
+ * @see StreamingBodies
+ * @version 1.0.0
+ */
+
+public interface StreamingBody {
+
+    /**
+     * @return content type used if request has no 'Content-Type' header, null for none.
+     */
+    @Nullable
+    MediaType getContentType();
+
+    /**
+     * @return length of body in bytes, -1 if unknown.
+     */
+    long getContentLength();
+
+    /**
+     * write the body. it can be called again if connection fails before
+       request is sent, body which can not be written twice should fail then.
+     * @param out stream of the connection, it must not be closed.
+     * @throws IOException if body can not be read or written.
+     */
+    void writeTo(@NonNull OutputStream out) throws IOException;
+}
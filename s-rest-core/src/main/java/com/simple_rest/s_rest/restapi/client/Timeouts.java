@@ -0,0 +1,167 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * connect, read & total timeouts of requests.
+ * <ul>
+ *     <li>connect: max time to open a connection.</li>
+ *     <li>read: max time between two reads of the response (or writes of the
+           request body), i.e. max time the server may stay silent.</li>
+ *     <li>total: deadline of whole request, from the moment it is issued till
+           its response is fully read, including time waiting in dispatcher
+           queue & for a free connection.</li>
+ * </ul>
+ * timeout which is not set falls back to timeout of the client (see
+   {@link RestClient.Builder#timeouts(Timeouts)}) & then to default of the
+   connection engine. 0 means no timeout.<br>
+ * object of this class is immutable.
+ * @see RequestContext
+ * @see RequestTimeoutException
+ * @version 1.0.0
+ */
+
+public final class Timeouts {
+
+    static final long UNSET = -1;
+
+    /**
+     * timeouts with nothing set.
+     */
+    public static final Timeouts DEFAULT = new Builder().build();
+
+    private final long connectMillis;
+    private final long readMillis;
+    private final long totalMillis;
+
+    private Timeouts(long connectMillis, long readMillis, long totalMillis) {
+        this.connectMillis = connectMillis;
+        this.readMillis = readMillis;
+        this.totalMillis = totalMillis;
+    }
+
+    /**
+     * @return connect timeout in millis, -1 if not set.
+     */
+    public long getConnectMillis() {
+        return connectMillis;
+    }
+
+    /**
+     * @return read timeout in millis, -1 if not set.
+     */
+    public long getReadMillis() {
+        return readMillis;
+    }
+
+    /**
+     * @return total deadline in millis, -1 if not set.
+     */
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    /**
+     * @param defaults timeouts used where this object has none, null for none.
+     * @return timeouts of this object, completed from defaults.
+     */
+    @NonNull
+    public Timeouts withDefaults(@Nullable Timeouts defaults) {
+        if (defaults == null || defaults == DEFAULT)
+            return this;
+        return new Timeouts(connectMillis != UNSET ? connectMillis : defaults.connectMillis,
+                readMillis != UNSET ? readMillis : defaults.readMillis,
+                totalMillis != UNSET ? totalMillis : defaults.totalMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "Timeouts{connect=" + connectMillis + ", read=" + readMillis
+                + ", total=" + totalMillis + "}";
+    }
+
+    /**
+     * builder of {@link Timeouts}.
+     */
+    public static class Builder {
+
+        private long connectMillis = UNSET;
+        private long readMillis = UNSET;
+        private long totalMillis = UNSET;
+
+        /**
+         * @param timeout max time to open a connection, 0 for no timeout.
+         * @param unit unit of timeout.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder connect(long timeout, @NonNull TimeUnit unit) {
+            this.connectMillis = toMillis(timeout, unit);
+            return this;
+        }
+
+        /**
+         * @param timeout max time between two reads or writes, 0 for no timeout.
+         * @param unit unit of timeout.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder read(long timeout, @NonNull TimeUnit unit) {
+            this.readMillis = toMillis(timeout, unit);
+            return this;
+        }
+
+        /**
+         * @param timeout deadline of whole request, 0 for no deadline.
+         * @param unit unit of timeout.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder total(long timeout, @NonNull TimeUnit unit) {
+            this.totalMillis = toMillis(timeout, unit);
+            return this;
+        }
+
+        private static long toMillis(long timeout, @NonNull TimeUnit unit) {
+            if (timeout < 0)
+                throw new IllegalArgumentException("timeout < 0");
+            long millis = unit.toMillis(timeout);
+            return millis == 0 && timeout > 0 ? 1 : millis;
+        }
+
+        /**
+         * @return new timeouts.
+         */
+        @NonNull
+        public Timeouts build() {
+            return new Timeouts(connectMillis, readMillis, totalMillis);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.metrics;
+
+import android.support.annotation.NonNull;
+
+/**
+ * immutable copy of {@link LatencyHistogram}. all values are in micros.
+ * @version 1.0.0
+ */
+
+public class HistogramSnapshot {
+
+    @NonNull private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(@NonNull long[] counts, long count, long sum, long max) {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * @return number of recorded values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return mean of recorded values, 0 if nothing is recorded.
+     */
+    public double getMean() {
+        return count > 0 ? (double) sum / count : 0;
+    }
+
+    /**
+     * @return largest recorded value.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile percentile in (0, 100], e.g. 99.
+     * @return value below or equal to which given percent of values fall,
+               0 if nothing is recorded.
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0)
+            return 0;
+        long rank = (long) Math.ceil(percentile / 100 * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.min(max, LatencyHistogram.upperBoundOf(i));
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + Math.round(getMean()) + "us, p50=" + getPercentile(50)
+                + "us, p99=" + getPercentile(99) + "us, max=" + max + "us";
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.metrics;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * lock-free histogram of latencies with microsecond resolution.
+ * values below 16 micros have their own bucket, larger values are grouped into
+   8 buckets per power of two, so recorded values are off by at most 12.5%.<br>
+ * recording is a few atomic increments & never blocks, so histogram can be
+   shared by all threads.
+ * @see HistogramSnapshot
+ * @version 1.0.0
+ */
+
+public class LatencyHistogram {
+
+    static final int LINEAR_BUCKETS = 16;
+    static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - 3) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos latency in nanos, negative values are ignored.
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            return;
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        buckets.incrementAndGet(indexOf(micros));
+        count.incrementAndGet();
+        sum.addAndGet(micros);
+        long current = max.get();
+        while (micros > current && !max.compareAndSet(current, micros))
+            current = max.get();
+    }
+
+    /**
+     * @return copy of current state, histogram keeps recording while it is taken.
+     */
+    @NonNull
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++)
+            total += counts[i] = buckets.get(i);
+        return new HistogramSnapshot(counts, total, sum.get(), max.get());
+    }
+
+    /**
+     * forget all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            buckets.set(i, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * @return number of recorded values.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    static int indexOf(long micros) {
+        if (micros < LINEAR_BUCKETS)
+            return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT)
+            return BUCKETS - 1;
+        int sub = (int) ((micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < LINEAR_BUCKETS)
+            return index;
+        int exponent = 4 + (index - LINEAR_BUCKETS) / SUB_BUCKETS;
+        int sub = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((SUB_BUCKETS + sub) * width) + width - 1;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.metrics;
+
+import android.support.annotation.NonNull;
+
+import com.simple_rest.s_rest.restapi.client.RequestListener;
+import com.simple_rest.s_rest.restapi.client.RequestMetrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * request listener which aggregates request metrics into latency histograms
+   per host & per endpoint (method, host & path).
+ * recording is lock-free; snapshots can be taken at any time, e.g.
+ * <pre>
+ *     MetricsRecorder recorder = new MetricsRecorder();
+ *     RestClient client = new RestClient.Builder().requestListener(recorder).build();
+ *     ...
+ *     RequestStats stats = recorder.getHostStats().get("api.example.com");
+ *     long p99 = stats.getTotal().getPercentile(99);
+ * </pre>
+ * number of endpoints is capped, requests to further endpoints are only
+   aggregated per host.
+ * @version 1.0.0
+ */
+
+public class MetricsRecorder implements RequestListener {
+
+    private final int maxEndpoints;
+    private final ConcurrentMap<String,Stats> hosts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String,Stats> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * make a recorder which keeps at most 256 endpoints.
+     */
+    public MetricsRecorder() {
+        this(256);
+    }
+
+    /**
+     * @param maxEndpoints max endpoints whose stats are kept, 0 to only keep host stats.
+     */
+    public MetricsRecorder(int maxEndpoints) {
+        this.maxEndpoints = maxEndpoints;
+    }
+
+    @Override
+    public void onRequestEnd(@NonNull RequestMetrics metrics) {
+        String host = metrics.getHost();
+        statsOf(hosts, host, Integer.MAX_VALUE).record(metrics);
+        if (maxEndpoints > 0) {
+            String path = metrics.getUri().getRawPath();
+            Stats endpoint = statsOf(endpoints, metrics.getMethod() + " " + host
+                    + (path != null ? path : ""), maxEndpoints);
+            if (endpoint != null)
+                endpoint.record(metrics);
+        }
+    }
+
+    /**
+     * @return snapshot of stats per host.
+     */
+    @NonNull
+    public Map<String,RequestStats> getHostStats() {
+        return snapshot(hosts);
+    }
+
+    /**
+     * @return snapshot of stats per endpoint, keyed by "METHOD host/path".
+     */
+    @NonNull
+    public Map<String,RequestStats> getEndpointStats() {
+        return snapshot(endpoints);
+    }
+
+    /**
+     * forget all recorded stats.
+     */
+    public void reset() {
+        hosts.clear();
+        endpoints.clear();
+    }
+
+    private static Stats statsOf(@NonNull ConcurrentMap<String,Stats> map, @NonNull String key,
+                                 int max) {
+        Stats stats = map.get(key);
+        if (stats == null) {
+            if (map.size() >= max)
+                return null;
+            Stats created = new Stats();
+            stats = map.putIfAbsent(key, created);
+            if (stats == null)
+                stats = created;
+        }
+        return stats;
+    }
+
+    @NonNull
+    private static Map<String,RequestStats> snapshot(@NonNull Map<String,Stats> map) {
+        Map<String,RequestStats> snapshot = new HashMap<>();
+        for (Map.Entry<String,Stats> e : map.entrySet())
+            snapshot.put(e.getKey(), e.getValue().snapshot());
+        return snapshot;
+    }
+
+    /**
+     * live stats of one host or endpoint.
+     */
+    private static class Stats {
+
+        final LatencyHistogram queueWait = new LatencyHistogram();
+        final LatencyHistogram connect = new LatencyHistogram();
+        final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+        final LatencyHistogram bodyRead = new LatencyHistogram();
+        final LatencyHistogram deserialization = new LatencyHistogram();
+        final LatencyHistogram total = new LatencyHistogram();
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong bytesOut = new AtomicLong();
+        final AtomicLong bytesIn = new AtomicLong();
+
+        void record(@NonNull RequestMetrics metrics) {
+            requests.incrementAndGet();
+            if (metrics.getError() != null || metrics.getStatus() >= 500)
+                errors.incrementAndGet();
+            queueWait.record(metrics.getQueueWaitNanos());
+            connect.record(metrics.getConnectNanos());
+            total.record(metrics.getTotalNanos());
+            if (metrics.getError() == null) {
+                timeToFirstByte.record(metrics.getTimeToFirstByteNanos());
+                bodyRead.record(metrics.getBodyReadNanos());
+                deserialization.record(metrics.getDeserializationNanos());
+            }
+            bytesOut.addAndGet(metrics.getBytesOut());
+            bytesIn.addAndGet(metrics.getBytesIn());
+        }
+
+        @NonNull
+        RequestStats snapshot() {
+            return new RequestStats(requests.get(), errors.get(), bytesOut.get(), bytesIn.get(),
+                    queueWait.snapshot(), connect.snapshot(), timeToFirstByte.snapshot(),
+                    bodyRead.snapshot(), deserialization.snapshot(), total.snapshot());
+        }
+    }
+
+}
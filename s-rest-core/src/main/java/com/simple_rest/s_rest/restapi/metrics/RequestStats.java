@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.metrics;
+
+import android.support.annotation.NonNull;
+
+/**
+ * immutable stats of requests to one host or endpoint.
+ * @see MetricsRecorder
+ * @version 1.0.0
+ */
+
+public class RequestStats {
+
+    private final long requestCount;
+    private final long errorCount;
+    private final long bytesOut;
+    private final long bytesIn;
+    @NonNull private final HistogramSnapshot queueWait;
+    @NonNull private final HistogramSnapshot connect;
+    @NonNull private final HistogramSnapshot timeToFirstByte;
+    @NonNull private final HistogramSnapshot bodyRead;
+    @NonNull private final HistogramSnapshot deserialization;
+    @NonNull private final HistogramSnapshot total;
+
+    RequestStats(long requestCount, long errorCount, long bytesOut, long bytesIn,
+                 @NonNull HistogramSnapshot queueWait, @NonNull HistogramSnapshot connect,
+                 @NonNull HistogramSnapshot timeToFirstByte, @NonNull HistogramSnapshot bodyRead,
+                 @NonNull HistogramSnapshot deserialization, @NonNull HistogramSnapshot total) {
+        this.requestCount = requestCount;
+        this.errorCount = errorCount;
+        this.bytesOut = bytesOut;
+        this.bytesIn = bytesIn;
+        this.queueWait = queueWait;
+        this.connect = connect;
+        this.timeToFirstByte = timeToFirstByte;
+        this.bodyRead = bodyRead;
+        this.deserialization = deserialization;
+        this.total = total;
+    }
+
+    /**
+     * @return number of requests.
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * @return number of requests which failed or got 5xx status.
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return request body bytes sent.
+     */
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    /**
+     * @return response body bytes received.
+     */
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * @return time spent in dispatcher queue, only requests made from dispatcher.
+     */
+    @NonNull
+    public HistogramSnapshot getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * @return time spent opening connections.
+     */
+    @NonNull
+    public HistogramSnapshot getConnect() {
+        return connect;
+    }
+
+    /**
+     * @return time till response headers.
+     */
+    @NonNull
+    public HistogramSnapshot getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    /**
+     * @return time spent waiting for response bodies.
+     */
+    @NonNull
+    public HistogramSnapshot getBodyRead() {
+        return bodyRead;
+    }
+
+    /**
+     * @return time spent parsing response bodies.
+     */
+    @NonNull
+    public HistogramSnapshot getDeserialization() {
+        return deserialization;
+    }
+
+    /**
+     * @return total time of requests.
+     */
+    @NonNull
+    public HistogramSnapshot getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "requests=" + requestCount + ", errors=" + errorCount + ", bytesOut=" + bytesOut
+                + ", bytesIn=" + bytesIn + ", total[" + total + "], ttfb[" + timeToFirstByte + "]";
+    }
+}
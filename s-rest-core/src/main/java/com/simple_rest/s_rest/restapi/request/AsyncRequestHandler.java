@@ -0,0 +1,285 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.simple_rest.s_rest.restapi.client.RequestContext;
+import com.simple_rest.s_rest.restapi.client.RequestDispatcher;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.simple_rest.s_rest.restapi.client.Timeouts;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.util.UriTemplate;
+
+import java.net.URI;
+import java.util.concurrent.Callable;
+
+/**
+ * non-blocking counterpart of {@link RequestHandler}.
+ * requests run on dispatcher of the client & every method returns immediately
+   with a {@link RestFuture} of the response, so it can be called from any
+   thread, including main thread.<br>
+ * unlike 'RequestHandler', failures are not masked to null: returned future
+   fails with the exception (e.g. 'HttpClientErrorException' for 4xx status,
+   'ResourceAccessException' for I/O errors).<br>
+ * cancelling returned future aborts the request, closing its connection.<br>
+ * object of this class holds no per request state, so it can be shared.
+ * @see RestFuture
+ * @see RestResponse
+ * @version 1.0.0
+ */
+
+public class AsyncRequestHandler {
+
+    @NonNull private final RestClient client;
+    @NonNull private final RequestDispatcher.Priority priority;
+    @Nullable private final Timeouts timeouts;
+    @NonNull private final RequestHandler handler;
+
+    /**
+     * make a object which uses default client & normal priority.
+     * @see RestClient#getDefault()
+     */
+    public AsyncRequestHandler() {
+        this(RestClient.getDefault());
+    }
+
+    /**
+     * make a object which uses specified client & normal priority.
+     * @param client shared client used to make requests.
+     */
+    public AsyncRequestHandler(@NonNull RestClient client) {
+        this(client, RequestDispatcher.Priority.NORMAL);
+    }
+
+    /**
+     * @param client shared client used to make requests.
+     * @param priority priority of requests in dispatcher queue.
+     */
+    public AsyncRequestHandler(@NonNull RestClient client, @NonNull RequestDispatcher.Priority priority) {
+        this(client, priority, null);
+    }
+
+    /**
+     * @param client shared client used to make requests.
+     * @param priority priority of requests in dispatcher queue.
+     * @param timeouts timeouts of requests, which override timeouts of the client.
+              total deadline includes time spent in dispatcher queue. null to use
+              timeouts of the client.
+     */
+    public AsyncRequestHandler(@NonNull RestClient client, @NonNull RequestDispatcher.Priority priority,
+                               @Nullable Timeouts timeouts) {
+        this.client = client;
+        this.priority = priority;
+        this.timeouts = timeouts;
+        this.handler = new RequestHandler(client);
+    }
+
+    /**
+     * make http request with body.
+     * @param type class object of expected Http response body.
+     * @param url url.
+     * @param meth Http request method.
+     * @param requestObj body of the Http request, null for none.
+     * @param headers request headers.
+     * @param <T> class type of expected response body.
+     * @param <R> class type of HTTP request body.
+     * @return future of the response.
+     */
+    @NonNull
+    public <T,R> RestFuture<RestResponse<T>> getResource(@NonNull Class<T> type,
+                                                          @NonNull String url,
+                                                          @NonNull HttpMethod meth,
+                                                          @Nullable R requestObj,
+                                                          @NonNull HttpHeaders headers) {
+        if (client.isLoggingRequests())
+            client.getLogger().info("AsyncRequestHandler", "Request: " + url + ", Method: " + meth
+                    + ", Class: " + type.getName());
+        return submit(type, url, null, meth, new HttpEntity<>(requestObj, headers), priority);
+    }
+
+    /**
+     * make http request to already expanded uri, e.g. of a {@link RequestTemplate}.
+     * @param type class object of expected Http response body.
+     * @param uri uri.
+     * @param meth Http request method.
+     * @param request headers & body of the request.
+     * @return future of the response.
+     */
+    @NonNull
+    <T,R> RestFuture<RestResponse<T>> getResource(@NonNull Class<T> type, @NonNull URI uri,
+                                                  @NonNull HttpMethod meth, @NonNull HttpEntity<R> request) {
+        return submit(type, null, uri, meth, request, priority);
+    }
+
+    /**
+     * submit the request to dispatcher, url is parsed on the worker unless uri is given.
+     */
+    @NonNull
+    private <T,R> RestFuture<RestResponse<T>> submit(@NonNull final Class<T> type, @Nullable final String url,
+                                                     @Nullable final URI uri, @NonNull final HttpMethod meth,
+                                                     @NonNull final HttpEntity<R> request,
+                                                     @NonNull RequestDispatcher.Priority priority) {
+        final long submitted = System.nanoTime();
+        final RestFuture<RestResponse<T>> future = new RestFuture<>(client.getLogger());
+        final RequestContext context = new RequestContext(timeouts);
+        future.addCallback(new RestCallback<RestResponse<T>>() {
+            @Override
+            public void onSuccess(RestResponse<T> response) {
+            }
+
+            @Override
+            public void onFailure(@NonNull Exception error) {
+                if (future.isCancelled())
+                    context.cancel();
+            }
+        });
+        String host = uri != null ? (uri.getHost() != null ? uri.getHost() : "")
+                : RequestDispatcher.hostOf(url);
+        try {
+            future.setUpstream(client.getDispatcher().submit(host, priority,
+                    new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            if (future.isDone())
+                                return null;
+                            try {
+                                future.complete(handler.execute(type,
+                                        uri != null ? uri : new UriTemplate(url).expand(), meth,
+                                        request, context, submitted));
+                            } catch (Exception e) {
+                                future.fail(e);
+                            }
+                            return null;
+                        }
+                    }));
+        } catch (RuntimeException e) {
+            future.fail(e);
+        }
+        return future;
+    }
+
+    /**
+     * make http request without body.
+     * @param type class object of expected Http response body.
+     * @param url url.
+     * @param meth Http request method.
+     * @param headers request headers.
+     * @param <T> class type of expected response body.
+     * @return future of the response.
+     */
+    @NonNull
+    public <T> RestFuture<RestResponse<T>> getResource(@NonNull Class<T> type, @NonNull String url,
+                                                       @NonNull HttpMethod meth,
+                                                       @NonNull HttpHeaders headers) {
+        return getResource(type, url, meth, null, headers);
+    }
+
+    /**
+     * make http GET request.
+     * @param type class object of expected Http response body.
+     * @param url url.
+     * @param <T> class type of expected response body.
+     * @return future of the response.
+     */
+    @NonNull
+    public <T> RestFuture<RestResponse<T>> getResource(@NonNull Class<T> type, @NonNull String url) {
+        return getResource(type, url, HttpMethod.GET, null, new HttpHeaders());
+    }
+
+    /**
+     * GET the url in background only to store its response in response cache of
+       the client, e.g. ahead of navigation, so later request of the url is served
+       without waiting for network. body is decoded to the type, so decoded object
+       is cached too if the cache keeps objects.
+     * request runs at {@link RequestDispatcher.Priority#BACKGROUND} priority, no
+       matter priority of this object. without response cache it only makes the request.
+     * @param url url.
+     * @param type class object of expected Http response body.
+     * @param <T> class type of expected response body.
+     * @return future of the response, it can be ignored.
+     * @see com.simple_rest.s_rest.restapi.cache.ResponseCache
+     */
+    @NonNull
+    public <T> RestFuture<RestResponse<T>> prefetch(@NonNull String url, @NonNull Class<T> type) {
+        return prefetch(url, type, new HttpHeaders());
+    }
+
+    /**
+     * prefetch the url with request headers, which must match headers of later
+       request if the response varies by them.
+     * @param url url.
+     * @param type class object of expected Http response body.
+     * @param headers request headers.
+     * @param <T> class type of expected response body.
+     * @return future of the response, it can be ignored.
+     * @see #prefetch(String, Class)
+     */
+    @NonNull
+    public <T> RestFuture<RestResponse<T>> prefetch(@NonNull String url, @NonNull Class<T> type,
+                                                    @NonNull HttpHeaders headers) {
+        return submit(type, url, null, HttpMethod.GET, new HttpEntity<Void>(headers),
+                RequestDispatcher.Priority.BACKGROUND);
+    }
+
+    /**
+     * make the request described by the spec.
+     * @param spec request.
+     * @param <T> class type of expected response body.
+     * @return future of the response.
+     */
+    @NonNull
+    public <T> RestFuture<RestResponse<T>> execute(@NonNull RequestSpec<T> spec) {
+        return getResource(spec.getType(), spec.getUrl(), spec.getHttpMethod(),
+                spec.getRequestObject(), spec.getHeaders());
+    }
+
+    /**
+     * make the request described by the spec & deliver its outcome to the callback
+       on callback executor of the client.
+     * @param spec request.
+     * @param callback callback.
+     * @param <T> class type of expected response body.
+     * @return future of the response, it can be used to cancel the request.
+     * @see RestClient.Builder#callbackExecutor(java.util.concurrent.Executor)
+     */
+    @NonNull
+    public <T> RestFuture<RestResponse<T>> enqueue(@NonNull RequestSpec<T> spec,
+                                                   @NonNull RestCallback<? super RestResponse<T>> callback) {
+        return execute(spec).addCallback(callback, client.getCallbackExecutor());
+    }
+
+    /**
+     * @return client used by this object.
+     */
+    @NonNull
+    public RestClient getClient() {
+        return client;
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.simple_rest.s_rest.restapi.client.RequestContext;
+import com.simple_rest.s_rest.restapi.client.RequestDispatcher;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * this class runs a list of requests in parallel & collects their results.
+ * at most 'maxConcurrency' requests of a batch run at the same time; they run
+   on dispatcher of the client, so its global & per host limits also apply.
+ * <br><br>
+ * results can be consumed in completion order using {@link Execution#take()}
+   or all at once using {@link Execution#allDone()}, so a screen calling many
+   endpoints waits for the slowest one instead of sum of all.
+ * <br><br>
+ * methods of this class do not block, so they can be called from main thread.
+ * blocking methods of {@link Execution} must not be called from main thread.
+ * @see RequestSpec
+ * @see BatchResult
+ * @version 1.0.0
+ */
+
+public class BatchRequest {
+
+    @NonNull private final RestClient client;
+    @NonNull private final RequestHandler handler;
+    private final int maxConcurrency;
+    @NonNull private RequestDispatcher.Priority priority = RequestDispatcher.Priority.NORMAL;
+
+    /**
+     * make a object which uses default client.
+     * @param maxConcurrency max requests of a batch running at the same time.
+     */
+    public BatchRequest(int maxConcurrency) {
+        this(RestClient.getDefault(), maxConcurrency);
+    }
+
+    /**
+     * @param client client used to make requests.
+     * @param maxConcurrency max requests of a batch running at the same time.
+     */
+    public BatchRequest(@NonNull RestClient client, int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        this.client = client;
+        this.handler = new RequestHandler(client);
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * set priority of requests in dispatcher queue.
+     * @param priority priority.
+     */
+    public void setPriority(@NonNull RequestDispatcher.Priority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * start all requests.
+     * @param specs requests.
+     * @return running execution.
+     */
+    @NonNull
+    public Execution execute(@NonNull List<? extends RequestSpec<?>> specs) {
+        Execution execution = new Execution(new ArrayList<RequestSpec<?>>(specs));
+        execution.start();
+        return execution;
+    }
+
+    /**
+     * start all requests.
+     * @param specs requests.
+     * @return running execution.
+     */
+    @NonNull
+    public Execution execute(@NonNull RequestSpec<?>... specs) {
+        return execute(Arrays.asList(specs));
+    }
+
+    /**
+     * running batch of requests.
+     */
+    public class Execution {
+
+        @NonNull private final List<RequestSpec<?>> specs;
+        @NonNull private final AtomicReferenceArray<BatchResult<?>> results;
+        @NonNull private final AtomicReferenceArray<RequestContext> contexts;
+        private final BlockingQueue<BatchResult<?>> completed = new LinkedBlockingQueue<>();
+        private final AtomicInteger next = new AtomicInteger();
+        private final CountDownLatch done;
+        private volatile boolean cancelled;
+        private int taken;
+
+        Execution(@NonNull List<RequestSpec<?>> specs) {
+            this.specs = specs;
+            this.results = new AtomicReferenceArray<>(specs.size());
+            this.contexts = new AtomicReferenceArray<>(specs.size());
+            this.done = new CountDownLatch(specs.size());
+        }
+
+        void start() {
+            for (int i = Math.min(maxConcurrency, specs.size()); i > 0; i--)
+                submitNext();
+        }
+
+        private void submitNext() {
+            if (cancelled) {
+                completeRemaining();
+                return;
+            }
+            final int index = next.getAndIncrement();
+            if (index >= specs.size())
+                return;
+            final RequestSpec<?> spec = specs.get(index);
+            client.getDispatcher().submit(RequestDispatcher.hostOf(spec.getUrl()), priority,
+                    new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            try {
+                                complete(index, run(index, spec));
+                            } finally {
+                                submitNext();
+                            }
+                            return null;
+                        }
+                    });
+        }
+
+        @NonNull
+        private <T> BatchResult<T> run(int index, @NonNull RequestSpec<T> spec) {
+            RequestContext context = new RequestContext();
+            contexts.set(index, context);
+            if (cancelled)
+                return new BatchResult<>(index, spec, null, null, null, null);
+            try {
+                RestResponse<T> response = handler.execute(spec.getType(), spec.getUrl(),
+                        spec.getHttpMethod(), spec.getRequestObject(), spec.getHeaders(), context);
+                return new BatchResult<>(index, spec, response.getBody(), response.getHttpStatus(),
+                        response.getHeaders(), null);
+            } catch (Exception e) {
+                client.getLogger().error("BatchRequest", "run: " + e.getMessage(), e);
+                return new BatchResult<>(index, spec, null, null, null, e);
+            } finally {
+                contexts.set(index, null);
+            }
+        }
+
+        /**
+         * complete all requests not started yet with empty results.
+         */
+        private void completeRemaining() {
+            int index;
+            while ((index = next.getAndIncrement()) < specs.size())
+                complete(index, new BatchResult<>(index, specs.get(index), null, null, null, null));
+        }
+
+        private void complete(int index, @NonNull BatchResult<?> result) {
+            results.set(index, result);
+            completed.add(result);
+            done.countDown();
+        }
+
+        /**
+         * wait for next result in completion order.
+         * @return next completed result, null if all results were already taken.
+         * @throws InterruptedException if interrupted while waiting.
+         */
+        @Nullable
+        public BatchResult<?> take() throws InterruptedException {
+            synchronized (this) {
+                if (taken >= specs.size())
+                    return null;
+                taken++;
+            }
+            return completed.take();
+        }
+
+        /**
+         * wait for next result in completion order, at most for the timeout.
+         * @param timeout max time to wait.
+         * @param unit unit of timeout.
+         * @return next completed result, null if timeout elapsed or all results
+                   were already taken.
+         * @throws InterruptedException if interrupted while waiting.
+         */
+        @Nullable
+        public BatchResult<?> poll(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+            synchronized (this) {
+                if (taken >= specs.size())
+                    return null;
+            }
+            BatchResult<?> result = completed.poll(timeout, unit);
+            if (result != null) {
+                synchronized (this) {
+                    taken++;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @return future of all results, in order of requests.
+         */
+        @NonNull
+        public Future<List<BatchResult<?>>> allDone() {
+            return new Future<List<BatchResult<?>>>() {
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning) {
+                    Execution.this.cancel();
+                    return true;
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return cancelled;
+                }
+
+                @Override
+                public boolean isDone() {
+                    return done.getCount() == 0;
+                }
+
+                @Override
+                public List<BatchResult<?>> get() throws InterruptedException {
+                    done.await();
+                    return collect();
+                }
+
+                @Override
+                public List<BatchResult<?>> get(long timeout, @NonNull TimeUnit unit)
+                        throws InterruptedException, TimeoutException {
+                    if (!done.await(timeout, unit))
+                        throw new TimeoutException();
+                    return collect();
+                }
+            };
+        }
+
+        @NonNull
+        private List<BatchResult<?>> collect() {
+            List<BatchResult<?>> list = new ArrayList<>(specs.size());
+            for (int i = 0; i < specs.size(); i++)
+                list.add(results.get(i));
+            return Collections.unmodifiableList(list);
+        }
+
+        /**
+         * stop starting remaining requests, they complete with empty results.
+         * requests already running are aborted, they complete with
+           'RequestCancelledException' as error.
+         */
+        public void cancel() {
+            cancelled = true;
+            for (int i = 0; i < contexts.length(); i++) {
+                RequestContext context = contexts.get(i);
+                if (context != null)
+                    context.cancel();
+            }
+        }
+
+        /**
+         * @return number of requests in the batch.
+         */
+        public int size() {
+            return specs.size();
+        }
+
+        /**
+         * @return number of completed requests.
+         */
+        public int getCompletedCount() {
+            return specs.size() - (int) done.getCount();
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+/**
+ * result of one request of a {@link BatchRequest}.
+ * @param <T> class type of response body.
+ * @version 1.0.0
+ */
+
+public class BatchResult<T> {
+
+    private final int index;
+    @NonNull private final RequestSpec<T> spec;
+    @Nullable private final T body;
+    @Nullable private final HttpStatus httpStatus;
+    @Nullable private final HttpHeaders responseHeaders;
+    @Nullable private final Exception error;
+
+    BatchResult(int index, @NonNull RequestSpec<T> spec, @Nullable T body,
+                @Nullable HttpStatus httpStatus, @Nullable HttpHeaders responseHeaders,
+                @Nullable Exception error) {
+        this.index = index;
+        this.spec = spec;
+        this.body = body;
+        this.httpStatus = httpStatus;
+        this.responseHeaders = responseHeaders;
+        this.error = error;
+    }
+
+    /**
+     * @return position of the request in the batch.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return request of this result.
+     */
+    @NonNull
+    public RequestSpec<T> getSpec() {
+        return spec;
+    }
+
+    /**
+     * @return object parsed from http response, null if request failed or
+               response has no body.
+     */
+    @Nullable
+    public T getBody() {
+        return body;
+    }
+
+    /**
+     * @return http status code of response, null if request failed.
+     */
+    @Nullable
+    public HttpStatus getHttpStatus() {
+        return httpStatus;
+    }
+
+    /**
+     * @return http headers of response, null if request failed.
+     */
+    @Nullable
+    public HttpHeaders getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    /**
+     * @return exception of failed request, null if it did not fail.
+     */
+    @Nullable
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * @return true if response has 2xx status.
+     */
+    public boolean isSuccessful() {
+        return httpStatus != null && httpStatus.series() == HttpStatus.Series.SUCCESSFUL;
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.simple_rest.s_rest.restapi.client.BufferPool;
+import com.simple_rest.s_rest.restapi.client.RequestContext;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * download of a response body straight into a {@link Sink}, through a pooled buffer.
+ * body is never held in memory as a whole.<br>
+ * if connection drops while body is read, download continues from the byte
+   where it stopped using a 'Range' request, guarded by 'If-Range' so a changed
+   resource is not stitched to the old one. if server sends whole body instead,
+   sink is rewound (file) or download fails (stream).<br>
+ * responses are requested without content encoding & bypass the response cache,
+   so byte ranges match the stored resource.
+ * @version 1.0.0
+ */
+
+class Download {
+
+    /**
+     * target of downloaded bytes.
+     */
+    interface Sink {
+
+        /**
+         * @return bytes already in the sink, download continues after them.
+         */
+        long position() throws IOException;
+
+        void write(@NonNull byte[] buffer, int length) throws IOException;
+
+        /**
+         * discard all bytes written to the sink.
+         * @return false if sink can not be rewound.
+         */
+        boolean rewind() throws IOException;
+    }
+
+    @NonNull private final RestClient client;
+    @NonNull private final URI uri;
+    @NonNull private final HttpHeaders headers;
+    @NonNull private final Sink sink;
+    @Nullable private final ProgressListener listener;
+    @NonNull private final RequestContext context;
+    private final int maxResumes;
+    private HttpStatus status;
+    private HttpHeaders responseHeaders;
+
+    Download(@NonNull RestClient client, @NonNull URI uri, @NonNull HttpHeaders headers,
+             @NonNull Sink sink, @Nullable ProgressListener listener,
+             @NonNull RequestContext context, int maxResumes) {
+        this.client = client;
+        this.uri = uri;
+        this.headers = headers;
+        this.sink = sink;
+        this.listener = listener;
+        this.context = context;
+        this.maxResumes = maxResumes;
+    }
+
+    /**
+     * @return length of downloaded body, including bytes which were in sink before.
+     */
+    long run() throws IOException {
+        BufferPool pool = BufferPool.getDefault();
+        byte[] buffer = pool.acquire();
+        try {
+            String validator = null;
+            int resumes = 0;
+            while (true) {
+                long offset = sink.position();
+                ClientHttpResponse response = client.execute(uri, HttpMethod.GET,
+                        new RangeRequest(offset, validator), context);
+                try {
+                    status = response.getStatusCode();
+                    responseHeaders = response.getHeaders();
+                    if (response.getRawStatusCode() == 416 && offset > 0
+                            && completeLength(responseHeaders) == offset)
+                        return offset;
+                    if (client.getErrorHandler().hasError(response))
+                        client.getErrorHandler().handleError(response);
+                    if (validator == null)
+                        validator = validatorOf(responseHeaders);
+
+                    if (response.getRawStatusCode() == 206) {
+                        long start = rangeStart(responseHeaders);
+                        if (start != offset)
+                            throw new UnresumableException("server sent range from " + start + " instead of " + offset);
+                    } else if (offset > 0) {
+                        if (!sink.rewind())
+                            throw new UnresumableException("server sent whole body, download can not be resumed");
+                        offset = 0;
+                    }
+                    long length = responseHeaders.getContentLength();
+                    return copy(response.getBody(), buffer, offset, length >= 0 ? offset + length : -1);
+                } catch (UnresumableException e) {
+                    throw e;
+                } catch (IOException e) {
+                    if (context.isCancelled() || resumes++ >= maxResumes) {
+                        ResourceAccessException aborted = context.abortError(e, "download of \"" + uri + "\"");
+                        if (aborted != null)
+                            throw aborted;
+                        throw e;
+                    }
+                } finally {
+                    response.close();
+                }
+            }
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * @return status of last response, null if none was received.
+     */
+    @Nullable
+    HttpStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return headers of last response, null if none was received.
+     */
+    @Nullable
+    HttpHeaders getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    private long copy(@NonNull InputStream in, @NonNull byte[] buffer, long position, long total)
+            throws IOException {
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            sink.write(buffer, n);
+            position += n;
+            if (listener != null)
+                listener.onProgress(position, total);
+        }
+        if (total >= 0 && position < total)
+            throw new EOFException("body ended at " + position + " of " + total + " bytes");
+        return position;
+    }
+
+    /**
+     * @return strong ETag or Last-Modified date of the response, null if it has neither.
+     */
+    @Nullable
+    private static String validatorOf(@NonNull HttpHeaders headers) {
+        String etag = headers.getETag();
+        if (etag != null && !etag.startsWith("W/"))
+            return etag;
+        return headers.getFirst("Last-Modified");
+    }
+
+    /**
+     * @return first byte of 'Content-Range: bytes first-last/length', -1 if missing.
+     */
+    private static long rangeStart(@NonNull HttpHeaders headers) {
+        String range = headers.getFirst("Content-Range");
+        if (range == null || !range.startsWith("bytes "))
+            return -1;
+        int dash = range.indexOf('-');
+        try {
+            return dash > 6 ? Long.parseLong(range.substring(6, dash).trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return length of 'Content-Range: bytes &#42;/length', -1 if missing.
+     */
+    private static long completeLength(@NonNull HttpHeaders headers) {
+        String range = headers.getFirst("Content-Range");
+        int slash = range != null ? range.lastIndexOf('/') : -1;
+        try {
+            return slash >= 0 ? Long.parseLong(range.substring(slash + 1).trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * error of a response which can not continue the download, it is not retried.
+     */
+    private static class UnresumableException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        UnresumableException(@NonNull String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * writes user headers & headers asking for the remaining byte range.
+     */
+    private class RangeRequest implements RequestCallback {
+
+        private final long offset;
+        @Nullable private final String validator;
+
+        RangeRequest(long offset, @Nullable String validator) {
+            this.offset = offset;
+            this.validator = validator;
+        }
+
+        @Override
+        public void doWithRequest(ClientHttpRequest request) {
+            HttpHeaders requestHeaders = request.getHeaders();
+            requestHeaders.putAll(headers);
+            if (requestHeaders.getFirst("Accept-Encoding") == null)
+                requestHeaders.set("Accept-Encoding", "identity");
+            if (requestHeaders.getFirst("Cache-Control") == null)
+                requestHeaders.set("Cache-Control", "no-store");
+            if (offset > 0) {
+                requestHeaders.set("Range", "bytes=" + offset + "-");
+                if (validator != null)
+                    requestHeaders.set("If-Range", validator);
+            }
+        }
+    }
+
+    /**
+     * sink writing into output stream, it can not be rewound.
+     */
+    static class StreamSink implements Sink {
+
+        @NonNull private final OutputStream out;
+        private long written;
+
+        StreamSink(@NonNull OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public long position() {
+            return written;
+        }
+
+        @Override
+        public void write(@NonNull byte[] buffer, int length) throws IOException {
+            out.write(buffer, 0, length);
+            written += length;
+        }
+
+        @Override
+        public boolean rewind() {
+            return false;
+        }
+    }
+
+    /**
+     * sink writing into file channel from a base position.
+     */
+    static class ChannelSink implements Sink {
+
+        @NonNull private final FileChannel channel;
+        private final long base;
+
+        /**
+         * @param channel file channel, bytes are written from its current position.
+         * @param base position of first byte of the body in the file.
+         */
+        ChannelSink(@NonNull FileChannel channel, long base) {
+            this.channel = channel;
+            this.base = base;
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position() - base;
+        }
+
+        @Override
+        public void write(@NonNull byte[] buffer, int length) throws IOException {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, length);
+            while (bytes.hasRemaining())
+                channel.write(bytes);
+        }
+
+        @Override
+        public boolean rewind() throws IOException {
+            channel.truncate(base);
+            channel.position(base);
+            return true;
+        }
+    }
+}
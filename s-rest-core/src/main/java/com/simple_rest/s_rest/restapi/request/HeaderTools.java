@@ -24,6 +24,8 @@
 
 package com.simple_rest.s_rest.restapi.request;
 
+import com.simple_rest.s_rest.restapi.client.HedgingPolicy;
+
 import java.util.Map.Entry;
 
 /**
@@ -39,9 +41,15 @@ public class HeaderTools {
     public static final Entry<String,String>
             CONTENT_TYPE_JSON=new EntryImp("Content-Type","application/json"),
             CONTENT_TYPE_XML=new EntryImp("Content-Type","application/xml"),
+            CONTENT_TYPE_SMILE=new EntryImp("Content-Type","application/x-jackson-smile"),
             ACCEPT_JSON=new EntryImp("Accept","application/json"),
+            ACCEPT_SMILE_OR_JSON=new EntryImp("Accept","application/x-jackson-smile, application/json;q=0.9"),
             ACCEPT_XML=new EntryImp("Accept","application/xml"),
-            ACCEPT_TEXT=new EntryImp("Accept","text/plain");
+            ACCEPT_TEXT=new EntryImp("Accept","text/plain"),
+            CONTENT_ENCODING_GZIP=new EntryImp("Content-Encoding","gzip"),
+            CONTENT_ENCODING_IDENTITY=new EntryImp("Content-Encoding","identity"),
+            ACCEPT_ENCODING_IDENTITY=new EntryImp("Accept-Encoding","identity"),
+            IDEMPOTENT=new EntryImp(HedgingPolicy.IDEMPOTENT_HEADER,"true");
 
     /**
      * make a Authorization header using provided token.
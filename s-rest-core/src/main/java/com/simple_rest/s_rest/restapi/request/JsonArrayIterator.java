@@ -0,0 +1,133 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import android.support.annotation.NonNull;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.simple_rest.s_rest.restapi.client.JsonCodecCache;
+
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * iterator over elements of a Json array response.
+ * elements are parsed one at a time from the open connection, so only one
+   element is held in memory.
+ * iterator must be closed, which also closes the connection. it is closed
+   automatically once the end of array is reached.
+ * @param <T> type of element.
+ * @see RequestHandler#openArray(Class, String, org.springframework.http.HttpMethod,
+        org.springframework.http.HttpHeaders)
+ * @version 1.0.0
+ */
+
+public class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+
+    @NonNull private final ClientHttpResponse response;
+    @NonNull private final JsonParser parser;
+    @NonNull private final ObjectReader reader;
+    private boolean advanced, finished;
+
+    JsonArrayIterator(@NonNull ClientHttpResponse response, @NonNull JsonCodecCache codecs,
+                      @NonNull Class<T> type) throws IOException {
+        this.response = response;
+        this.reader = codecs.reader(type);
+        this.parser = codecs.getObjectMapper().getFactory().createParser(response.getBody());
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            close();
+        } else if (token != JsonToken.START_ARRAY) {
+            close();
+            throw new IOException("response is not a Json array: " + token);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the response can not be read.
+     */
+    @Override
+    public boolean hasNext() {
+        if (finished)
+            return false;
+        if (!advanced) {
+            try {
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY) {
+                    close();
+                    return false;
+                }
+            } catch (IOException e) {
+                close();
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            advanced = true;
+        }
+        return true;
+    }
+
+    /**
+     * @throws IllegalStateException if the element can not be read or parsed.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        advanced = false;
+        try {
+            return (T) reader.readValue(parser);
+        } catch (IOException e) {
+            close();
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * stop reading & close the connection.
+     */
+    @Override
+    public void close() {
+        if (finished)
+            return;
+        finished = true;
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+        }
+        response.close();
+    }
+}
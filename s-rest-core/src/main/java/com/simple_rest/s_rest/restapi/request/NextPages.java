@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.net.URI;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * factory of common {@link NextPage} resolvers,
+ * <ul>
+ *     <li>{@link #linkHeader()}: url with 'rel="next"' in 'Link' header (RFC 5988),
+           e.g. GitHub style paging.</li>
+ *     <li>{@link #cursorHeader(String, String)}: cursor sent in a response header,
+           passed as query parameter of next request.</li>
+ *     <li>{@link #cursor(CursorExtractor, String)}: cursor read from page body,
+           passed as query parameter of next request.</li>
+ * </ul>
+ * @see PagedResource
+ * @version 1.0.0
+ */
+
+public final class NextPages {
+
+    private NextPages() {}
+
+    /**
+     * reads cursor of next page from a page body.
+     * @param <P> class type of page body.
+     */
+    public interface CursorExtractor<P> {
+
+        /**
+         * @param page response of a page.
+         * @return cursor of next page, null or empty if it is the last page.
+         */
+        @Nullable
+        String cursorOf(@NonNull RestResponse<? extends P> page);
+    }
+
+    private static final Pattern LINK = Pattern.compile("<([^>]*)>((?:\\s*;\\s*[^;,]+)*)");
+    private static final Pattern REL_NEXT = Pattern.compile(
+            ";\\s*rel\\s*=\\s*(?:\"[^\"]*\\bnext\\b[^\"]*\"|next)(?=\\s*(?:;|$))", Pattern.CASE_INSENSITIVE);
+
+    private static final NextPage<Object> LINK_HEADER = new NextPage<Object>() {
+        @Nullable
+        @Override
+        public String nextUrl(@NonNull String pageUrl, @NonNull RestResponse<?> page) {
+            List<String> links = page.getHeaders().get("Link");
+            if (links == null)
+                return null;
+            for (String link : links) {
+                Matcher matcher = LINK.matcher(link);
+                while (matcher.find())
+                    if (REL_NEXT.matcher(matcher.group(2)).find())
+                        return URI.create(pageUrl).resolve(matcher.group(1).trim()).toString();
+            }
+            return null;
+        }
+    };
+
+    /**
+     * @param <P> class type of page body.
+     * @return resolver which follows link of 'Link' header with relation "next",
+               relative link is resolved against url of the page.
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public static <P> NextPage<P> linkHeader() {
+        return (NextPage<P>) LINK_HEADER;
+    }
+
+    /**
+     * @param headerName name of response header which holds cursor of next page.
+     * @param queryParameter query parameter of next request which gets the cursor.
+     * @param <P> class type of page body.
+     * @return resolver of cursor header, page without the header is the last page.
+     */
+    @NonNull
+    public static <P> NextPage<P> cursorHeader(@NonNull final String headerName,
+                                               @NonNull String queryParameter) {
+        return cursor(new CursorExtractor<P>() {
+            @Nullable
+            @Override
+            public String cursorOf(@NonNull RestResponse<? extends P> page) {
+                return page.getHeaders().getFirst(headerName);
+            }
+        }, queryParameter);
+    }
+
+    /**
+     * @param extractor reader of cursor from page.
+     * @param queryParameter query parameter of next request which gets the cursor,
+              it replaces the parameter in url of the page.
+     * @param <P> class type of page body.
+     * @return resolver of cursor.
+     */
+    @NonNull
+    public static <P> NextPage<P> cursor(@NonNull final CursorExtractor<P> extractor,
+                                         @NonNull final String queryParameter) {
+        return new NextPage<P>() {
+            @Nullable
+            @Override
+            public String nextUrl(@NonNull String pageUrl, @NonNull RestResponse<? extends P> page) {
+                String cursor = extractor.cursorOf(page);
+                if (cursor == null || cursor.isEmpty())
+                    return null;
+                return withQueryParameter(pageUrl, queryParameter, cursor);
+            }
+        };
+    }
+
+    /**
+     * @return url with the query parameter set to the value, other parameters are kept.
+     */
+    @NonNull
+    static String withQueryParameter(@NonNull String url, @NonNull String name, @NonNull String value) {
+        int hash = url.indexOf('#');
+        String fragment = hash >= 0 ? url.substring(hash) : "";
+        String base = hash >= 0 ? url.substring(0, hash) : url;
+        int question = base.indexOf('?');
+        StringBuilder result = new StringBuilder(url.length() + name.length() + value.length() + 2);
+        result.append(question >= 0 ? base.substring(0, question) : base);
+        char separator = '?';
+        if (question >= 0) {
+            String encodedName = RequestTemplate.encode(name);
+            for (String parameter : base.substring(question + 1).split("&")) {
+                if (parameter.isEmpty() || parameter.equals(encodedName)
+                        || parameter.startsWith(encodedName + "="))
+                    continue;
+                result.append(separator).append(parameter);
+                separator = '&';
+            }
+        }
+        result.append(separator).append(RequestTemplate.encode(name)).append('=')
+                .append(RequestTemplate.encode(value));
+        return result.append(fragment).toString();
+    }
+}
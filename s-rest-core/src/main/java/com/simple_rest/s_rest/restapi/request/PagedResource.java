@@ -0,0 +1,471 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.simple_rest.s_rest.restapi.client.RequestDispatcher;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.simple_rest.s_rest.restapi.client.Timeouts;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestClientException;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * paginated list resource, read page by page through a lazy iterator.
+ * url of next page is found by {@link NextPage} ('Link' header by default, see
+   {@link NextPages}), so pages are requested only as iterator advances.<br>
+ * next pages are prefetched on dispatcher of the client while current page is
+   processed; at most 'prefetch' pages are held ahead of the consumer, so memory
+   stays bounded however long the list is. prefetch of 0 requests a page only
+   when it is needed.<br>
+ * pages must be read one after another, so at most one page request is in flight.
+ * <pre>
+ *     PagedResource&lt;Item[]&gt; items = new PagedResource.Builder&lt;&gt;(Item[].class, url).build();
+ *     PagedResource&lt;Item[]&gt;.ElementIterator&lt;Item&gt; it = items.elements(PagedResource.&lt;Item&gt;arrayElements());
+ *     try {
+ *         while (it.hasNext())
+ *             process(it.next());
+ *     } finally {
+ *         it.close();
+ *     }
+ * </pre>
+ * failed page request is thrown by 'next' of the iterator as 'RestClientException'.
+ * iterator must be closed if it is not read till the end, which cancels prefetched pages.
+ * object of this class is immutable & can be iterated any number of times.
+ * @param <P> class type of page body.
+ * @see AsyncRequestHandler
+ * @version 1.0.0
+ */
+
+public class PagedResource<P> implements Iterable<RestResponse<P>> {
+
+    /**
+     * reads elements of a page body.
+     * @param <P> class type of page body.
+     * @param <E> class type of element.
+     */
+    public interface Elements<P,E> {
+
+        /**
+         * @param page page body, null if page has no body.
+         * @return elements of the page.
+         */
+        @NonNull
+        List<E> of(@Nullable P page);
+    }
+
+    private static final Elements<Object[],Object> ARRAY_ELEMENTS = new Elements<Object[],Object>() {
+        @NonNull
+        @Override
+        public List<Object> of(@Nullable Object[] page) {
+            return page != null ? Arrays.asList(page) : Collections.emptyList();
+        }
+    };
+
+    @NonNull private final Class<P> type;
+    @NonNull private final String firstUrl;
+    @NonNull private final HttpHeaders headers;
+    @NonNull private final NextPage<? super P> nextPage;
+    @NonNull private final AsyncRequestHandler handler;
+    private final int prefetch;
+    private final int maxPages;
+
+    private PagedResource(@NonNull Builder<P> builder) {
+        this.type = builder.type;
+        this.firstUrl = builder.firstUrl;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(builder.headers);
+        this.nextPage = builder.nextPage;
+        this.handler = new AsyncRequestHandler(builder.client, builder.priority, builder.timeouts);
+        this.prefetch = builder.prefetch;
+        this.maxPages = builder.maxPages;
+    }
+
+    /**
+     * @param <E> class type of element.
+     * @return reader of elements of Json array pages, e.g. of 'Item[]'.
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public static <E> Elements<E[],E> arrayElements() {
+        return (Elements<E[],E>) (Elements<?,?>) ARRAY_ELEMENTS;
+    }
+
+    /**
+     * start iteration over pages, first page is requested at once unless
+       prefetch is 0.
+     * @return iterator over responses of pages.
+     */
+    @NonNull
+    @Override
+    public PageIterator iterator() {
+        return new PageIterator();
+    }
+
+    /**
+     * start iteration over elements of all pages.
+     * @param elements reader of elements of a page.
+     * @param <E> class type of element.
+     * @return iterator over elements.
+     */
+    @NonNull
+    public <E> ElementIterator<E> elements(@NonNull Elements<? super P, E> elements) {
+        return new ElementIterator<>(new PageIterator(), elements);
+    }
+
+    /**
+     * @return url of first page.
+     */
+    @NonNull
+    public String getFirstUrl() {
+        return firstUrl;
+    }
+
+    /**
+     * iterator over pages, it must be used by one thread.
+     */
+    public class PageIterator implements Iterator<RestResponse<P>>, Closeable {
+
+        /** requested pages which are not taken yet, in order. */
+        private final ArrayDeque<RestFuture<RestResponse<P>>> ahead = new ArrayDeque<>();
+        @Nullable private String pendingUrl = firstUrl;
+        private boolean inFlight, closed;
+        private int requested;
+        @Nullable private RuntimeException resolveError;
+
+        PageIterator() {
+            synchronized (this) {
+                fetchIfRoom(false);
+            }
+        }
+
+        /**
+         * @throws RestClientException if next page was not requested because
+                   url of the page could not be resolved.
+         */
+        @Override
+        public boolean hasNext() {
+            synchronized (this) {
+                while (ahead.isEmpty() && inFlight)
+                    waitQuietly();
+                return !ahead.isEmpty() || pendingUrl != null || resolveError != null;
+            }
+        }
+
+        /**
+         * @return response of next page, it waits for the page if it is not prefetched.
+         * @throws RestClientException if request of the page failed.
+         */
+        @Override
+        public RestResponse<P> next() {
+            RestFuture<RestResponse<P>> page;
+            synchronized (this) {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                if (ahead.isEmpty() && resolveError != null) {
+                    RuntimeException error = resolveError;
+                    resolveError = null;
+                    throw error;
+                }
+                if (ahead.isEmpty())
+                    fetchIfRoom(true);
+                page = ahead.poll();
+                fetchIfRoom(false);
+            }
+            try {
+                return page.get();
+            } catch (ExecutionException e) {
+                close();
+                Throwable cause = e.getCause();
+                if (cause instanceof RestClientException)
+                    throw (RestClientException) cause;
+                throw new RestClientException("page request failed: " + cause.getMessage(), cause);
+            } catch (InterruptedException e) {
+                close();
+                Thread.currentThread().interrupt();
+                throw new RestClientException("interrupted while waiting for page", e);
+            } catch (CancellationException e) {
+                throw new RestClientException("page iterator is closed", e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * stop iteration & cancel prefetched pages.
+         */
+        @Override
+        public void close() {
+            synchronized (this) {
+                closed = true;
+                pendingUrl = null;
+                for (RestFuture<RestResponse<P>> page : ahead)
+                    page.cancel(true);
+                ahead.clear();
+                notifyAll();
+            }
+        }
+
+        /**
+         * request the pending page if fewer than 'prefetch' pages are ahead, or
+           if forced because consumer needs it now.
+         */
+        private void fetchIfRoom(boolean force) {
+            if (closed || inFlight || pendingUrl == null || (!force && ahead.size() >= prefetch))
+                return;
+            final String url = pendingUrl;
+            pendingUrl = null;
+            inFlight = true;
+            requested++;
+            // urls of next pages are already encoded, so they are not expanded again
+            final RestFuture<RestResponse<P>> page = requested == 1
+                    ? handler.getResource(type, url, HttpMethod.GET, headers)
+                    : handler.getResource(type, URI.create(url), HttpMethod.GET, new HttpEntity<Void>(headers));
+            ahead.add(page);
+            page.addCallback(new RestCallback<RestResponse<P>>() {
+                @Override
+                public void onSuccess(RestResponse<P> response) {
+                    String next = null;
+                    RuntimeException error = null;
+                    if (maxPages <= 0 || requested < maxPages) {
+                        try {
+                            next = nextPage.nextUrl(url, response);
+                            if (next != null)
+                                URI.create(next);
+                        } catch (IllegalArgumentException e) {
+                            error = new RestClientException("invalid url of next page: " + next, e);
+                        } catch (RuntimeException e) {
+                            error = e;
+                        }
+                    }
+                    synchronized (PageIterator.this) {
+                        inFlight = false;
+                        if (!closed) {
+                            pendingUrl = next;
+                            resolveError = error;
+                            fetchIfRoom(false);
+                        }
+                        PageIterator.this.notifyAll();
+                    }
+                }
+
+                @Override
+                public void onFailure(@NonNull Exception error) {
+                    synchronized (PageIterator.this) {
+                        inFlight = false;
+                        PageIterator.this.notifyAll();
+                    }
+                }
+            });
+        }
+
+        private void waitQuietly() {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RestClientException("interrupted while waiting for page", e);
+            }
+        }
+    }
+
+    /**
+     * iterator over elements of all pages, it must be used by one thread.
+     * only elements of current page & prefetched pages are held in memory.
+     * @param <E> class type of element.
+     */
+    public class ElementIterator<E> implements Iterator<E>, Closeable {
+
+        @NonNull private final PageIterator pages;
+        @NonNull private final Elements<? super P, E> elements;
+        @NonNull private Iterator<E> current = Collections.<E>emptyList().iterator();
+
+        ElementIterator(@NonNull PageIterator pages, @NonNull Elements<? super P, E> elements) {
+            this.pages = pages;
+            this.elements = elements;
+        }
+
+        /**
+         * @throws RestClientException if request of a page failed.
+         */
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (!pages.hasNext())
+                    return false;
+                current = elements.of(pages.next().getBody()).iterator();
+            }
+            return true;
+        }
+
+        /**
+         * @throws RestClientException if request of a page failed.
+         */
+        @Override
+        public E next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return current.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * stop iteration & cancel prefetched pages.
+         */
+        @Override
+        public void close() {
+            pages.close();
+        }
+    }
+
+    /**
+     * builder of {@link PagedResource}.
+     * @param <P> class type of page body.
+     */
+    public static class Builder<P> {
+
+        @NonNull private final Class<P> type;
+        @NonNull private final String firstUrl;
+        @NonNull private final HttpHeaders headers = new HttpHeaders();
+        @NonNull private NextPage<? super P> nextPage = NextPages.linkHeader();
+        @NonNull private RestClient client = RestClient.getDefault();
+        @NonNull private RequestDispatcher.Priority priority = RequestDispatcher.Priority.NORMAL;
+        @Nullable private Timeouts timeouts;
+        private int prefetch = 1;
+        private int maxPages;
+
+        /**
+         * @param type class object of page body, e.g. 'Item[].class'.
+         * @param firstUrl url of first page.
+         */
+        public Builder(@NonNull Class<P> type, @NonNull String firstUrl) {
+            this.type = type;
+            this.firstUrl = firstUrl;
+        }
+
+        /**
+         * @param headers headers of every page request, added to headers already set.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder<P> headers(@NonNull HttpHeaders headers) {
+            for (Map.Entry<String,List<String>> header : headers.entrySet())
+                for (String value : header.getValue())
+                    this.headers.add(header.getKey(), value);
+            return this;
+        }
+
+        /**
+         * @param nextPage resolver of next page url, default {@link NextPages#linkHeader()}.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder<P> nextPage(@NonNull NextPage<? super P> nextPage) {
+            this.nextPage = nextPage;
+            return this;
+        }
+
+        /**
+         * @param prefetch max pages requested ahead of the consumer, default 1,
+                  0 to request a page only when it is needed.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder<P> prefetch(int prefetch) {
+            this.prefetch = Math.max(0, prefetch);
+            return this;
+        }
+
+        /**
+         * @param maxPages max pages read by an iterator, 0 or less for unlimited (default).
+         * @return this builder.
+         */
+        @NonNull
+        public Builder<P> maxPages(int maxPages) {
+            this.maxPages = maxPages;
+            return this;
+        }
+
+        /**
+         * @param client client used to make requests, default {@link RestClient#getDefault()}.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder<P> client(@NonNull RestClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * @param priority priority of page requests in dispatcher queue, default normal.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder<P> priority(@NonNull RequestDispatcher.Priority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * @param timeouts timeouts of every page request, which override timeouts of the client.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder<P> timeouts(@Nullable Timeouts timeouts) {
+            this.timeouts = timeouts;
+            return this;
+        }
+
+        /**
+         * @return new paged resource.
+         */
+        @NonNull
+        public PagedResource<P> build() {
+            return new PagedResource<>(this);
+        }
+    }
+}
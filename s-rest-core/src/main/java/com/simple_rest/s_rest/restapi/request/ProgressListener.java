@@ -0,0 +1,46 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+/**
+ * receives progress of a body being transferred, on the thread which transfers it.
+ * it is called after every buffer, so it should return quickly.
+ * @see RequestHandler#download(String, org.springframework.http.HttpHeaders,
+        java.io.OutputStream, ProgressListener)
+ * @see RequestHandler#upload(Class, String, org.springframework.http.HttpMethod,
+        com.simple_rest.s_rest.restapi.client.StreamingBody, org.springframework.http.HttpHeaders,
+        ProgressListener)
+ * @version 1.0.0
+ */
+
+public interface ProgressListener {
+
+    /**
+     * @param bytes bytes transferred so far, including bytes of resumed download
+              which were transferred before.
+     * @param totalBytes length of whole body, -1 if unknown.
+     */
+    void onProgress(long bytes, long totalBytes);
+}
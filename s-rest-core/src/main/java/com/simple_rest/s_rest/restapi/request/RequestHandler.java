@@ -0,0 +1,727 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.simple_rest.s_rest.restapi.client.CircuitOpenException;
+import com.simple_rest.s_rest.restapi.client.RequestCoalescer;
+import com.simple_rest.s_rest.restapi.client.RequestContext;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.simple_rest.s_rest.restapi.client.SmileHttpMessageConverter;
+import com.simple_rest.s_rest.restapi.client.StreamingBodies;
+import com.simple_rest.s_rest.restapi.client.StreamingBody;
+import com.simple_rest.s_rest.restapi.client.Timeouts;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.util.UriTemplate;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+
+/** this class provides functionalities to work with restful web services.
+ * this class provide methods to make a HTTP request using POJO objects by
+   automatically parsing it in JSON format.<br>
+ * It also parse & return HTTP response
+   to a POJO objects.<br>
+ * It uses a 'spring framework' for parsing & handling Http request & response.<br>
+ * Note:- It is mandatory to use other threads then main Activity thread to call
+   methods of this class as they contains network access permission which is not
+   permitted from main Activity thread.<br>
+ * It is recommended use 'SimpleRequest' or 'ExtendedRequest' instead as they provides
+   higher functionalities & can be used from main activity thread.<br>
+ * this class is part of the plain java core, so it can also be used on any JVM.<br>
+ * 'getResource' methods keep status, headers & error of the last request in
+   this object, so such object must be used by one thread at a time.
+   'execute' methods return them in an immutable {@link RestResponse} &
+   keep nothing in this object, so one object can be shared by any number of
+   threads, once it is configured.<br>
+ * Created by Neel Patel on 24-07-2017.
+ * @author Neel Patel
+ * @see RestClient
+ * @version 2.0.0
+ */
+
+public class RequestHandler{
+
+    @NonNull private final RestClient client;
+    @Nullable private Timeouts timeouts;
+    @Nullable private RequestContext fixedContext;
+    private volatile RequestContext context;
+    private int maxResumes = 3;
+    private HttpStatus httpStatus;
+    private HttpHeaders requestHeaders, responseHeaders;
+    private Exception error;
+
+    /**
+     * make a object which uses default client.
+     * @see RestClient#getDefault()
+     */
+    public RequestHandler(){
+        this(RestClient.getDefault());
+    }
+
+    /**
+     * make a object which uses specified client.
+     * @param client shared client used to make requests.
+     */
+    public RequestHandler(@NonNull RestClient client){
+        this.client = client;
+    }
+
+    /**
+     * this method will make http request using parameters provided.
+     * request object will be parsed to json format & Http response will be parsed
+       to a POJO.
+     * response body must be JSON representation of generic type 'R'.
+     * if generic type 'R' is String then content of the response body will
+       be returned as it is.
+     * @param type class object of expected Http response body.
+     * @param url url.
+     * @param meth Http request method.
+     * @param requestObj body of the Http request.
+     * @param header key value pairs of header parameters.
+     * @param <T> class type of expected response body.
+     * @param <R> class type of HTTP request body.
+     * @return return Http response body as object of type 'R'. null otherwise.
+     */
+    @Nullable
+    public <T,R> T getResource(@NonNull Class<T> type,@NonNull String url,@NonNull HttpMethod meth,
+                               @NonNull R requestObj,@NonNull Map<String,String> header){
+        this.error = null;
+        if (client.isLoggingRequests())
+            client.getLogger().info("RequestHandler","Request: "+url+", Method: "+meth+", Class: "+type.getName());
+        try {
+            //parse map to headers
+            requestHeaders = new HttpHeaders();
+            for(Entry<String,String> e:header.entrySet())
+                requestHeaders.add(e.getKey(),e.getValue());
+
+            return getResource(type,url,meth,requestObj,requestHeaders);
+        } catch (Exception e) {
+            this.error = e;
+            client.getLogger().error("RequestHandler", "getResource: "+e.getMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * this method will make http request without body.
+     * response body must be JSON representation of generic type 'R'.
+     * if generic type 'R' is String then content of the response body will
+       be returned as it is.
+     * internally it calls {@code getResource(type, url, meth, null, header);}
+     * @param type class object of expected Http response body.
+     * @param url url.
+     * @param meth Http request method.
+     * @param header key value pair of header.
+     * @param <T> class type of expected response body.
+     * @return return Http response body as object of type 'R'. null otherwise.
+     */
+    @Nullable
+    public <T> T getResource(@NonNull Class<T> type,@NonNull String url,@NonNull HttpMethod meth,
+                             Map<String,String> header){
+        return getResource(type, url, meth, null, header);
+    }
+
+    /**
+     * this method will make http request using parameters provided.
+     * request object will be parsed to json format & Http response will be parsed
+       to a POJO.
+     * response body must be JSON representation of generic type 'R'.
+     * if generic type 'R' is String then content of the response body will
+       be returned as it is.
+     * @param type class object of expected Http response body.
+     * @param url url.
+     * @param meth Http request method.
+     * @param requestObj body of the Http request.
+     * @param header key value pairs of header parameters.
+     * @param <T> class type of expected response body.
+     * @param <R> class type of HTTP request body.
+     * @return return Http response body as object of type 'R'. null otherwise.
+     */
+    @Nullable
+    public <T,R> T getResource(@NonNull Class<T> type,@NonNull String url,@NonNull HttpMethod meth,
+                               R requestObj,@NonNull HttpHeaders headers){
+        this.error = null;
+        if (client.isLoggingRequests())
+            client.getLogger().info("RequestHandler","Request: "+url+", Method: "+meth+", Class: "+type.getName());
+        try {
+            HttpEntity<R> request;
+
+            requestHeaders = headers;
+            //sending request
+//            request = new HttpEntity<>(requestObj,httpHeaders);
+            request = new HttpEntity<>(requestObj,requestHeaders);
+            ResponseEntity<T> response;
+            response = exchange(type, url, meth, request, newContext());
+            this.httpStatus = response.getStatusCode();
+            this.responseHeaders = response.getHeaders();
+            return response.hasBody()?response.getBody():null;
+        } catch (Exception e) {
+            this.error = e;
+            client.getLogger().error("RequestHandler", "getResource: "+e.getMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * this method will make http request whose body is streamed from the source
+       while it is sent, so it is never held in memory as a whole.
+     * body of known length is sent with 'Content-Length', otherwise chunked.
+     * response body is parsed like {@link #getResource(Class, String, HttpMethod, Object, HttpHeaders)}.
+     * @param type class object of expected Http response body.
+     * @param url url.
+     * @param meth Http request method, POST or PUT.
+     * @param body body of the request, see {@link StreamingBodies}.
+     * @param headers request headers.
+     * @param listener receiver of upload progress, null for none.
+     * @param <T> class type of expected response body.
+     * @return return Http response body as object of type 'T'. null otherwise.
+     */
+    @Nullable
+    public <T> T upload(@NonNull Class<T> type, @NonNull String url, @NonNull HttpMethod meth,
+                        @NonNull StreamingBody body, @NonNull HttpHeaders headers,
+                        @Nullable ProgressListener listener){
+        return getResource(type, url, meth, listener != null ? new ProgressBody(body, listener) : body, headers);
+    }
+
+    /**
+     * make http request & return its response as immutable value.
+     * unlike 'getResource', nothing is stored in this object & failures are
+       not masked, so this object can make concurrent requests from many threads.
+     * request runs in its own context with timeouts of this object, or in the
+       context set by {@link #setRequestContext(RequestContext)}.
+     * @param type class object of expected Http response body.
+     * @param url url.
+     * @param meth Http request method.
+     * @param requestObj body of the Http request, null for none.
+     * @param headers request headers.
+     * @param <T> class type of expected response body.
+     * @return response.
+     * @throws RestClientException if request fails or server returns error status,
+               e.g. 'HttpClientErrorException' for 4xx status.
+     */
+    @NonNull
+    public <T> RestResponse<T> execute(@NonNull Class<T> type, @NonNull String url, @NonNull HttpMethod meth,
+                                       @Nullable Object requestObj, @NonNull HttpHeaders headers)
+            throws RestClientException {
+        return execute(type, url, meth, requestObj, headers, null);
+    }
+
+    /**
+     * make http request in the context & return its response as immutable value.
+     * @param type class object of expected Http response body.
+     * @param url url.
+     * @param meth Http request method.
+     * @param requestObj body of the Http request, null for none.
+     * @param headers request headers.
+     * @param context context of the request, it can be used to cancel the request.
+              null to use context of this object.
+     * @param <T> class type of expected response body.
+     * @return response.
+     * @throws RestClientException if request fails, is cancelled or server returns error status.
+     * @see #execute(Class, String, HttpMethod, Object, HttpHeaders)
+     */
+    @NonNull
+    public <T> RestResponse<T> execute(@NonNull Class<T> type, @NonNull String url, @NonNull HttpMethod meth,
+                                       @Nullable Object requestObj, @NonNull HttpHeaders headers,
+                                       @Nullable RequestContext context) throws RestClientException {
+        if (client.isLoggingRequests())
+            client.getLogger().info("RequestHandler","Request: "+url+", Method: "+meth+", Class: "+type.getName());
+        return execute(type, new UriTemplate(url).expand(), meth,
+                new HttpEntity<>(requestObj, headers), context, System.nanoTime());
+    }
+
+    /**
+     * make http GET request & return its response as immutable value.
+     * @param type class object of expected Http response body.
+     * @param url url.
+     * @param <T> class type of expected response body.
+     * @return response.
+     * @throws RestClientException if request fails or server returns error status.
+     * @see #execute(Class, String, HttpMethod, Object, HttpHeaders)
+     */
+    @NonNull
+    public <T> RestResponse<T> execute(@NonNull Class<T> type, @NonNull String url) throws RestClientException {
+        return execute(type, url, HttpMethod.GET, null, new HttpHeaders(), null);
+    }
+
+    /**
+     * make the request without storing anything in this object.
+     * @param startNanos start of the request, for elapsed time of the response.
+     */
+    @NonNull
+    <T> RestResponse<T> execute(@NonNull Class<T> type, @NonNull URI uri, @NonNull HttpMethod meth,
+                                @NonNull HttpEntity<?> request, @Nullable RequestContext context,
+                                long startNanos) throws RestClientException {
+        RequestContext requestContext = context != null ? context
+                : fixedContext != null ? fixedContext : new RequestContext(timeouts);
+        try {
+            return RestResponse.of(exchange(type, uri, meth, request, requestContext),
+                    System.nanoTime() - startNanos);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RestClientException(meth + " request for \"" + uri + "\" failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * make the request in the context using the client.
+     * identical GET & HEAD requests without body are coalesced if client enables it,
+       coalesced requests run in context of the first of them.
+     */
+    <T,R> ResponseEntity<T> exchange(@NonNull final Class<T> type, @NonNull final String url,
+                                     @NonNull final HttpMethod meth,
+                                     @NonNull final HttpEntity<R> request,
+                                     @NonNull final RequestContext context) throws Exception {
+        return exchange(type, new UriTemplate(url).expand(), meth, request, context);
+    }
+
+    /**
+     * make the request to already expanded uri in the context using the client.
+     */
+    <T,R> ResponseEntity<T> exchange(@NonNull final Class<T> type, @NonNull final URI uri,
+                                     @NonNull final HttpMethod meth,
+                                     @NonNull final HttpEntity<R> request,
+                                     @NonNull final RequestContext context) throws Exception {
+        RequestCoalescer coalescer = client.getCoalescer();
+        if (coalescer == null || request.hasBody() || !RequestCoalescer.canCoalesce(meth))
+            return client.exchange(uri, meth, request, type, context);
+        return coalescer.execute(meth, uri.toString(), request.getHeaders(), type, context,
+                new Callable<ResponseEntity<T>>() {
+                    @Override
+                    public ResponseEntity<T> call() throws Exception {
+                        return client.exchange(uri, meth, request, type, context);
+                    }
+                });
+    }
+
+    /**
+     * @return context of next request, it becomes the context which {@link #cancel()} cancels.
+     */
+    @NonNull
+    private RequestContext newContext() {
+        RequestContext created = fixedContext != null ? fixedContext : new RequestContext(timeouts);
+        context = created;
+        return created;
+    }
+
+    /**
+     * this method will make http request without body.
+     * response body must be JSON representation of generic type 'R'.
+     * if generic type 'R' is String then content of the response body will
+       be returned as it is.
+     * internally it calls {@code getResource(type, url, meth, null, header);}
+     * @param type class object of expected Http response body.
+     * @param url url.
+     * @param meth Http request method.
+     * @param header key value pair of header.
+     * @param <T> class type of expected response body.
+     * @return return Http response body as object of type 'R'. null otherwise.
+     */
+    @Nullable
+    public <T> T getResource(@NonNull Class<T> type,@NonNull String url,@NonNull HttpMethod meth,
+                             @NonNull HttpHeaders header){
+        return getResource(type, url, meth, null, header);
+    }
+
+    /**
+     * this method will make http request without body & Header.
+     * response body must be JSON representation of generic type 'R'.
+     * if generic type 'R' is String then content of the response body will
+       be returned as it is.
+     * internally it calls {@code getResource(type, url, meth, emptyMap);}
+     * @param type class object of expected Http response body.
+     * @param url url.
+     * @param meth Http request method.
+     * @param <T> class type of expected response body.
+     * @return return Http response body as object of type 'R'. null otherwise.
+     */
+    @Nullable
+    public <T> T getResource(@NonNull Class<T> type,@NonNull String url,@NonNull HttpMethod meth){
+        return getResource(type, url, meth, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * this method will make http get request without body & Header.
+     * response body must be JSON representation of generic type 'R'.
+     * if generic type 'R' is String then content of the response body will
+     be returned as it is.
+     * internally it calls {@code getResource(type, url, HttpMethod.GET);}
+     * @param type class object of expected Http response body.
+     * @param url url.
+     * @param <T> class type of expected response body.
+     * @return return Http response body as object of type 'R'. null otherwise.
+     */
+    @Nullable
+    public <T> T getResource(@NonNull Class<T> type,@NonNull String url){
+        return getResource(type, url, HttpMethod.GET);
+    }
+
+    /**
+     * this method will make http request & read Json array response element by element.
+     * unlike {@code getResource(Foo[].class, ...)} whole array is never held in memory,
+       each element is parsed & passed to callback as soon as it is read.
+     * callback can stop reading by returning false, which closes the connection.
+     * @param type class object of array element.
+     * @param url url.
+     * @param meth Http request method.
+     * @param headers request headers.
+     * @param callback receiver of elements, called on calling thread.
+     * @param <T> class type of array element.
+     * @return number of elements passed to callback, -1 if request fails.
+     */
+    public <T> int getResourceStream(@NonNull Class<T> type, @NonNull String url, @NonNull HttpMethod meth,
+                                     @NonNull HttpHeaders headers, @NonNull ElementCallback<? super T> callback){
+        this.error = null;
+        if (client.isLoggingRequests())
+            client.getLogger().info("RequestHandler","Stream: "+url+", Method: "+meth+", Class: "+type.getName());
+        JsonArrayIterator<T> it = null;
+        try {
+            it = openArray(type, url, meth, headers);
+            int count = 0;
+            while (it.hasNext()) {
+                count++;
+                if (!callback.onElement(it.next()))
+                    break;
+            }
+            return count;
+        } catch (Exception e) {
+            this.error = e;
+            client.getLogger().error("RequestHandler", "getResourceStream: "+e.getMessage(), e);
+        } finally {
+            if (it != null)
+                it.close();
+        }
+        return -1;
+    }
+
+    /**
+     * this method will make http GET request & stream response body into the
+       output stream, without holding it in memory.
+     * if connection drops while body is read, download continues with a 'Range'
+       request (see {@link #setMaxResumes(int)}); it fails if server does not
+       support ranges.
+     * output stream is not closed.
+     * @param url url.
+     * @param headers request headers.
+     * @param out target of response body.
+     * @param listener receiver of progress, null for none.
+     * @return number of bytes written, -1 if request fails.
+     */
+    public long download(@NonNull String url, @NonNull HttpHeaders headers, @NonNull OutputStream out,
+                         @Nullable ProgressListener listener){
+        return download(url, headers, new Download.StreamSink(out), listener);
+    }
+
+    /**
+     * this method will make http GET request & stream response body into the file.
+     * if resume is true & file exists, only bytes after its current length are
+       requested, so an interrupted download can be continued later; whole
+       file is downloaded again if server does not support ranges.
+     * dropped connection is resumed like {@link #download(String, HttpHeaders, OutputStream, ProgressListener)}.
+     * @param url url.
+     * @param headers request headers.
+     * @param file target file.
+     * @param resume true to continue after existing content of the file,
+              false to overwrite it.
+     * @param listener receiver of progress, null for none.
+     * @return length of the file, -1 if request fails.
+     */
+    public long download(@NonNull String url, @NonNull HttpHeaders headers, @NonNull File file,
+                         boolean resume, @Nullable ProgressListener listener){
+        this.error = null;
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            FileChannel channel = raf.getChannel();
+            if (resume)
+                channel.position(channel.size());
+            else
+                channel.truncate(0);
+            return download(url, headers, new Download.ChannelSink(channel, 0), listener);
+        } catch (IOException e) {
+            this.error = e;
+            client.getLogger().error("RequestHandler", "download: "+e.getMessage(), e);
+            return -1;
+        } finally {
+            if (raf != null) {
+                try {
+                    raf.close();
+                } catch (IOException e) {
+                    client.getLogger().error("RequestHandler", "download: "+e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * this method will make http GET request & write response body into the
+       channel from its current position.
+     * dropped connection is resumed like {@link #download(String, HttpHeaders, OutputStream, ProgressListener)},
+       if server sends whole body again, channel is truncated to its start position.
+     * channel is not closed.
+     * @param url url.
+     * @param headers request headers.
+     * @param channel target file channel.
+     * @param listener receiver of progress, null for none.
+     * @return number of bytes written, -1 if request fails.
+     */
+    public long download(@NonNull String url, @NonNull HttpHeaders headers, @NonNull FileChannel channel,
+                         @Nullable ProgressListener listener){
+        this.error = null;
+        try {
+            return download(url, headers, new Download.ChannelSink(channel, channel.position()), listener);
+        } catch (IOException e) {
+            this.error = e;
+            client.getLogger().error("RequestHandler", "download: "+e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    private long download(@NonNull String url, @NonNull HttpHeaders headers, @NonNull Download.Sink sink,
+                          @Nullable ProgressListener listener){
+        this.error = null;
+        if (client.isLoggingRequests())
+            client.getLogger().info("RequestHandler","Download: "+url);
+        requestHeaders = headers;
+        Download download = new Download(client, new UriTemplate(url).expand(), headers, sink,
+                listener, newContext(), maxResumes);
+        try {
+            return download.run();
+        } catch (Exception e) {
+            this.error = e;
+            client.getLogger().error("RequestHandler", "download: "+e.getMessage(), e);
+            return -1;
+        } finally {
+            this.httpStatus = download.getStatus();
+            this.responseHeaders = download.getResponseHeaders();
+        }
+    }
+
+    /**
+     * this method will make http request & return iterator over elements of
+       Json array response. elements are parsed lazily from the open connection.
+     * returned iterator must be closed, which closes the connection.
+     * response cache of the client is bypassed ('Cache-Control: no-store'),
+       so the array is never held in memory as a whole.
+     * status & headers of the response are available as soon as this method returns.
+     * @param type class object of array element.
+     * @param url url.
+     * @param meth Http request method.
+     * @param headers request headers.
+     * @param <T> class type of array element.
+     * @return iterator over array elements.
+     * @throws IOException if request can not be made or response is not Json array.
+     * @throws com.simple_rest.s_rest.restapi.client.RequestTimeoutException if response
+               does not arrive within timeouts.
+     * @throws org.springframework.web.client.RestClientException if server returns error status.
+     */
+    @NonNull
+    public <T> JsonArrayIterator<T> openArray(@NonNull Class<T> type, @NonNull String url,
+                                              @NonNull HttpMethod meth, @NonNull final HttpHeaders headers)
+            throws IOException {
+        requestHeaders = headers;
+        ClientHttpResponse response = client.execute(new UriTemplate(url).expand(), meth,
+                new RequestCallback() {
+                    @Override
+                    public void doWithRequest(ClientHttpRequest request) {
+                        request.getHeaders().putAll(headers);
+                        // response cache would read whole array into memory first
+                        if (request.getHeaders().getFirst("Cache-Control") == null)
+                            request.getHeaders().set("Cache-Control", "no-store");
+                        if (request.getHeaders().getAccept().isEmpty())
+                            request.getHeaders().setAccept(client.getSmileCodecs() != null
+                                    ? Arrays.asList(SmileHttpMessageConverter.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                                    : Collections.singletonList(MediaType.APPLICATION_JSON));
+                    }
+                }, newContext());
+        try {
+            if (client.getErrorHandler().hasError(response))
+                client.getErrorHandler().handleError(response);
+            this.httpStatus = response.getStatusCode();
+            this.responseHeaders = response.getHeaders();
+            return new JsonArrayIterator<>(response,
+                    client.codecsFor(response.getHeaders().getContentType()), type);
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            throw e;
+        }
+    }
+
+    /**
+     * set timeouts of following requests of this object, which override
+       timeouts of the client.
+     * total deadline counts separately for every request.
+     * @param timeouts timeouts, null to use timeouts of the client.
+     */
+    public void setTimeouts(@Nullable Timeouts timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * @return timeouts of requests of this object, null if timeouts of the client are used.
+     */
+    @Nullable
+    public Timeouts getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * set how many times a download continues after its connection drops.
+     * default is 3, 0 disables resuming.
+     * @param maxResumes max resumes of one download.
+     */
+    public void setMaxResumes(int maxResumes) {
+        this.maxResumes = maxResumes;
+    }
+
+    /**
+     * make following requests of this object in a shared context, so they are
+       cancelled together & share its total deadline. timeouts set by
+       {@link #setTimeouts(Timeouts)} are not used while context is set.
+     * @param context context, null to make new context for every request.
+     */
+    public void setRequestContext(@Nullable RequestContext context) {
+        this.fixedContext = context;
+    }
+
+    /**
+     * abort request of this object which is in flight, e.g. from other thread.
+     * connection of the request is closed, request returns null & its error is
+       {@link com.simple_rest.s_rest.restapi.client.RequestCancelledException}.
+     * following requests of this object are not affected, unless they are made
+       in context set by {@link #setRequestContext(RequestContext)}.
+     */
+    public void cancel() {
+        RequestContext running = context;
+        if (running != null)
+            running.cancel();
+    }
+
+    /**
+     * @return client used by this object.
+     */
+    @NonNull
+    public RestClient getClient() {
+        return client;
+    }
+
+    /**
+     * @return http status code of last response of 'getResource', it is not
+               meaningful if this object is shared by threads.
+     */
+    @Nullable
+    public HttpStatus getHttpStatus() {
+        return httpStatus;
+    }
+
+    /**
+     * @return http headers of last response of 'getResource', it is not
+               meaningful if this object is shared by threads.
+     */
+    @Nullable
+    public HttpHeaders getHttpHeaders() {
+        return responseHeaders;
+    }
+
+    /**
+     * @return exception of last request, e.g. {@link CircuitOpenException}
+               if request was not made because its host is known bad. null if
+               last request succeeded.
+     */
+    @Nullable
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * streaming body which reports bytes written to a listener.
+     */
+    private static class ProgressBody implements StreamingBody {
+
+        @NonNull private final StreamingBody body;
+        @NonNull private final ProgressListener listener;
+
+        ProgressBody(@NonNull StreamingBody body, @NonNull ProgressListener listener) {
+            this.body = body;
+            this.listener = listener;
+        }
+
+        @Override
+        public MediaType getContentType() {
+            return body.getContentType();
+        }
+
+        @Override
+        public long getContentLength() {
+            return body.getContentLength();
+        }
+
+        @Override
+        public void writeTo(@NonNull OutputStream out) throws IOException {
+            final long total = body.getContentLength();
+            body.writeTo(new FilterOutputStream(out) {
+                private long written;
+
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    listener.onProgress(++written, total);
+                }
+
+                @Override
+                public void write(@NonNull byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    written += len;
+                    listener.onProgress(written, total);
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.Map.Entry;
+
+/**
+ * this class describes one request of a {@link BatchRequest}.
+ * object of this class is immutable after it is made.
+ * @param <T> class type of expected response body.
+ * @see BatchRequest
+ * @version 1.0.0
+ */
+
+public class RequestSpec<T> {
+
+    @NonNull private final Class<T> type;
+    @NonNull private final String url;
+    @NonNull private final HttpMethod meth;
+    @Nullable private final Object requestObj;
+    @NonNull private final HttpHeaders headers;
+
+    /**
+     * make a request with specified parameters.
+     * @param type class object of expected response body.
+     * @param url url.
+     * @param meth http request method.
+     * @param requestObj body of the request, null for request without body.
+     * @param headers request headers.
+     */
+    public RequestSpec(@NonNull Class<T> type, @NonNull String url, @NonNull HttpMethod meth,
+                       @Nullable Object requestObj, @NonNull HttpHeaders headers) {
+        this.type = type;
+        this.url = url;
+        this.meth = meth;
+        this.requestObj = requestObj;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    /**
+     * make a request without body with specified parameters.
+     * @param type class object of expected response body.
+     * @param url url.
+     * @param meth http request method.
+     * @param header request headers.
+     */
+    @SafeVarargs
+    public RequestSpec(@NonNull Class<T> type, @NonNull String url, @NonNull HttpMethod meth,
+                       Entry<String,String> ... header) {
+        this(type, url, meth, null, toHeaders(header));
+    }
+
+    /**
+     * make a http get request without body with specified headers.
+     * @param type class object of expected response body.
+     * @param url url.
+     * @param header request headers.
+     */
+    @SafeVarargs
+    public RequestSpec(@NonNull Class<T> type, @NonNull String url, Entry<String,String> ... header) {
+        this(type, url, HttpMethod.GET, header);
+    }
+
+    @NonNull
+    @SafeVarargs
+    private static HttpHeaders toHeaders(Entry<String,String> ... header) {
+        HttpHeaders headers = new HttpHeaders();
+        for (Entry<String,String> i : header)
+            headers.add(i.getKey(), i.getValue());
+        return headers;
+    }
+
+    /**
+     * @return class object of expected response body.
+     */
+    @NonNull
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return url.
+     */
+    @NonNull
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return http method.
+     */
+    @NonNull
+    public HttpMethod getHttpMethod() {
+        return meth;
+    }
+
+    /**
+     * @return request body, null if request has no body.
+     */
+    @Nullable
+    public Object getRequestObject() {
+        return requestObj;
+    }
+
+    /**
+     * @return read only request headers.
+     */
+    @NonNull
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.simple_rest.s_rest.restapi.client.RequestContext;
+import com.simple_rest.s_rest.restapi.client.RequestDispatcher;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.simple_rest.s_rest.restapi.client.Timeouts;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestClientException;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * reusable request which is prepared once & executed many times, e.g. a
+   request made for every item of a list.
+ * uri template (e.g. "https://host/users/{id}/posts?page={page}") is parsed,
+   method & headers are fixed when template is built, so executing it only
+   fills in the variables; there is no per request parsing of url or headers.
+ * variable values are percent-encoded, so any value, even one containing
+   '/', '?', '&' or spaces, fills exactly the variable it is given for.<br>
+ * object of this class is immutable, so it can be shared by many threads:
+ * <pre>
+ *     RequestTemplate&lt;User&gt; getUser = new RequestTemplate.Builder&lt;&gt;(User.class,
+ *             "https://host/users/{id}").header("Authorization", token).build();
+ *     User user = getUser.execute(42).getBody();
+ * </pre>
+ * unlike {@link RequestHandler}, failures are not masked to null.
+ * @param <T> class type of expected response body.
+ * @see RequestSpec
+ * @version 1.0.0
+ */
+
+public class RequestTemplate<T> {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    @NonNull private final Class<T> type;
+    @NonNull private final String uriTemplate;
+    @NonNull private final HttpMethod meth;
+    @NonNull private final HttpHeaders headers;
+    @NonNull private final HttpEntity<Void> noBody;
+    @NonNull private final RestClient client;
+    @Nullable private final Timeouts timeouts;
+    @NonNull private final RequestHandler handler;
+    @NonNull private final AsyncRequestHandler asyncHandler;
+    /** literal parts of the template, one more than 'slots'. */
+    @NonNull private final String[] literals;
+    /** index in 'variableNames' of each variable of the template. */
+    @NonNull private final int[] slots;
+    @NonNull private final List<String> variableNames;
+    private final int literalLength;
+
+    private RequestTemplate(@NonNull Builder<T> builder) {
+        this.type = builder.type;
+        this.uriTemplate = builder.uriTemplate;
+        this.meth = builder.meth;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(builder.headers);
+        this.noBody = new HttpEntity<>(headers);
+        this.client = builder.client;
+        this.timeouts = builder.timeouts;
+        this.handler = new RequestHandler(client);
+        this.asyncHandler = new AsyncRequestHandler(client, builder.priority, timeouts);
+        List<String> literalList = new ArrayList<>();
+        List<Integer> slotList = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int length = 0, start = 0;
+        while (true) {
+            int open = uriTemplate.indexOf('{', start);
+            if (open < 0)
+                break;
+            int close = uriTemplate.indexOf('}', open);
+            if (close < 0)
+                throw new IllegalArgumentException("unclosed variable in uri template: " + uriTemplate);
+            String literal = uriTemplate.substring(start, open);
+            literalList.add(literal);
+            length += literal.length();
+            String name = uriTemplate.substring(open + 1, close);
+            int colon = name.indexOf(':');
+            if (colon >= 0)
+                name = name.substring(0, colon);
+            name = name.trim();
+            int slot = names.indexOf(name);
+            if (slot < 0) {
+                slot = names.size();
+                names.add(name);
+            }
+            slotList.add(slot);
+            start = close + 1;
+        }
+        String last = uriTemplate.substring(start);
+        literalList.add(last);
+        length += last.length();
+        this.literals = literalList.toArray(new String[literalList.size()]);
+        this.slots = new int[slotList.size()];
+        for (int i = 0; i < slots.length; i++)
+            slots[i] = slotList.get(i);
+        this.variableNames = Collections.unmodifiableList(names);
+        this.literalLength = length;
+        Object[] probe = new Object[names.size()];
+        Arrays.fill(probe, "x");
+        expand(probe);
+    }
+
+    /**
+     * fill in variables of the template.
+     * @param uriVariables values of variables, in order of their first appearance
+              in the template.
+     * @return uri.
+     * @throws IllegalArgumentException if number of values does not match
+               number of variables or uri is invalid.
+     */
+    @NonNull
+    public URI expand(Object... uriVariables) {
+        if (uriVariables.length != variableNames.size())
+            throw new IllegalArgumentException("uri template " + uriTemplate + " has "
+                    + variableNames.size() + " variables, but " + uriVariables.length + " values given");
+        String[] encoded = new String[uriVariables.length];
+        int length = literalLength;
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = encode(String.valueOf(uriVariables[i]));
+            length += encoded[i].length();
+        }
+        StringBuilder uri = new StringBuilder(length + 16);
+        for (int i = 0; i < slots.length; i++)
+            uri.append(literals[i]).append(encoded[slots[i]]);
+        uri.append(literals[slots.length]);
+        try {
+            return new URI(uri.toString());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("invalid uri template " + uriTemplate + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * fill in variables of the template.
+     * @param uriVariables values of variables by their name.
+     * @return uri.
+     * @throws IllegalArgumentException if value of a variable is missing.
+     */
+    @NonNull
+    public URI expand(@NonNull Map<String,?> uriVariables) {
+        Object[] values = new Object[variableNames.size()];
+        for (int i = 0; i < values.length; i++) {
+            String name = variableNames.get(i);
+            if (!uriVariables.containsKey(name))
+                throw new IllegalArgumentException("no value for variable '" + name
+                        + "' of uri template " + uriTemplate);
+            values[i] = uriVariables.get(name);
+        }
+        return expand(values);
+    }
+
+    /**
+     * make the request without body on calling thread.
+     * @param uriVariables values of variables of uri template.
+     * @return response.
+     * @throws RestClientException if request fails or server returns error status.
+     */
+    @NonNull
+    public RestResponse<T> execute(Object... uriVariables) throws RestClientException {
+        return exchange(expand(uriVariables), noBody);
+    }
+
+    /**
+     * make the request with body on calling thread.
+     * @param requestObj body of the request, it may be a
+              {@link com.simple_rest.s_rest.restapi.client.StreamingBody}.
+     * @param uriVariables values of variables of uri template.
+     * @return response.
+     * @throws RestClientException if request fails or server returns error status.
+     */
+    @NonNull
+    public RestResponse<T> executeWithBody(@Nullable Object requestObj, Object... uriVariables)
+            throws RestClientException {
+        return exchange(expand(uriVariables), entity(requestObj));
+    }
+
+    /**
+     * make the request without body on dispatcher of the client.
+     * @param uriVariables values of variables of uri template.
+     * @return future of the response.
+     * @see AsyncRequestHandler
+     */
+    @NonNull
+    public RestFuture<RestResponse<T>> submit(Object... uriVariables) {
+        try {
+            return asyncHandler.getResource(type, expand(uriVariables), meth, noBody);
+        } catch (IllegalArgumentException e) {
+            return RestFuture.failed(e);
+        }
+    }
+
+    /**
+     * make the request with body on dispatcher of the client.
+     * @param requestObj body of the request.
+     * @param uriVariables values of variables of uri template.
+     * @return future of the response.
+     */
+    @NonNull
+    public RestFuture<RestResponse<T>> submitWithBody(@Nullable Object requestObj, Object... uriVariables) {
+        try {
+            return asyncHandler.getResource(type, expand(uriVariables), meth, entity(requestObj));
+        } catch (IllegalArgumentException e) {
+            return RestFuture.failed(e);
+        }
+    }
+
+    /**
+     * @return class object of expected response body.
+     */
+    @NonNull
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return uri template.
+     */
+    @NonNull
+    public String getUriTemplate() {
+        return uriTemplate;
+    }
+
+    /**
+     * @return names of variables of uri template, in order of their first appearance.
+     */
+    @NonNull
+    public List<String> getVariableNames() {
+        return variableNames;
+    }
+
+    /**
+     * @return http method.
+     */
+    @NonNull
+    public HttpMethod getHttpMethod() {
+        return meth;
+    }
+
+    /**
+     * @return read only request headers.
+     */
+    @NonNull
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @NonNull
+    private HttpEntity<?> entity(@Nullable Object requestObj) {
+        return requestObj != null ? new HttpEntity<>(requestObj, headers) : noBody;
+    }
+
+    @NonNull
+    private RestResponse<T> exchange(@NonNull URI uri, @NonNull HttpEntity<?> request) {
+        if (client.isLoggingRequests())
+            client.getLogger().info("RequestTemplate", "Request: " + uri + ", Method: " + meth
+                    + ", Class: " + type.getName());
+        return handler.execute(type, uri, meth, request, new RequestContext(timeouts), System.nanoTime());
+    }
+
+    /**
+     * percent-encode every character except unreserved ones (letters, digits & "-._~").
+     */
+    @NonNull
+    static String encode(@NonNull String value) {
+        int i = 0;
+        while (i < value.length() && isUnreserved(value.charAt(i)))
+            i++;
+        if (i == value.length())
+            return value;
+        StringBuilder encoded = new StringBuilder(value.length() + 16).append(value, 0, i);
+        for (byte b : value.substring(i).getBytes(UTF_8)) {
+            if (b >= 0 && isUnreserved((char) b))
+                encoded.append((char) b);
+            else
+                encoded.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+        return encoded.toString();
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+
+    /**
+     * builder of {@link RequestTemplate}.
+     * @param <T> class type of expected response body.
+     */
+    public static class Builder<T> {
+
+        @NonNull private final Class<T> type;
+        @NonNull private final String uriTemplate;
+        @NonNull private HttpMethod meth = HttpMethod.GET;
+        @NonNull private final HttpHeaders headers = new HttpHeaders();
+        @NonNull private RestClient client = RestClient.getDefault();
+        @NonNull private RequestDispatcher.Priority priority = RequestDispatcher.Priority.NORMAL;
+        @Nullable private Timeouts timeouts;
+
+        /**
+         * @param type class object of expected response body.
+         * @param uriTemplate uri with variables in braces, e.g. "https://host/users/{id}".
+         */
+        public Builder(@NonNull Class<T> type, @NonNull String uriTemplate) {
+            this.type = type;
+            this.uriTemplate = uriTemplate;
+        }
+
+        /**
+         * @param meth http request method, default GET.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder<T> method(@NonNull HttpMethod meth) {
+            this.meth = meth;
+            return this;
+        }
+
+        /**
+         * @param name header name.
+         * @param values header values, added to values already set.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder<T> header(@NonNull String name, String ... values) {
+            for (String value : values)
+                headers.add(name, value);
+            return this;
+        }
+
+        /**
+         * @param headers headers, added to headers already set.
+         * @return this builder.
+         * @see HeaderTools
+         */
+        @NonNull
+        public Builder<T> headers(@NonNull HttpHeaders headers) {
+            for (Map.Entry<String,List<String>> header : headers.entrySet())
+                for (String value : header.getValue())
+                    this.headers.add(header.getKey(), value);
+            return this;
+        }
+
+        /**
+         * @param client client used to make requests, default {@link RestClient#getDefault()}.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder<T> client(@NonNull RestClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * @param priority priority of submitted requests in dispatcher queue, default normal.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder<T> priority(@NonNull RequestDispatcher.Priority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * @param timeouts timeouts of requests, which override timeouts of the client.
+         * @return this builder.
+         */
+        @NonNull
+        public Builder<T> timeouts(@Nullable Timeouts timeouts) {
+            this.timeouts = timeouts;
+            return this;
+        }
+
+        /**
+         * @return new template.
+         * @throws IllegalArgumentException if uri template is invalid.
+         */
+        @NonNull
+        public RequestTemplate<T> build() {
+            return new RequestTemplate<>(this);
+        }
+    }
+}
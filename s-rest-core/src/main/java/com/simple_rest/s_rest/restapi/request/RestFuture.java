@@ -0,0 +1,410 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.simple_rest.s_rest.restapi.client.JavaUtilLogger;
+import com.simple_rest.s_rest.restapi.client.RestLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * result of an asynchronous request which can be composed without blocking.
+ * it is a small stand-in of java 8's 'CompletableFuture', which is not
+   available on all supported Android versions.<br>
+ * callbacks & transformations registered on a future run when it completes,
+   so chained requests (e.g. login, then profile, then feed) run one after
+   another without any thread waiting for them:
+ * <pre>
+ *     handler.getResource(Token.class, loginUrl, HttpMethod.POST, credentials, headers)
+ *         .flatMap(new RestFuture.AsyncTransform&lt;RestResponse&lt;Token&gt;, RestResponse&lt;Profile&gt;&gt;() {
+ *             public RestFuture&lt;RestResponse&lt;Profile&gt;&gt; apply(RestResponse&lt;Token&gt; token) {
+ *                 return handler.getResource(Profile.class, profileUrl, HttpMethod.GET, auth(token));
+ *             }
+ *         })
+ *         .addCallback(callback, mainThreadExecutor);
+ * </pre>
+ * failure of any step fails the derived futures with the same exception.
+   cancelling a derived future cancels the step which is running.<br>
+ * unless an executor is given, callbacks & transformations run on the thread
+   which completes the future, so they must be short. exception thrown by a
+   callback is logged & does not stop other callbacks.
+ * @param <V> class type of result.
+ * @see AsyncRequestHandler
+ * @version 1.0.0
+ */
+
+public class RestFuture<V> implements Future<V> {
+
+    /**
+     * synchronous transformation of a result.
+     * @param <A> class type of input.
+     * @param <B> class type of output.
+     */
+    public interface Transform<A,B> {
+        B apply(A input) throws Exception;
+    }
+
+    /**
+     * transformation of a result into another asynchronous step.
+     * @param <A> class type of input.
+     * @param <B> class type of result of the step.
+     */
+    public interface AsyncTransform<A,B> {
+        @NonNull
+        RestFuture<B> apply(A input) throws Exception;
+    }
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    };
+
+    private static final RestLogger DEFAULT_LOGGER = new JavaUtilLogger();
+
+    private static final int PENDING = 0, SUCCEEDED = 1, FAILED = 2, CANCELLED = 3;
+
+    @NonNull private final RestLogger logger;
+    private int state = PENDING;
+    private V value;
+    private Exception error;
+    @Nullable private List<Runnable> listeners = new ArrayList<>(2);
+    @Nullable private volatile Future<?> upstream;
+
+    /**
+     * make a pending future, failures of its callbacks are logged by default logger.
+     */
+    public RestFuture() {
+        this(DEFAULT_LOGGER);
+    }
+
+    /**
+     * @param logger logger of failures of callbacks, e.g. logger of the client.
+     */
+    RestFuture(@NonNull RestLogger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * @param value result.
+     * @param <V> class type of result.
+     * @return future which is already completed with the value.
+     */
+    @NonNull
+    public static <V> RestFuture<V> completed(V value) {
+        RestFuture<V> future = new RestFuture<>();
+        future.complete(value);
+        return future;
+    }
+
+    /**
+     * @param error exception.
+     * @param <V> class type of result.
+     * @return future which has already failed with the exception.
+     */
+    @NonNull
+    public static <V> RestFuture<V> failed(@NonNull Exception error) {
+        RestFuture<V> future = new RestFuture<>();
+        future.fail(error);
+        return future;
+    }
+
+    /**
+     * complete this future with a result.
+     * @param value result.
+     * @return false if future was already done.
+     */
+    public boolean complete(V value) {
+        return finish(SUCCEEDED, value, null);
+    }
+
+    /**
+     * fail this future.
+     * @param error exception.
+     * @return false if future was already done.
+     */
+    public boolean fail(@NonNull Exception error) {
+        return finish(FAILED, null, error);
+    }
+
+    /**
+     * cancel this future & the step it is waiting for.
+     * @param mayInterruptIfRunning true to interrupt running step.
+     * @return false if future was already done.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!finish(CANCELLED, null, new CancellationException("request cancelled")))
+            return false;
+        Future<?> step = upstream;
+        if (step != null)
+            step.cancel(mayInterruptIfRunning);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return state != PENDING;
+    }
+
+    /**
+     * @return true if future completed with a result.
+     */
+    public synchronized boolean isSuccessful() {
+        return state == SUCCEEDED;
+    }
+
+    @Override
+    public V get() throws InterruptedException, ExecutionException {
+        synchronized (this) {
+            while (state == PENDING)
+                wait();
+            return result();
+        }
+    }
+
+    @Override
+    public V get(long timeout, @NonNull TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (this) {
+            while (state == PENDING) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    throw new TimeoutException();
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return result();
+        }
+    }
+
+    /**
+     * call the callback when this future completes, on the completing thread.
+     * @param callback callback.
+     * @return this future.
+     */
+    @NonNull
+    public RestFuture<V> addCallback(@NonNull RestCallback<? super V> callback) {
+        return addCallback(callback, DIRECT);
+    }
+
+    /**
+     * call the callback on the executor when this future completes, e.g. on
+       main thread of Android application.
+     * @param callback callback.
+     * @param executor executor which runs the callback.
+     * @return this future.
+     */
+    @NonNull
+    public RestFuture<V> addCallback(@NonNull final RestCallback<? super V> callback,
+                                     @NonNull final Executor executor) {
+        addListener(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        int s;
+                        synchronized (RestFuture.this) {
+                            s = state;
+                        }
+                        if (s == SUCCEEDED)
+                            callback.onSuccess(value);
+                        else
+                            callback.onFailure(error);
+                    }
+                });
+            }
+        });
+        return this;
+    }
+
+    /**
+     * @param transform transformation of the result.
+     * @param <R> class type of transformed result.
+     * @return future of transformed result, it fails if this future fails or
+               transformation throws.
+     */
+    @NonNull
+    public <R> RestFuture<R> map(@NonNull final Transform<? super V, ? extends R> transform) {
+        final RestFuture<R> derived = new RestFuture<>(logger);
+        derived.upstream = this;
+        addCallback(new RestCallback<V>() {
+            @Override
+            public void onSuccess(V result) {
+                try {
+                    derived.complete(transform.apply(result));
+                } catch (Exception e) {
+                    derived.fail(e);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Exception error) {
+                derived.fail(error);
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * start next asynchronous step once this future completes.
+     * @param transform function which starts the next step.
+     * @param <R> class type of result of the next step.
+     * @return future of result of the next step.
+     */
+    @NonNull
+    public <R> RestFuture<R> flatMap(@NonNull final AsyncTransform<? super V, R> transform) {
+        final RestFuture<R> derived = new RestFuture<>(logger);
+        derived.upstream = this;
+        addCallback(new RestCallback<V>() {
+            @Override
+            public void onSuccess(V result) {
+                RestFuture<R> next;
+                try {
+                    next = transform.apply(result);
+                } catch (Exception e) {
+                    derived.fail(e);
+                    return;
+                }
+                derived.upstream = next;
+                if (derived.isCancelled())
+                    next.cancel(true);
+                next.addCallback(new RestCallback<R>() {
+                    @Override
+                    public void onSuccess(R result) {
+                        derived.complete(result);
+                    }
+
+                    @Override
+                    public void onFailure(@NonNull Exception error) {
+                        derived.fail(error);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(@NonNull Exception error) {
+                derived.fail(error);
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * @param transform function which turns failure of this future into a result.
+     * @return future which completes with result of this future, or with the
+               recovered result if this future fails.
+     */
+    @NonNull
+    public RestFuture<V> recover(@NonNull final Transform<Exception, ? extends V> transform) {
+        final RestFuture<V> derived = new RestFuture<>(logger);
+        derived.upstream = this;
+        addCallback(new RestCallback<V>() {
+            @Override
+            public void onSuccess(V result) {
+                derived.complete(result);
+            }
+
+            @Override
+            public void onFailure(@NonNull Exception error) {
+                try {
+                    derived.complete(transform.apply(error));
+                } catch (Exception e) {
+                    derived.fail(e);
+                }
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * set the task or future this future waits for, it is cancelled with this future.
+     */
+    void setUpstream(@Nullable Future<?> upstream) {
+        this.upstream = upstream;
+        if (upstream != null && isCancelled())
+            upstream.cancel(true);
+    }
+
+    private void addListener(@NonNull Runnable listener) {
+        synchronized (this) {
+            if (listeners != null) {
+                listeners.add(listener);
+                return;
+            }
+        }
+        runListener(listener);
+    }
+
+    private void runListener(@NonNull Runnable listener) {
+        try {
+            listener.run();
+        } catch (RuntimeException e) {
+            logger.error("RestFuture", "callback: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean finish(int newState, V newValue, Exception newError) {
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (state != PENDING)
+                return false;
+            state = newState;
+            value = newValue;
+            error = newError;
+            toRun = listeners;
+            listeners = null;
+            notifyAll();
+        }
+        for (Runnable listener : toRun)
+            runListener(listener);
+        return true;
+    }
+
+    private V result() throws ExecutionException {
+        if (state == SUCCEEDED)
+            return value;
+        if (state == CANCELLED)
+            throw (CancellationException) error;
+        throw new ExecutionException(error);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * immutable Http response: parsed body, status code, headers & elapsed time.
+ * it is safe to pass between threads.
+ * @param <T> class type of response body.
+ * @see AsyncRequestHandler
+ * @version 1.0.0
+ */
+
+public class RestResponse<T> {
+
+    @Nullable private final T body;
+    @NonNull private final HttpStatus httpStatus;
+    @NonNull private final HttpHeaders headers;
+    private final long elapsedNanos;
+
+    /**
+     * @param body parsed body, null if response has no body.
+     * @param httpStatus status code.
+     * @param headers response headers, they are copied.
+     */
+    public RestResponse(@Nullable T body, @NonNull HttpStatus httpStatus, @NonNull HttpHeaders headers) {
+        this(body, httpStatus, headers, -1);
+    }
+
+    /**
+     * @param body parsed body, null if response has no body.
+     * @param httpStatus status code.
+     * @param headers response headers, they are copied.
+     * @param elapsedNanos time taken by the request, -1 if unknown.
+     */
+    public RestResponse(@Nullable T body, @NonNull HttpStatus httpStatus, @NonNull HttpHeaders headers,
+                        long elapsedNanos) {
+        this.body = body;
+        this.elapsedNanos = elapsedNanos;
+        this.httpStatus = httpStatus;
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        this.headers = HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+
+    @NonNull
+    static <T> RestResponse<T> of(@NonNull ResponseEntity<T> entity, long elapsedNanos) {
+        return new RestResponse<>(entity.hasBody() ? entity.getBody() : null,
+                entity.getStatusCode(), entity.getHeaders(), elapsedNanos);
+    }
+
+    /**
+     * @return object parsed from response body, null if response has no body.
+     */
+    @Nullable
+    public T getBody() {
+        return body;
+    }
+
+    /**
+     * @return http status code of response.
+     */
+    @NonNull
+    public HttpStatus getHttpStatus() {
+        return httpStatus;
+    }
+
+    /**
+     * @return read only http headers of response.
+     */
+    @NonNull
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return time from start of the request till its body was parsed, in
+               nanos, -1 if unknown. for asynchronous request it includes time
+               spent in dispatcher queue. detailed timings are reported to
+               {@link com.simple_rest.s_rest.restapi.client.RequestListener}.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return true if response has 2xx status.
+     */
+    public boolean isSuccessful() {
+        return httpStatus.series() == HttpStatus.Series.SUCCESSFUL;
+    }
+
+    @Override
+    public String toString() {
+        return "RestResponse{" + httpStatus + ", body=" + body + "}";
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.cache;
+
+import com.simple_rest.s_rest.restapi.TestServer;
+import com.simple_rest.s_rest.restapi.client.RequestCancelledException;
+import com.simple_rest.s_rest.restapi.client.RequestContext;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.simple_rest.s_rest.restapi.request.JsonArrayIterator;
+import com.simple_rest.s_rest.restapi.request.RequestHandler;
+import com.simple_rest.s_rest.restapi.request.RestResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ResponseCacheTest {
+
+    /** what the server does with requests after the first one. */
+    private enum Mode { FAIL, HANG, CHANGE }
+
+    private TestServer server;
+    private RestClient client;
+    private RequestHandler handler;
+    private volatile Mode mode;
+    private final AtomicInteger requests = new AtomicInteger(), arrayRequests = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer().handle("/item", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int n = requests.incrementAndGet();
+                exchange.getResponseHeaders().set("Cache-Control", "max-age=0");
+                exchange.getResponseHeaders().set("ETag", "\"v" + n + "\"");
+                if (n == 1) {
+                    TestServer.respond(exchange, 200, "text/plain", "v1");
+                } else if (mode == Mode.FAIL) {
+                    TestServer.respond(exchange, 500, "text/plain", "");
+                } else if (mode == Mode.HANG) {
+                    try {
+                        Thread.sleep(5000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    TestServer.respond(exchange, 500, "text/plain", "");
+                } else {
+                    TestServer.respond(exchange, 200, "text/plain", "v" + n);
+                }
+            }
+        }).handle("/array", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                arrayRequests.incrementAndGet();
+                exchange.getResponseHeaders().set("Cache-Control", "max-age=60");
+                TestServer.respond(exchange, 200, "application/json", "[1,2,3]");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void staleEntryIsServedWhenServerFails() {
+        mode = Mode.FAIL;
+        build(new ResponseCache.Builder().staleIfError(1, TimeUnit.MINUTES));
+        assertEquals("v1", get(null).getBody());
+        RestResponse<String> response = get(null);
+        assertEquals("v1", response.getBody());
+        assertEquals(ResponseCache.STALE, response.getHeaders().getFirst(ResponseCache.CACHE_STATUS_HEADER));
+    }
+
+    @Test
+    public void cancelledRequestIsNotAnsweredFromStaleEntry() throws Exception {
+        mode = Mode.HANG;
+        build(new ResponseCache.Builder().staleIfError(1, TimeUnit.MINUTES));
+        get(null);
+        final RequestContext context = new RequestContext();
+        Thread canceller = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                context.cancel();
+            }
+        });
+        canceller.start();
+        try {
+            get(context);
+            fail("cancelled request was answered from cache");
+        } catch (RequestCancelledException expected) {
+            // cancelled, as it should be
+        } finally {
+            canceller.join();
+        }
+    }
+
+    @Test
+    public void staleEntryIsRefreshedInBackground() {
+        mode = Mode.CHANGE;
+        build(new ResponseCache.Builder().staleWhileRevalidate(1, TimeUnit.MINUTES)
+                .revalidationExecutor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        command.run();
+                    }
+                }));
+        assertEquals("v1", get(null).getBody());
+        RestResponse<String> stale = get(null);
+        assertEquals("v1", stale.getBody());
+        assertEquals(ResponseCache.STALE, stale.getHeaders().getFirst(ResponseCache.CACHE_STATUS_HEADER));
+        assertEquals(2, requests.get());
+        assertEquals("v2", get(null).getBody());
+    }
+
+    @Test
+    public void streamedArrayBypassesCache() throws IOException {
+        build(new ResponseCache.Builder());
+        ResponseCache cache = client.getResponseCache();
+        for (int i = 0; i < 2; i++) {
+            JsonArrayIterator<Integer> it = handler.openArray(Integer.class, server.url("/array"),
+                    HttpMethod.GET, new HttpHeaders());
+            try {
+                int sum = 0;
+                while (it.hasNext())
+                    sum += it.next();
+                assertEquals(6, sum);
+            } finally {
+                it.close();
+            }
+        }
+        assertEquals(2, arrayRequests.get());
+        assertEquals(0, cache.getMissCount() + cache.getHitCount());
+    }
+
+    private void build(ResponseCache.Builder cache) {
+        client = new RestClient.Builder().responseCache(cache.build()).build();
+        handler = new RequestHandler(client);
+    }
+
+    private RestResponse<String> get(RequestContext context) {
+        return handler.execute(String.class, server.url("/item"), HttpMethod.GET, null, new HttpHeaders(),
+                context);
+    }
+}
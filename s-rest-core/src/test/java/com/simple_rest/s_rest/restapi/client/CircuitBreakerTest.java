@@ -0,0 +1,155 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import com.simple_rest.s_rest.restapi.TestServer;
+import com.simple_rest.s_rest.restapi.request.RequestHandler;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest {
+
+    private static final String HOST = "127.0.0.1";
+
+    private TestServer server;
+    private RestClient client;
+    private RequestHandler handler;
+    private CircuitBreaker breaker;
+    private volatile int status = 500;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer().handle("/item", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                TestServer.respond(exchange, status, "text/plain", status == 200 ? "ok" : "");
+            }
+        }).handle("/hang", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                TestServer.respond(exchange, 200, "text/plain", "late");
+            }
+        });
+        breaker = new CircuitBreaker.Builder().window(4, 4).failureRateThreshold(0.5f)
+                .openDuration(300, TimeUnit.MILLISECONDS).halfOpenCalls(1).build();
+        client = new RestClient.Builder().circuitBreaker(breaker).build();
+        handler = new RequestHandler(client);
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void failingHostIsShortCircuitedThenRecovers() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            try {
+                get();
+                fail("server error expected");
+            } catch (HttpServerErrorException expected) {
+                // counted as failure
+            }
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(HOST));
+        try {
+            get();
+            fail("open circuit must fail fast");
+        } catch (CircuitOpenException expected) {
+            // not sent to the server
+        }
+        assertEquals(4, requests.get());
+        assertEquals(1, breaker.getShortCircuitedCount());
+
+        status = 200;
+        Thread.sleep(350);
+        assertEquals("ok", get());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(HOST));
+    }
+
+    @Test
+    public void successfulRequestsKeepCircuitClosed() {
+        status = 200;
+        for (int i = 0; i < 8; i++)
+            assertEquals("ok", get());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(HOST));
+        assertEquals(0, breaker.getShortCircuitedCount());
+    }
+
+    @Test
+    public void cancelledRequestsDoNotOpenCircuit() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            final RequestContext context = new RequestContext();
+            Thread canceller = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    context.cancel();
+                }
+            });
+            canceller.start();
+            try {
+                handler.execute(String.class, server.url("/hang"), HttpMethod.GET, null, new HttpHeaders(),
+                        context);
+                fail("request must be cancelled");
+            } catch (RequestCancelledException expected) {
+                // cancelled by its caller, not failed by the host
+            } finally {
+                canceller.join();
+            }
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(HOST));
+    }
+
+    private String get() {
+        return handler.execute(String.class, server.url("/item")).getBody();
+    }
+}
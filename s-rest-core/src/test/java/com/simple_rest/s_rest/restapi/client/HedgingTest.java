@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import com.simple_rest.s_rest.restapi.TestServer;
+import com.simple_rest.s_rest.restapi.request.RequestHandler;
+import com.simple_rest.s_rest.restapi.request.RestResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class HedgingTest {
+
+    private TestServer server;
+    private RestClient client;
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final List<String> idempotentHeaders = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer().handle("/item", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                idempotentHeaders.add(exchange.getRequestHeaders().getFirst(HedgingPolicy.IDEMPOTENT_HEADER));
+                TestServer.readBody(exchange);
+                if (attempts.incrementAndGet() == 1) {
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    TestServer.respond(exchange, 200, "text/plain", "slow");
+                } else {
+                    TestServer.respond(exchange, 200, "text/plain", "fast");
+                }
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void idempotentHeaderIsNotSentWithoutHedging() {
+        client = new RestClient.Builder().build();
+        send(HttpMethod.PUT);
+        send(HttpMethod.POST);
+        assertEquals(2, idempotentHeaders.size());
+        for (String header : idempotentHeaders)
+            assertNull(header);
+    }
+
+    @Test
+    public void slowPutMarkedIdempotentIsHedged() {
+        HedgingPolicy policy = new HedgingPolicy.Builder().delay(50, TimeUnit.MILLISECONDS)
+                .hedgePut(true).budget(1, 10).build();
+        client = new RestClient.Builder().hedging(policy).build();
+        assertEquals("fast", send(HttpMethod.PUT).getBody());
+        assertEquals(1, policy.getHedgedCount());
+        assertEquals(1, policy.getHedgeWinCount());
+        assertEquals(2, idempotentHeaders.size());
+        for (String header : idempotentHeaders)
+            assertNull(header);
+    }
+
+    @Test
+    public void losingAttemptIsCancelled() throws InterruptedException {
+        client = new RestClient.Builder().hedging(new HedgingPolicy.Builder()
+                .delay(50, TimeUnit.MILLISECONDS).budget(1, 10).build()).build();
+        assertEquals("fast", send(HttpMethod.GET).getBody());
+        // slow attempt would be answered & its connection pooled, unless it was aborted
+        Thread.sleep(1300);
+        assertEquals(1, ((PooledConnectionEngine) client.getConnectionEngine()).getConnectionCount());
+    }
+
+    private RestResponse<String> send(HttpMethod method) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HedgingPolicy.IDEMPOTENT_HEADER, "true");
+        return new RequestHandler(client).execute(String.class, server.url("/item"), method,
+                method == HttpMethod.GET ? null : "body", headers);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import com.simple_rest.s_rest.restapi.TestServer;
+import com.simple_rest.s_rest.restapi.request.RequestHandler;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RateLimiterTest {
+
+    private static final String HOST = "127.0.0.1";
+
+    private TestServer server;
+    private RestClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer().handle("/ok", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                TestServer.respond(exchange, 200, "text/plain", "ok");
+            }
+        }).handle("/overloaded", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().set("Retry-After", "2");
+                TestServer.respond(exchange, 503, "text/plain", "");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void overloadedHostGetsLowerLimitAndPause() {
+        RateLimiter limiter = new RateLimiter.Builder().concurrency(8, 1, 16).backoffRatio(0.5).build();
+        RequestHandler handler = handler(limiter);
+        try {
+            handler.execute(String.class, server.url("/overloaded"));
+            fail("server error expected");
+        } catch (HttpServerErrorException expected) {
+            // 503 reduces the limit
+        }
+        assertEquals(4, limiter.getLimit(HOST));
+        assertEquals(1, limiter.getThrottledCount());
+        assertEquals(0, limiter.getInFlight(HOST));
+        assertTrue(limiter.getPausedMillis(HOST) > 1000);
+    }
+
+    @Test
+    public void requestOverRateIsRejectedAfterMaxWait() {
+        RateLimiter limiter = new RateLimiter.Builder().rate(1, 1).maxWait(50, TimeUnit.MILLISECONDS).build();
+        RequestHandler handler = handler(limiter);
+        assertEquals("ok", handler.execute(String.class, server.url("/ok")).getBody());
+        try {
+            handler.execute(String.class, server.url("/ok"));
+            fail("second request within a second must be rejected");
+        } catch (RateLimitedException expected) {
+            // rate is one request per second
+        }
+        assertEquals(1, limiter.getRejectedCount());
+        assertEquals(0, limiter.getInFlight(HOST));
+    }
+
+    private RequestHandler handler(RateLimiter limiter) {
+        client = new RestClient.Builder().rateLimiter(limiter).build();
+        return new RequestHandler(client);
+    }
+}
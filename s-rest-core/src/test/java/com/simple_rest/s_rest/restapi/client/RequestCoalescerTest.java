@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestCoalescerTest {
+
+    private static final String URL = "http://a.example/item";
+
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch leaderStarted = new CountDownLatch(1), releaseLeader = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        releaseLeader.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void waiterIsReleasedByCancelOfItsOwnContext() throws Exception {
+        Future<String> leader = start(new RequestContext(), leaderCall("leader", false));
+        final RequestContext waiterContext = new RequestContext();
+        Future<String> waiter = start(waiterContext, call("waiter"));
+        Thread.sleep(100);
+        waiterContext.cancel();
+        try {
+            waiter.get(2, TimeUnit.SECONDS);
+            fail("cancelled waiter must not wait for the first call");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RequestCancelledException);
+        }
+        releaseLeader.countDown();
+        assertEquals("leader", leader.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void waiterStopsWaitingAtItsOwnDeadline() throws Exception {
+        start(new RequestContext(), leaderCall("leader", false));
+        RequestContext waiterContext = new RequestContext(new Timeouts.Builder()
+                .total(200, TimeUnit.MILLISECONDS).build());
+        Future<String> waiter = start(waiterContext, call("waiter"));
+        try {
+            waiter.get(2, TimeUnit.SECONDS);
+            fail("waiter must time out with its own deadline");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RequestTimeoutException);
+        }
+    }
+
+    @Test
+    public void waiterMakesItsOwnCallWhenFirstCallIsCancelled() throws Exception {
+        Future<String> leader = start(new RequestContext(), leaderCall("leader", true));
+        Future<String> waiter = start(new RequestContext(), call("waiter"));
+        Thread.sleep(100);
+        releaseLeader.countDown();
+        try {
+            leader.get(2, TimeUnit.SECONDS);
+            fail("first call was cancelled");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RequestCancelledException);
+        }
+        assertEquals("waiter", waiter.get(2, TimeUnit.SECONDS));
+        assertEquals(2, coalescer.getExecutedCount());
+    }
+
+    private Future<String> start(final RequestContext context, final Callable<String> call)
+            throws InterruptedException {
+        Future<String> future = executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return coalescer.execute(HttpMethod.GET, URL, new HttpHeaders(), String.class, context, call);
+            }
+        });
+        if (leaderStarted.getCount() > 0)
+            assertTrue(leaderStarted.await(2, TimeUnit.SECONDS));
+        return future;
+    }
+
+    private Callable<String> leaderCall(final String result, final boolean cancelled) {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                leaderStarted.countDown();
+                releaseLeader.await();
+                if (cancelled)
+                    throw new RequestCancelledException("GET request for \"" + URL + "\" cancelled",
+                            new InterruptedIOException("Canceled"));
+                return result;
+            }
+        };
+    }
+
+    private static Callable<String> call(final String result) {
+        return new Callable<String>() {
+            @Override
+            public String call() {
+                return result;
+            }
+        };
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.client;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestDispatcherTest {
+
+    private RequestDispatcher dispatcher;
+
+    @After
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void requestsOfOneHostRunWithinItsLimit() throws Exception {
+        dispatcher = new RequestDispatcher(4, 2);
+        final AtomicInteger running = new AtomicInteger(), maxRunning = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(dispatcher.submit("a.example", RequestDispatcher.Priority.NORMAL, new Callable<Void>() {
+                @Override
+                public Void call() throws InterruptedException {
+                    start.await();
+                    int now = running.incrementAndGet();
+                    synchronized (maxRunning) {
+                        maxRunning.set(Math.max(maxRunning.get(), now));
+                    }
+                    Thread.sleep(30);
+                    running.decrementAndGet();
+                    return null;
+                }
+            }));
+        }
+        assertEquals(2, dispatcher.getRunningCount());
+        assertEquals(6, dispatcher.getQueuedCount());
+        start.countDown();
+        for (Future<Void> future : futures)
+            future.get(10, TimeUnit.SECONDS);
+        assertEquals(2, maxRunning.get());
+        assertEquals(8, dispatcher.getSubmittedCount());
+    }
+
+    @Test
+    public void queuedRequestsRunInPriorityOrder() throws Exception {
+        dispatcher = new RequestDispatcher(1, 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        dispatcher.submit("a.example", RequestDispatcher.Priority.NORMAL, new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+                release.await();
+                return null;
+            }
+        });
+        List<Future<Void>> futures = new ArrayList<>();
+        for (RequestDispatcher.Priority priority : new RequestDispatcher.Priority[] {
+                RequestDispatcher.Priority.BACKGROUND, RequestDispatcher.Priority.NORMAL,
+                RequestDispatcher.Priority.USER_VISIBLE })
+            futures.add(dispatcher.submit("a.example", priority, record(order, priority.name())));
+        assertEquals(3, dispatcher.getQueuedCount());
+        release.countDown();
+        for (Future<Void> future : futures)
+            future.get(10, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("USER_VISIBLE", "NORMAL", "BACKGROUND"), order);
+    }
+
+    @Test
+    public void otherHostIsNotBlockedByBusyHost() throws Exception {
+        dispatcher = new RequestDispatcher(2, 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        dispatcher.submit("busy.example", RequestDispatcher.Priority.NORMAL, new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+                release.await();
+                return null;
+            }
+        });
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        Future<Void> queued = dispatcher.submit("busy.example", RequestDispatcher.Priority.USER_VISIBLE,
+                record(order, "busy"));
+        dispatcher.submit("idle.example", RequestDispatcher.Priority.BACKGROUND, record(order, "idle"))
+                .get(10, TimeUnit.SECONDS);
+        assertEquals(Collections.singletonList("idle"), order);
+        release.countDown();
+        queued.get(10, TimeUnit.SECONDS);
+    }
+
+    private static Callable<Void> record(final List<String> order, final String name) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() {
+                order.add(name);
+                return null;
+            }
+        };
+    }
+}
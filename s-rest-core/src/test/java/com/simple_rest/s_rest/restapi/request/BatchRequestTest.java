@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import com.simple_rest.s_rest.restapi.TestServer;
+import com.simple_rest.s_rest.restapi.client.RequestCancelledException;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BatchRequestTest {
+
+    private static final int BATCH_SIZE = 20, MAX_CONCURRENCY = 2;
+
+    private TestServer server;
+    private RestClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer().handle("/slow", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                TestServer.respond(exchange, 200, "text/plain", exchange.getRequestURI().getQuery());
+            }
+        }).handle("/hang", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                TestServer.respond(exchange, 200, "text/plain", "late");
+            }
+        });
+        client = new RestClient.Builder().build();
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void allResultsArriveInRequestOrder() throws Exception {
+        List<BatchResult<?>> results = new BatchRequest(client, MAX_CONCURRENCY).execute(specs())
+                .allDone().get(30, TimeUnit.SECONDS);
+        assertEquals(BATCH_SIZE, results.size());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            assertTrue(results.get(i).isSuccessful());
+            assertEquals("i=" + i, results.get(i).getBody());
+        }
+    }
+
+    @Test
+    public void cancelledBatchLargerThanConcurrencyCompletes() throws Exception {
+        BatchRequest.Execution execution = new BatchRequest(client, MAX_CONCURRENCY).execute(specs());
+        execution.cancel();
+        List<BatchResult<?>> results = execution.allDone().get(10, TimeUnit.SECONDS);
+        assertEquals(BATCH_SIZE, results.size());
+        int empty = 0;
+        for (BatchResult<?> result : results) {
+            assertNotNull(result);
+            if (result.getBody() == null) {
+                assertTrue(result.getError() == null || result.getError() instanceof RequestCancelledException);
+                empty++;
+            }
+        }
+        assertTrue(empty >= BATCH_SIZE - MAX_CONCURRENCY);
+        for (int i = 0; i < BATCH_SIZE; i++)
+            assertNotNull(execution.take());
+        assertNull(execution.take());
+        assertFalse(execution.allDone().get().isEmpty());
+    }
+
+    @Test
+    public void cancelAbortsRunningRequests() throws Exception {
+        List<RequestSpec<String>> specs = new ArrayList<>();
+        for (int i = 0; i < MAX_CONCURRENCY; i++)
+            specs.add(new RequestSpec<>(String.class, server.url("/hang?i=" + i)));
+        BatchRequest.Execution execution = new BatchRequest(client, MAX_CONCURRENCY).execute(specs);
+        Thread.sleep(300);
+        execution.cancel();
+        List<BatchResult<?>> results = execution.allDone().get(3, TimeUnit.SECONDS);
+        for (BatchResult<?> result : results) {
+            assertNull(result.getBody());
+            assertTrue(result.getError() instanceof RequestCancelledException);
+        }
+    }
+
+    private List<RequestSpec<String>> specs() {
+        List<RequestSpec<String>> specs = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++)
+            specs.add(new RequestSpec<>(String.class, server.url("/slow?i=" + i)));
+        return specs;
+    }
+}
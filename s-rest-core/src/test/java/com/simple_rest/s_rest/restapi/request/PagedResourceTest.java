@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import com.simple_rest.s_rest.restapi.TestServer;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class PagedResourceTest {
+
+    private TestServer server;
+    private RestClient client;
+    private final List<String> queries = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer().handle("/items", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String query = exchange.getRequestURI().getRawQuery();
+                queries.add(query);
+                if (query == null) {
+                    exchange.getResponseHeaders().add("X-Cursor", "a+b==/{c}");
+                    exchange.getResponseHeaders().add("Link", "</items?page=2&q=%7Bx%7D%25>; rel=\"next\"");
+                }
+                TestServer.respond(exchange, 200, "text/plain", "page");
+            }
+        });
+        client = new RestClient.Builder().build();
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void encodedCursorIsNotEncodedAgain() {
+        PagedResource<String> pages = new PagedResource.Builder<>(String.class, server.url("/items"))
+                .nextPage(NextPages.<String>cursorHeader("X-Cursor", "cursor")).build();
+        assertEquals(2, count(pages));
+        assertEquals(null, queries.get(0));
+        assertEquals("cursor=" + RequestTemplate.encode("a+b==/{c}"), queries.get(1));
+    }
+
+    @Test
+    public void linkWithEscapesAndBracesIsRequestedAsIs() {
+        PagedResource<String> pages = new PagedResource.Builder<>(String.class, server.url("/items")).build();
+        assertEquals(2, count(pages));
+        assertEquals("page=2&q=%7Bx%7D%25", queries.get(1));
+    }
+
+    private int count(PagedResource<String> pages) {
+        PagedResource<String>.PageIterator it = pages.iterator();
+        int count = 0;
+        try {
+            while (it.hasNext()) {
+                assertEquals("page", it.next().getBody());
+                count++;
+            }
+        } finally {
+            it.close();
+        }
+        assertFalse(it.hasNext());
+        return count;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import com.simple_rest.s_rest.restapi.TestServer;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RequestHandlerTest {
+
+    private TestServer server;
+    private RestClient client;
+    private RequestHandler handler;
+    private final AtomicInteger truncatedRequests = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer().handle("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String path = exchange.getRequestURI().getPath();
+                if (path.equals("/ok"))
+                    TestServer.respond(exchange, 200, "text/plain", "ok");
+                else if (path.equals("/json"))
+                    TestServer.respond(exchange, 200, "application/json", "{\"a\":1}");
+                else if (path.equals("/truncated"))
+                    respondTruncated(exchange);
+                else if (path.equals("/echo"))
+                    TestServer.respond(exchange, 200, "text/plain",
+                            exchange.getRequestHeaders().getFirst("Content-Type") + " "
+                                    + TestServer.readBody(exchange));
+                else
+                    TestServer.respond(exchange, 404, "text/plain", "");
+            }
+        });
+        client = new RestClient.Builder().build();
+        handler = new RequestHandler(client);
+    }
+
+    private void respondTruncated(HttpExchange exchange) throws IOException {
+        truncatedRequests.incrementAndGet();
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(200, 10);
+        OutputStream out = exchange.getResponseBody();
+        out.write("hello".getBytes("UTF-8"));
+        out.flush();
+        exchange.close();
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void stringBodyOfJsonResponseIsReturnedAsItIs() {
+        assertEquals("{\"a\":1}", handler.getResource(String.class, server.url("/json")));
+        assertNull(handler.getError());
+    }
+
+    @Test
+    public void stringRequestBodyIsSentAsItIs() {
+        String echo = handler.getResource(String.class, server.url("/echo"), HttpMethod.POST, "hello",
+                new HttpHeaders());
+        assertTrue(echo, echo.startsWith("text/plain"));
+        assertTrue(echo, echo.endsWith(" hello"));
+    }
+
+    @Test
+    public void errorOfFailedRequestIsClearedBySuccessfulRequest() {
+        assertNull(handler.getResource(String.class, server.url("/missing")));
+        assertNotNull(handler.getError());
+        assertEquals("ok", handler.getResource(String.class, server.url("/ok")));
+        assertNull(handler.getError());
+    }
+
+    @Test
+    public void errorOfFailedRequestIsClearedBySuccessfulDownload() {
+        assertEquals(-1, handler.download(server.url("/missing"), new HttpHeaders(),
+                new ByteArrayOutputStream(), null));
+        assertNotNull(handler.getError());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, handler.download(server.url("/ok"), new HttpHeaders(), out, null));
+        assertNull(handler.getError());
+    }
+
+    @Test
+    public void downloadIsNotRetriedWhenServerIgnoresRange() {
+        assertEquals(-1, handler.download(server.url("/truncated"), new HttpHeaders(),
+                new ByteArrayOutputStream(), null));
+        assertNotNull(handler.getError());
+        assertEquals(2, truncatedRequests.get());
+    }
+}
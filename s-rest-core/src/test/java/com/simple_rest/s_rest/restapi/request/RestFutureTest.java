@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.simple_rest.s_rest.restapi.client.RestLogger;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RestFutureTest {
+
+    private final List<Throwable> logged = new ArrayList<>();
+
+    private final RestLogger logger = new RestLogger() {
+        @Override
+        public void info(@NonNull String tag, @NonNull String message) {
+        }
+
+        @Override
+        public void error(@NonNull String tag, @NonNull String message, @Nullable Throwable error) {
+            logged.add(error);
+        }
+    };
+
+    @Test
+    public void throwingCallbackDoesNotStopOtherCallbacks() throws Exception {
+        RestFuture<String> future = new RestFuture<>(logger);
+        final IllegalStateException thrown = new IllegalStateException("callback");
+        future.addCallback(new RestCallback<String>() {
+            @Override
+            public void onSuccess(String result) {
+                throw thrown;
+            }
+
+            @Override
+            public void onFailure(@NonNull Exception error) {
+            }
+        });
+        RestFuture<Integer> length = future.map(new RestFuture.Transform<String, Integer>() {
+            @Override
+            public Integer apply(String input) {
+                return input.length();
+            }
+        });
+        assertTrue(future.complete("value"));
+        assertEquals(Integer.valueOf(5), length.get(1, TimeUnit.SECONDS));
+        assertEquals(1, logged.size());
+        assertTrue(logged.get(0) == thrown);
+    }
+
+    @Test
+    public void callbackOfCompletedFutureIsIsolatedToo() {
+        RestFuture<String> future = new RestFuture<>(logger);
+        future.complete("value");
+        future.map(new RestFuture.Transform<String, Integer>() {
+            @Override
+            public Integer apply(String input) {
+                return input.length();
+            }
+        }).addCallback(new RestCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer result) {
+                throw new IllegalStateException("callback");
+            }
+
+            @Override
+            public void onFailure(@NonNull Exception error) {
+            }
+        });
+        assertEquals(1, logged.size());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ *  Copyright 2017 Neel Patel.
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+
+package com.simple_rest.s_rest.restapi.request;
+
+import com.simple_rest.s_rest.restapi.TestServer;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * many threads share one {@link RequestHandler} through 'execute', every
+   response must carry body & request id of its own request.
+ */
+public class SharedRequestHandlerTest {
+
+    private static final int THREADS = 16, REQUESTS_PER_THREAD = 50;
+
+    public static class Message {
+        public long id;
+        public String text;
+    }
+
+    private TestServer server;
+    private RestClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new TestServer().handle("/echo", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String body = TestServer.readBody(exchange);
+                exchange.getResponseHeaders().set("X-Request-Id",
+                        exchange.getRequestHeaders().getFirst("X-Request-Id"));
+                TestServer.respond(exchange, 200, "application/json", body);
+            }
+        });
+        client = new RestClient.Builder().build();
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void responsesAreNotMixedUpBetweenThreads() throws Exception {
+        final RequestHandler handler = new RequestHandler(client);
+        final String url = server.url("/echo");
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            results.add(pool.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        long id = thread * 1000L + i;
+                        Message message = new Message();
+                        message.id = id;
+                        message.text = "message " + id;
+                        HttpHeaders headers = new HttpHeaders();
+                        headers.add("Content-Type", "application/json");
+                        headers.add("X-Request-Id", Long.toString(id));
+                        RestResponse<Message> response = handler.execute(Message.class, url,
+                                HttpMethod.POST, message, headers);
+                        assertNotNull(response.getBody());
+                        assertEquals(id, response.getBody().id);
+                        assertEquals("message " + id, response.getBody().text);
+                        assertEquals(Long.toString(id), response.getHeaders().getFirst("X-Request-Id"));
+                    }
+                    return REQUESTS_PER_THREAD;
+                }
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> result : results)
+            total += result.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+        assertEquals(THREADS * REQUESTS_PER_THREAD, total);
+    }
+}
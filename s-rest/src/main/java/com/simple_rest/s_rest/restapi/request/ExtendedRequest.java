@@ -29,6 +29,12 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.Log;
 
+import com.simple_rest.s_rest.restapi.client.MainThreadExecutor;
+import com.simple_rest.s_rest.restapi.client.RequestContext;
+import com.simple_rest.s_rest.restapi.client.RequestDispatcher;
+import com.simple_rest.s_rest.restapi.client.RestClient;
+import com.simple_rest.s_rest.restapi.client.Timeouts;
+
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
@@ -48,6 +54,8 @@ import java.util.Map.Entry;
    generic type must be Array of the class.
  * if the response is in form of plan text then the generic type 'T' must be String.
  * any class can be used in case of empty response expected.
+ * if request object is a 'StreamingBody' (e.g. from 'StreamingBodies.fromFile'),
+   it is streamed to the server instead of being parsed to Json in memory.
  * <br><br>
  * 'HeaderTools' class can be used to make headers.
  * <br><br>
@@ -66,7 +74,12 @@ public class ExtendedRequest<T,R> extends AsyncTask<String,Void,T> {
     @NonNull private HttpMethod meth;
     //private Map<String,String> headers=new HashMap<>();
     private R requestObj;
+    @NonNull private RestClient client = RestClient.getDefault();
+    @NonNull private RequestDispatcher.Priority priority = RequestDispatcher.Priority.NORMAL;
+    @Nullable private Timeouts timeouts;
+    private volatile RequestContext context;
     private HttpStatus httpStatus;
+    private Exception error;
     private HttpHeaders responseHeaders;
 
     /**
@@ -174,21 +187,62 @@ public class ExtendedRequest<T,R> extends AsyncTask<String,Void,T> {
     @Override
     protected T doInBackground(String... params) {
         try {
-            RequestHandler rh = new RequestHandler();
-            T obj=rh.getResource(type, params[0], meth, requestObj, requestHeaders);
-            this.httpStatus = rh.getHttpStatus();
-            this.responseHeaders = rh.getHttpHeaders();
-            return obj;
+            RequestHandler rh = new RequestHandler(client);
+            RequestContext ctx = new RequestContext(timeouts);
+            context = ctx;
+            if (isCancelled())
+                return null;
+            RestResponse<T> response = rh.execute(type, params[0], meth, requestObj, requestHeaders, ctx);
+            this.httpStatus = response.getHttpStatus();
+            this.responseHeaders = response.getHeaders();
+            return response.getBody();
         }catch(Exception ex){
+            this.error = ex;
             Log.e("SimpleRequest", "doInBackground: "+ex.getMessage(),ex);
         }
         return null;
     }
 
+    /**
+     * execute the request on dispatcher of its client.
+     * unlike 'execute', request does not wait behind other AsyncTasks of the app;
+       it waits only for global & per host limits of the dispatcher.
+     * it must be called from main thread like 'execute'.
+     * @param url url.
+     * @return this object.
+     * @see RequestDispatcher
+     */
+    @NonNull
+    public ExtendedRequest<T,R> submit(@NonNull String url) {
+        executeOnExecutor(client.getDispatcher().executor(RequestDispatcher.hostOf(url), priority), url);
+        return this;
+    }
+
+    /**
+     * make the request without blocking any thread, as alternative to
+       'submit' followed by {@link #getObj()}.
+     * callback runs on main thread & receives body, status & headers of the
+       response, or the exception which failed the request.
+     * this object is not executed as AsyncTask, so it can still be executed.
+     * @param url url.
+     * @param callback callback.
+     * @return future of the response, it can be composed with other requests
+               or used to cancel the request.
+     * @see AsyncRequestHandler
+     */
+    @NonNull
+    public RestFuture<RestResponse<T>> enqueue(@NonNull String url,
+                                               @NonNull RestCallback<? super RestResponse<T>> callback) {
+        return new AsyncRequestHandler(client, priority, timeouts).getResource(type, url, meth, requestObj, requestHeaders)
+                .addCallback(callback, new MainThreadExecutor());
+    }
+
     /**
      * this method simply return object return by 'get' method of this class.
      * additionally it will mask all exceptions & return null if exception
      occurs while calling get method.
+     * it blocks the calling thread, see {@link #enqueue(String, RestCallback)}
+       for non-blocking alternative.
      * @return object parsed from http response.
      */
     @Nullable
@@ -201,6 +255,20 @@ public class ExtendedRequest<T,R> extends AsyncTask<String,Void,T> {
         return null;
     }
 
+    /**
+     * cancel this task & abort its request, closing the connection, so worker
+       thread is freed at once instead of waiting for the server.
+     * unlike 'cancel', which can not stop a thread blocked on network.
+     * @return false if task could not be cancelled, e.g. it already completed.
+     */
+    public boolean abort() {
+        boolean cancelled = cancel(true);
+        RequestContext running = context;
+        if (running != null)
+            running.cancel();
+        return cancelled;
+    }
+
     /**
      * add a Header to requestHeaders
      * @param key header name
@@ -210,6 +278,34 @@ public class ExtendedRequest<T,R> extends AsyncTask<String,Void,T> {
         requestHeaders.put(key, Arrays.asList(values));
     }
 
+    /**
+     * set client used to make the request.
+     * by default {@link RestClient#getDefault()} is used.
+     * @param client shared client
+     */
+    public void setRestClient(@NonNull RestClient client) {
+        this.client = client;
+    }
+
+    /**
+     * set priority used when request is submitted to dispatcher.
+     * default priority is {@link RequestDispatcher.Priority#NORMAL}.
+     * @param priority priority in dispatcher queue
+     */
+    public void setPriority(@NonNull RequestDispatcher.Priority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * set connect, read & total timeouts of the request, which override
+       timeouts of the client. timed out request fails with
+       {@link com.simple_rest.s_rest.restapi.client.RequestTimeoutException}.
+     * @param timeouts timeouts, null to use timeouts of the client.
+     */
+    public void setTimeouts(@Nullable Timeouts timeouts) {
+        this.timeouts = timeouts;
+    }
+
     /**
      * set Request method
      * @param meth http method
@@ -270,4 +366,13 @@ public class ExtendedRequest<T,R> extends AsyncTask<String,Void,T> {
         return responseHeaders;
     }
 
+    /**
+     * @return exception of last request, null if it did not fail.
+     * @see RequestHandler#getError()
+     */
+    @Nullable
+    public Exception getError() {
+        return error;
+    }
+
 }